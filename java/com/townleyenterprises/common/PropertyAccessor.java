@@ -0,0 +1,276 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	PropertyAccessor.java
+// Created:	Sun Oct 18 07:14:00 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.common;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * This class reads the value of a single property of an object.
+ * Accessors are created once for each property by {@link
+ * PropertyProxy#getAccessor} so that reading the property does not
+ * require the accessor method to be looked up again.
+ * <p>
+ * Where possible, the accessor is a class generated by {@link
+ * LambdaMetafactory} which calls the accessor method directly, so
+ * once it has been compiled it is as fast as calling the method
+ * from ordinary code.  If the accessor method cannot be linked in
+ * that way, for example because the class was loaded by a class
+ * loader which can't be seen from this one, a method handle or, as
+ * a last resort, reflection is used instead.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public abstract class PropertyAccessor
+{
+	/**
+	 * The constructor is only called by the implementations in
+	 * this class.
+	 *
+	 * @param method the accessor method
+	 */
+
+	PropertyAccessor(Method method)
+	{
+		_method = method;
+	}
+
+	/**
+	 * This method reads the property from an object.
+	 *
+	 * @param o the object
+	 * @return the value of the property, with primitive values
+	 * 	wrapped in their wrapper classes
+	 * @exception Exception
+	 * 	if the accessor method throws an exception
+	 */
+
+	public abstract Object getValue(Object o) throws Exception;
+
+	/**
+	 * This method returns the accessor method.
+	 *
+	 * @return the method
+	 */
+
+	public Method getMethod()
+	{
+		return _method;
+	}
+
+	/**
+	 * This method returns the type of the property.
+	 *
+	 * @return the return type of the accessor method
+	 */
+
+	public Class getType()
+	{
+		return _method.getReturnType();
+	}
+
+	public String toString()
+	{
+		return _method.toString();
+	}
+
+	/**
+	 * This method creates the fastest accessor available for an
+	 * accessor method.
+	 *
+	 * @param method the accessor method, which must not take any
+	 * 	parameters
+	 * @return the accessor
+	 */
+
+	static PropertyAccessor create(Method method)
+	{
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		MethodHandle handle;
+		try
+		{
+			handle = lookup.unreflect(method);
+		}
+		catch(IllegalAccessException e)
+		{
+			return new ReflectionAccessor(method);
+		}
+
+		if(isVisible(method.getDeclaringClass())
+				&& isVisible(method.getReturnType()))
+		{
+			try
+			{
+				CallSite site = LambdaMetafactory.metafactory(
+					lookup, "apply",
+					MethodType.methodType(Function.class),
+					MethodType.methodType(Object.class,
+						Object.class),
+					handle, handle.type().wrap());
+				return new FunctionAccessor(method,
+					(Function)site.getTarget().invoke());
+			}
+			catch(Throwable t)
+			{
+				// use the method handle
+			}
+		}
+
+		return new HandleAccessor(method, handle.asType(
+			MethodType.methodType(Object.class, Object.class)));
+	}
+
+	/**
+	 * This method checks if a class can be seen from the class
+	 * loader of this class, which is required for the generated
+	 * accessor to link to the accessor method.
+	 */
+
+	private static boolean isVisible(Class klass)
+	{
+		while(klass.isArray())
+			klass = klass.getComponentType();
+		if(klass.isPrimitive())
+			return true;
+
+		try
+		{
+			return Class.forName(klass.getName(), false,
+				PropertyAccessor.class.getClassLoader()) == klass;
+		}
+		catch(ClassNotFoundException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * This class calls the accessor method through a generated
+	 * Function.
+	 */
+
+	private static final class FunctionAccessor extends PropertyAccessor
+	{
+		FunctionAccessor(Method method, Function function)
+		{
+			super(method);
+			_function = function;
+		}
+
+		public Object getValue(Object o)
+		{
+			return _function.apply(o);
+		}
+
+		/** the generated function */
+		private final Function	_function;
+	}
+
+	/**
+	 * This class calls the accessor method through a method
+	 * handle.
+	 */
+
+	private static final class HandleAccessor extends PropertyAccessor
+	{
+		HandleAccessor(Method method, MethodHandle handle)
+		{
+			super(method);
+			_handle = handle;
+		}
+
+		public Object getValue(Object o) throws Exception
+		{
+			try
+			{
+				return _handle.invokeExact(o);
+			}
+			catch(Exception e)
+			{
+				throw e;
+			}
+			catch(Error e)
+			{
+				throw e;
+			}
+			catch(Throwable t)
+			{
+				throw new RuntimeException(t);
+			}
+		}
+
+		/** the method handle adapted to Object(Object) */
+		private final MethodHandle	_handle;
+	}
+
+	/**
+	 * This class calls the accessor method using reflection.
+	 */
+
+	private static final class ReflectionAccessor extends PropertyAccessor
+	{
+		ReflectionAccessor(Method method)
+		{
+			super(method);
+		}
+
+		public Object getValue(Object o) throws Exception
+		{
+			return getMethod().invoke(o, NO_ARGS);
+		}
+	}
+
+	/** the arguments of an accessor method */
+	private static final Object[]	NO_ARGS = new Object[0];
+
+	/** the accessor method */
+	private final Method		_method;
+}
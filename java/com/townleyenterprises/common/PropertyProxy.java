@@ -41,13 +41,23 @@
 
 package com.townleyenterprises.common;
 
-import java.util.HashMap;
-import java.lang.reflect.Method;
-
 /**
  * This class provides a simple way to dynamically access property
  * values similar to the way it is handled in the Jakarta Struts
  * package.
+ * <p>
+ * The accessor for each property name is resolved the first time
+ * the property is used and is cached, so later calls don't need to
+ * build the name of the accessor method or look it up.  Callers
+ * which read the same property repeatedly can obtain the {@link
+ * PropertyAccessor} once using {@link #getAccessor} and use it
+ * directly.
+ * </p>
+ * <p>
+ * The accessor methods and the resolved accessors of a class are
+ * shared by all of the proxies for the class, so creating a proxy
+ * does not examine the class again.
+ * </p>
  *
  * @version $Id: PropertyProxy.java,v 1.5 2004/07/29 18:34:07 atownley Exp $
  * @author <a href="mailto:adz1092@yahoo.com">Andrew S. Townley</a>
@@ -63,24 +73,15 @@ public class PropertyProxy
 
 	public PropertyProxy(Class klass)
 	{
-		// locate all of the accessor once
-		Method[] ms = klass.getMethods();
-		
-		for(int i = 0; i < ms.length; ++i)
-		{
-			if(ms[i].getName().startsWith("get"))
-			{
-				_methods.put(ms[i].getName().toLowerCase(),ms[i]);
-			}
-		}
-		
+		_registry = PropertyRegistry.forClass(klass);
 		_klass = klass;
 	}
 
 	/**
 	 * This method will retrieve the named property value for the
-	 * specified object.  The object must be of the same class as
-	 * the class specified in the constructor.
+	 * specified object.  The object must be an instance of the
+	 * class specified in the constructor or one of its
+	 * subclasses.
 	 *
 	 * @param property the case-insensitive name of the property
 	 * 	to retrieve from the object
@@ -91,26 +92,43 @@ public class PropertyProxy
 
 	public Object getPropertyValue(String property, Object o)
 	{
-		Object rez;
-		String name = "get" + property;
-		Method method = (Method)_methods.get(name.toLowerCase());
-		if(method == null)
-			throw new RuntimeException(Strings.format("fNoProperty", new Object[] { name, _klass.toString() }));
+		PropertyAccessor accessor = getAccessor(property);
+		checkClass(property, o);
+		return getValue(accessor, o);
+	}
 
-		if(!(_klass.equals(o.getClass())))
-			throw new RuntimeException(Strings.format("fBadClass", new Object[] { property, _klass.toString(), o.getClass(), o.toString() }));
-		
-		try
-		{
-			rez = method.invoke(o, new Object[0]);
-		}
-		catch(Exception e)
-		{
-			e.printStackTrace();
-			return null;
-		}
+	/**
+	 * This method will retrieve a property value for the
+	 * specified object using an accessor obtained from {@link
+	 * #getAccessor}.  The object must be an instance of the class
+	 * specified in the constructor or one of its subclasses.
+	 *
+	 * @param accessor the accessor for the property
+	 * @param o the object to access
+	 * @exception RuntimeException if the object is not an
+	 * 	instance of the class of this proxy
+	 * @since 3.0
+	 */
+
+	public Object getPropertyValue(PropertyAccessor accessor, Object o)
+	{
+		checkClass(accessor.getMethod().getName(), o);
+		return getValue(accessor, o);
+	}
+
+	/**
+	 * This method returns the accessor for the named property.
+	 *
+	 * @param property the case-insensitive name of the property
+	 * @return the accessor
+	 * @exception RuntimeException if the property is not valid
+	 * 	for the class
+	 * @since 3.0
+	 */
 
-		return rez;
+	public PropertyAccessor getAccessor(String property)
+	{
+		return _registry.getAccessor(property);
 	}
 
 	/**
@@ -124,7 +142,32 @@ public class PropertyProxy
 		return _klass;
 	}
 
+	/**
+	 * This method checks that the object is an instance of the
+	 * class of this proxy.
+	 */
+
+	private void checkClass(String property, Object o)
+	{
+		if(o.getClass() != _klass && !_klass.isInstance(o))
+			throw new RuntimeException(Strings.format("fBadClass", new Object[] { property, _klass.toString(), o.getClass(), o.toString() }));
+	}
+
+	private static Object getValue(PropertyAccessor accessor, Object o)
+	{
+		try
+		{
+			return accessor.getValue(o);
+		}
+		catch(Exception e)
+		{
+			e.printStackTrace();
+			return null;
+		}
+	}
+
 	private final Class	_klass;
-	private HashMap  	_methods = new HashMap();
-}
 
+	/** the shared accessors of the class */
+	private final PropertyRegistry	_registry;
+}
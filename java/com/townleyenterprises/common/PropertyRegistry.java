@@ -0,0 +1,135 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	PropertyRegistry.java
+// Created:	Sun Oct 18 07:15:42 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.common;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class holds the accessor methods of a class and the {@link
+ * PropertyAccessor} created for each property name.  A single
+ * instance is shared by all of the {@link PropertyProxy} instances
+ * for a class, so the methods of the class are only examined once
+ * per process.  The instances are held in a ClassValue, so they do
+ * not prevent classes from being unloaded.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class PropertyRegistry
+{
+	private PropertyRegistry(Class klass)
+	{
+		Method[] ms = klass.getMethods();
+		HashMap methods = new HashMap();
+		for(int i = 0; i < ms.length; ++i)
+		{
+			if(ms[i].getName().startsWith("get")
+					&& ms[i].getParameterTypes().length == 0)
+			{
+				methods.put(ms[i].getName().toLowerCase(), ms[i]);
+			}
+		}
+
+		_klass = klass;
+		_methods = methods;
+	}
+
+	/**
+	 * This method returns the registry for a class.
+	 *
+	 * @param klass the class
+	 * @return the registry
+	 */
+
+	static PropertyRegistry forClass(Class klass)
+	{
+		return (PropertyRegistry)REGISTRIES.get(klass);
+	}
+
+	/**
+	 * This method returns the accessor for the named property.
+	 *
+	 * @param property the case-insensitive name of the property
+	 * @return the accessor
+	 * @exception RuntimeException if the property is not valid
+	 * 	for the class
+	 */
+
+	PropertyAccessor getAccessor(String property)
+	{
+		PropertyAccessor accessor = (PropertyAccessor)_accessors.get(property);
+		if(accessor != null)
+			return accessor;
+
+		String name = "get" + property;
+		Method method = (Method)_methods.get(name.toLowerCase());
+		if(method == null)
+			throw new RuntimeException(Strings.format("fNoProperty", new Object[] { name, _klass.toString() }));
+
+		// if two threads get here, the first accessor wins
+		accessor = PropertyAccessor.create(method);
+		PropertyAccessor prev = (PropertyAccessor)((ConcurrentHashMap)_accessors).putIfAbsent(property, accessor);
+		return (prev != null) ? prev : accessor;
+	}
+
+	/** the registry of each class */
+	private static final ClassValue	REGISTRIES = new ClassValue() {
+		protected Object computeValue(Class type)
+		{
+			return new PropertyRegistry(type);
+		}
+	};
+
+	/** the class */
+	private final Class	_klass;
+
+	/** the accessor methods by lower case name */
+	private final Map	_methods;
+
+	/** the accessors resolved so far by property name */
+	private final Map	_accessors = new ConcurrentHashMap();
+}
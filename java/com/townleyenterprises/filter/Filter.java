@@ -41,15 +41,18 @@
 
 package com.townleyenterprises.filter;
 
+import java.util.function.Predicate;
+
 /**
  * This interface provides the base operation common to all filters
- * within the system.
+ * within the system.  Filters are also predicates, so they may be
+ * used directly in stream pipelines.
  *
  * @version $Id: Filter.java,v 1.4 2004/12/04 17:28:16 atownley Exp $
  * @author <a href="mailto:adz1092@yahoo.com">Andrew S. Townley</a>
  */
 
-public interface Filter
+public interface Filter extends Predicate
 {
 	/**
 	 * This method actually performs the operation that will
@@ -79,4 +82,19 @@ public interface Filter
 	 */
 
 	public boolean execute(Object o);
+
+	/**
+	 * This method allows the filter to be used as a predicate.
+	 * It returns the result of {@link #execute}.
+	 *
+	 * @param o the object to be tested
+	 * @return true if the object should be included in the
+	 * 	result; false if the object should not
+	 * @since 3.0
+	 */
+
+	public default boolean test(Object o)
+	{
+		return execute(o);
+	}
 }
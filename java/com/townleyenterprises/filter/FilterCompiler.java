@@ -0,0 +1,482 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FilterCompiler.java
+// Created:	Sun Oct 18 07:18:23 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.filter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * This class compiles a tree of filters into a single method handle
+ * which is equivalent to the tree and cheaper to execute.  The
+ * logical filters become guards which short-circuit in the same way
+ * as the filters, each comparison is made by a handle specialized
+ * for its operator and value, and the nested logical filters of the
+ * same kind are flattened.  No interface call is made for a node
+ * which has been compiled.  Once the compiled filter has been used
+ * often enough, the virtual machine generates code for the handle
+ * with the values bound to it treated as constants, so the JIT
+ * compiler is able to optimize the whole tree as one unit.
+ * <p>
+ * Only instances of the filter classes provided by this package are
+ * compiled.  Other filters, including subclasses which may have
+ * changed the behavior of the package filters, are called through
+ * their {@link Filter#execute} method.  Properties are looked up the
+ * first time they are needed, as they are by the original filters,
+ * so an invalid property only causes an error if it is evaluated.
+ * The compiled filter is a snapshot of the tree, so filters added to
+ * a logical filter after it has been compiled are not included.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:adz1092@yahoo.com">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class FilterCompiler
+{
+	/** don't want instances */
+	private FilterCompiler() {}
+
+	/**
+	 * This method compiles the specified filter.  The result
+	 * returns the same values as the original filter.
+	 *
+	 * @param filter the filter to compile
+	 * @return the compiled filter
+	 */
+
+	public static Filter compile(Filter filter)
+	{
+		if(filter == null)
+			throw new NullPointerException("filter");
+
+		// there's nothing to gain from wrapping other filters
+		Class klass = filter.getClass();
+		if(filter instanceof CompiledFilter
+				|| (klass != LogicalAndFilter.class
+				&& klass != LogicalOrFilter.class
+				&& klass != LogicalNotFilter.class
+				&& klass != QueryFilter.class
+				&& klass != StringFilter.class
+				&& klass != SubstringFilter.class))
+		{
+			return filter;
+		}
+
+		return new CompiledFilter(filter, compileHandle(filter));
+	}
+
+	/**
+	 * This method returns the handle of type
+	 * <code>(Object)boolean</code> which is equivalent to the
+	 * filter.
+	 */
+
+	private static MethodHandle compileHandle(Filter filter)
+	{
+		if(filter instanceof CompiledFilter)
+			return ((CompiledFilter)filter)._handle;
+
+		Class klass = filter.getClass();
+		if(klass == LogicalAndFilter.class)
+		{
+			MethodHandle[] handles = compileChildren((LogicalFilter)filter);
+			if(handles.length == 0)
+				return TRUE;
+
+			MethodHandle handle = handles[handles.length - 1];
+			for(int i = handles.length - 2; i >= 0; --i)
+			{
+				handle = MethodHandles.guardWithTest(handles[i],
+						handle, FALSE);
+			}
+			return handle;
+		}
+		else if(klass == LogicalOrFilter.class)
+		{
+			MethodHandle[] handles = compileChildren((LogicalFilter)filter);
+			if(handles.length == 0)
+				return FALSE;
+
+			MethodHandle handle = handles[handles.length - 1];
+			for(int i = handles.length - 2; i >= 0; --i)
+			{
+				handle = MethodHandles.guardWithTest(handles[i],
+						TRUE, handle);
+			}
+			return handle;
+		}
+		else if(klass == LogicalNotFilter.class)
+		{
+			return MethodHandles.filterReturnValue(compileHandle(
+				((LogicalNotFilter)filter).getFilter()), NOT);
+		}
+		else if(klass == QueryFilter.class)
+		{
+			QueryFilter qf = (QueryFilter)filter;
+			QueryOperator op = qf.getOperator();
+			MethodHandle test = null;
+			if(op == QueryOperator.LT)
+				test = LESS_THAN;
+			else if(op == QueryOperator.LE)
+				test = LESS_OR_EQUAL;
+			else if(op == QueryOperator.GT)
+				test = GREATER_THAN;
+			else if(op == QueryOperator.GE)
+				test = GREATER_OR_EQUAL;
+			else if(op == QueryOperator.EQ)
+				test = EQUAL;
+			else if(op == QueryOperator.NE)
+				test = NOT_EQUAL;
+
+			if(test != null)
+				return compare(qf, test, qf.getValue());
+		}
+		else if(klass == StringFilter.class)
+		{
+			StringFilter sf = (StringFilter)filter;
+			String value = (String)sf.getValue();
+			if(value == null)
+				return compare(sf, IS_NULL, null);
+			if(sf.getIgnoreCase())
+				return compare(sf, EQUALS_IGNORE_CASE, value);
+			return compare(sf, EQUALS, value);
+		}
+		else if(klass == SubstringFilter.class)
+		{
+			SubstringFilter sf = (SubstringFilter)filter;
+			String value = (String)sf.getValue();
+			if(value == null)
+				return compare(sf, IS_NULL, null);
+			if(sf.getIgnoreCase())
+			{
+				return compare(sf, CONTAINS_IGNORE_CASE,
+						value.toLowerCase());
+			}
+			return compare(sf, CONTAINS, value);
+		}
+
+		return EXECUTE.bindTo(filter);
+	}
+
+	/**
+	 * This method compiles the children of a logical filter.
+	 * Children of the same class as the parent are replaced by
+	 * their own children.
+	 */
+
+	private static MethodHandle[] compileChildren(LogicalFilter filter)
+	{
+		ArrayList list = new ArrayList();
+		addChildren(list, filter, filter.getClass());
+		return (MethodHandle[])list.toArray(new MethodHandle[list.size()]);
+	}
+
+	private static void addChildren(ArrayList list, LogicalFilter filter,
+				Class klass)
+	{
+		for(Iterator i = filter.iterator(); i.hasNext(); )
+		{
+			Filter f = (Filter)i.next();
+			if(f.getClass() == klass)
+				addChildren(list, (LogicalFilter)f, klass);
+			else
+				list.add(compileHandle(f));
+		}
+	}
+
+	/**
+	 * This method returns a handle which applies a test to the
+	 * property of the query filter.  The property is read through
+	 * the filter, so it is looked up and the class of the object is
+	 * checked in the same way.
+	 *
+	 * @param filter the query filter
+	 * @param test the test, which takes the value being compared
+	 * 	and the property value, or only the property value for
+	 * 	IS_NULL
+	 * @param value the value being compared
+	 */
+
+	private static MethodHandle compare(QueryFilter filter,
+				MethodHandle test, Object value)
+	{
+		if(test != IS_NULL)
+		{
+			test = MethodHandles.insertArguments(test, 0,
+					new Object[] { value });
+		}
+
+		return MethodHandles.filterArguments(test, 0,
+				new MethodHandle[] { GET_PROPERTY.bindTo(filter) });
+	}
+
+	private static boolean not(boolean b)
+	{
+		return !b;
+	}
+
+	private static boolean lessThan(Comparable value, Object o)
+	{
+		return o != null && ((Comparable)o).compareTo(value) < 0;
+	}
+
+	private static boolean lessOrEqual(Comparable value, Object o)
+	{
+		return o != null && ((Comparable)o).compareTo(value) <= 0;
+	}
+
+	private static boolean greaterThan(Comparable value, Object o)
+	{
+		return o != null && ((Comparable)o).compareTo(value) > 0;
+	}
+
+	private static boolean greaterOrEqual(Comparable value, Object o)
+	{
+		return o != null && ((Comparable)o).compareTo(value) >= 0;
+	}
+
+	private static boolean equal(Comparable value, Object o)
+	{
+		return o != null && ((Comparable)o).compareTo(value) == 0;
+	}
+
+	private static boolean notEqual(Comparable value, Object o)
+	{
+		return o != null && ((Comparable)o).compareTo(value) != 0;
+	}
+
+	private static boolean isNull(Object o)
+	{
+		return (String)o == null;
+	}
+
+	private static boolean stringEquals(String value, Object o)
+	{
+		String s = (String)o;
+		return s != null && s.equals(value);
+	}
+
+	private static boolean stringEqualsIgnoreCase(String value, Object o)
+	{
+		String s = (String)o;
+		return s != null && s.equalsIgnoreCase(value);
+	}
+
+	private static boolean contains(String value, Object o)
+	{
+		String s = (String)o;
+		return s != null && s.indexOf(value) != -1;
+	}
+
+	private static boolean containsIgnoreCase(String value, Object o)
+	{
+		String s = (String)o;
+		return s != null && s.toLowerCase().indexOf(value) != -1;
+	}
+
+	/**
+	 * This method finds one of the static methods of this class.
+	 */
+
+	private static MethodHandle findStatic(String name, MethodType type)
+	{
+		try
+		{
+			return MethodHandles.lookup().findStatic(
+				FilterCompiler.class, name, type);
+		}
+		catch(ReflectiveOperationException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * This method finds an instance method of a filter class.
+	 */
+
+	private static MethodHandle findVirtual(Class klass, String name,
+				MethodType type)
+	{
+		try
+		{
+			return MethodHandles.lookup().findVirtual(klass, name,
+				type);
+		}
+		catch(ReflectiveOperationException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * This class is the compiled filter.  It describes itself
+	 * using the filter it was compiled from.
+	 */
+
+	private static final class CompiledFilter implements Filter
+	{
+		CompiledFilter(Filter source, MethodHandle handle)
+		{
+			_source = source;
+			_handle = handle;
+		}
+
+		/**
+		 * This method is used to determine if the object
+		 * matches the compiled filter.
+		 *
+		 * @param o the object to be tested
+		 * @return true if the object matches
+		 * @deprecated As of the 3.0 release, the {@link
+		 * #execute} method should be used to more accurately
+		 * reflect the relationship to the GoF Command
+		 * pattern.  This method will be removed in a future
+		 * version of the library.
+		 */
+
+		public boolean doFilter(Object o)
+		{
+			return execute(o);
+		}
+
+		public boolean execute(Object o)
+		{
+			try
+			{
+				return (boolean)_handle.invokeExact(o);
+			}
+			catch(RuntimeException e)
+			{
+				throw e;
+			}
+			catch(Error e)
+			{
+				throw e;
+			}
+			catch(Throwable t)
+			{
+				throw new RuntimeException(t);
+			}
+		}
+
+		public String toString()
+		{
+			return _source.toString();
+		}
+
+		/** the filter this filter was compiled from */
+		private final Filter		_source;
+
+		/** the handle of type (Object)boolean */
+		final MethodHandle		_handle;
+	}
+
+	/** the type of a compiled filter */
+	private static final MethodType		FILTER_TYPE =
+		MethodType.methodType(Boolean.TYPE, Object.class);
+
+	/** the type of a comparison with a value */
+	private static final MethodType		COMPARE_TYPE =
+		MethodType.methodType(Boolean.TYPE, Comparable.class,
+			Object.class);
+
+	/** the type of a string test with a value */
+	private static final MethodType		STRING_TYPE =
+		MethodType.methodType(Boolean.TYPE, String.class,
+			Object.class);
+
+	/** calls the execute method of a filter */
+	private static final MethodHandle	EXECUTE =
+		findVirtual(Filter.class, "execute", FILTER_TYPE);
+
+	/** reads the property of a query filter */
+	private static final MethodHandle	GET_PROPERTY =
+		findVirtual(QueryFilter.class, "getPropertyValue",
+			MethodType.methodType(Object.class, Object.class));
+
+	/** always returns true */
+	private static final MethodHandle	TRUE =
+		MethodHandles.dropArguments(MethodHandles.constant(
+			Boolean.TYPE, Boolean.TRUE), 0,
+			new Class[] { Object.class });
+
+	/** always returns false */
+	private static final MethodHandle	FALSE =
+		MethodHandles.dropArguments(MethodHandles.constant(
+			Boolean.TYPE, Boolean.FALSE), 0,
+			new Class[] { Object.class });
+
+	/** negates a result */
+	private static final MethodHandle	NOT = findStatic("not",
+		MethodType.methodType(Boolean.TYPE, Boolean.TYPE));
+
+	/** the tests for each operator */
+	private static final MethodHandle	LESS_THAN =
+		findStatic("lessThan", COMPARE_TYPE);
+	private static final MethodHandle	LESS_OR_EQUAL =
+		findStatic("lessOrEqual", COMPARE_TYPE);
+	private static final MethodHandle	GREATER_THAN =
+		findStatic("greaterThan", COMPARE_TYPE);
+	private static final MethodHandle	GREATER_OR_EQUAL =
+		findStatic("greaterOrEqual", COMPARE_TYPE);
+	private static final MethodHandle	EQUAL =
+		findStatic("equal", COMPARE_TYPE);
+	private static final MethodHandle	NOT_EQUAL =
+		findStatic("notEqual", COMPARE_TYPE);
+
+	/** the tests of the string filters */
+	private static final MethodHandle	IS_NULL =
+		findStatic("isNull", FILTER_TYPE);
+	private static final MethodHandle	EQUALS =
+		findStatic("stringEquals", STRING_TYPE);
+	private static final MethodHandle	EQUALS_IGNORE_CASE =
+		findStatic("stringEqualsIgnoreCase", STRING_TYPE);
+	private static final MethodHandle	CONTAINS =
+		findStatic("contains", STRING_TYPE);
+	private static final MethodHandle	CONTAINS_IGNORE_CASE =
+		findStatic("containsIgnoreCase", STRING_TYPE);
+}
@@ -42,6 +42,8 @@
 package com.townleyenterprises.filter;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * This class provides a decorator to a regular Java iterator that can
@@ -108,6 +110,28 @@ public class FilteredIterator implements Iterator
 		return tmp;
 	}
 
+	/**
+	 * This method returns a spliterator over the objects which
+	 * remain in this iterator.  The spliterator splits by taking
+	 * batches of objects from this iterator, so it may be used in
+	 * parallel streams, but the filter is applied by the thread
+	 * which splits it.  Use a {@link FilteredSpliterator} over the
+	 * spliterator of a collection to filter in parallel.
+	 * <p>
+	 * This iterator should not be used once the spliterator has
+	 * been created.
+	 * </p>
+	 *
+	 * @return the spliterator
+	 * @since 3.0
+	 */
+
+	public Spliterator spliterator()
+	{
+		return Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED);
+	}
+
 	public void remove() throws UnsupportedOperationException,
 				IllegalStateException
 	{
@@ -0,0 +1,158 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FilteredSpliterator.java
+// Created:	Sun Oct 18 07:21:59 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.filter;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * This class provides a decorator to a spliterator that can perform
+ * filtering.  It splits in the same way as the spliterator it
+ * decorates, so it may be used to create lazy, parallel streams of
+ * the objects in a collection which match a filter without copying
+ * them first.
+ * <p>
+ * The characteristics of the spliterator are those of the decorated
+ * spliterator, except that the number of objects which will match
+ * is not known.  The estimated size is the number of objects which
+ * remain to be tested.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:adz1092@yahoo.com">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public class FilteredSpliterator implements Spliterator
+{
+	/**
+	 * The constructor takes a regular spliterator and the filter
+	 * object that should be applied.
+	 *
+	 * @param spliterator a regular Spliterator
+	 * @param filter a Filter
+	 */
+
+	public FilteredSpliterator(Spliterator spliterator, Filter filter)
+	{
+		_spliterator = spliterator;
+		_filter = filter;
+	}
+
+	public boolean tryAdvance(Consumer action)
+	{
+		Holder holder = _holder;
+		while(_spliterator.tryAdvance(holder))
+		{
+			Object o = holder._object;
+			holder._object = null;
+			if(_filter.execute(o))
+			{
+				action.accept(o);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public void forEachRemaining(final Consumer action)
+	{
+		_spliterator.forEachRemaining(new Consumer() {
+			public void accept(Object o)
+			{
+				if(_filter.execute(o))
+					action.accept(o);
+			}
+		});
+	}
+
+	public Spliterator trySplit()
+	{
+		Spliterator split = _spliterator.trySplit();
+		if(split == null)
+			return null;
+
+		return new FilteredSpliterator(split, _filter);
+	}
+
+	public long estimateSize()
+	{
+		return _spliterator.estimateSize();
+	}
+
+	public int characteristics()
+	{
+		return _spliterator.characteristics() & ~(SIZED | SUBSIZED);
+	}
+
+	public Comparator getComparator()
+	{
+		return _spliterator.getComparator();
+	}
+
+	/**
+	 * This class receives each object from the decorated
+	 * spliterator in {@link #tryAdvance}.
+	 */
+
+	private static final class Holder implements Consumer
+	{
+		public void accept(Object o)
+		{
+			_object = o;
+		}
+
+		/** the last object */
+		Object	_object;
+	}
+
+	/** our spliterator */
+	private final Spliterator	_spliterator;
+
+	/** our filter */
+	private final Filter		_filter;
+
+	/** the holder used by tryAdvance */
+	private final Holder		_holder = new Holder();
+}
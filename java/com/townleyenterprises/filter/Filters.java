@@ -42,10 +42,15 @@
 package com.townleyenterprises.filter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class provides helper filter operations for collections to
@@ -109,4 +114,160 @@ public class Filters
 		Collections.sort(list, new PropertySorter(klass, sort));
 		return list;
 	}
+
+	/**
+	 * This method filters the given collection using the common
+	 * fork/join pool.  The results are returned in the order of
+	 * the collection's iterator, as for {@link
+	 * #filter(Collection, Filter)}.  The filter will be executed
+	 * by several threads at once, so it must be thread-safe.  The
+	 * filters provided by this package are.
+	 *
+	 * @param collection the collection to filter
+	 * @param filter the filter to be applied
+	 * @return the results of the filter as a List
+	 * @since 3.0
+	 */
+
+	public static List parallelFilter(Collection collection, Filter filter)
+	{
+		return filter(collection.toArray(), filter);
+	}
+
+	/**
+	 * This method filters the given collection using the common
+	 * fork/join pool and then sorts the results using a parallel
+	 * merge sort.  The filter must be thread-safe.  The results
+	 * are compared by a {@link PropertySorter} without a collator,
+	 * since the cache of collation keys kept by a sorter with a
+	 * collator is not thread-safe.
+	 *
+	 * @param collection the collection to filter
+	 * @param filter the filter to be applied
+	 * @param sort the sort specifications to apply
+	 * @return the results of the filter as a List
+	 * @see #parallelFilter(Collection, Filter)
+	 * @since 3.0
+	 */
+
+	public static List parallelFilter(Collection collection, Filter filter,
+				SortSpecification[] sort)
+	{
+		List list = parallelFilter(collection, filter);
+
+		if(list.size() == 0)
+		{
+			return list;
+		}
+
+		Object[] results = list.toArray();
+		Class klass = results[0].getClass();
+		Arrays.parallelSort(results, new PropertySorter(klass, sort));
+		return new ArrayList(Arrays.asList(results));
+	}
+
+	/**
+	 * This method returns a stream of the objects in the given
+	 * collection which match the filter.  The collection isn't
+	 * copied and the filter is only applied as the stream is
+	 * consumed, so operations such as findFirst() or limit()
+	 * stop testing objects once they have enough results.  A
+	 * parallel stream requires a thread-safe filter.
+	 *
+	 * @param collection the collection to filter
+	 * @param filter the filter to be applied
+	 * @param parallel true for a parallel stream
+	 * @return the stream of matching objects
+	 * @since 3.0
+	 */
+
+	public static Stream stream(Collection collection, Filter filter,
+				boolean parallel)
+	{
+		return StreamSupport.stream(new FilteredSpliterator(
+				collection.spliterator(), filter), parallel);
+	}
+
+	/**
+	 * This method does the work of filtering the array in
+	 * parallel.
+	 */
+
+	private static List filter(Object[] objects, Filter filter)
+	{
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		int count = Math.min(pool.getParallelism() * 4,
+				objects.length / MIN_PARALLEL_SIZE);
+		if(count <= 1)
+		{
+			return (List)filter(Arrays.asList(objects), filter);
+		}
+
+		ArrayList[] results = new ArrayList[count];
+		pool.invoke(new FilterTask(objects, filter, results, 0, count));
+
+		int size = 0;
+		for(int i = 0; i < count; ++i)
+			size += results[i].size();
+
+		ArrayList list = new ArrayList(size);
+		for(int i = 0; i < count; ++i)
+			list.addAll(results[i]);
+
+		return list;
+	}
+
+	/**
+	 * This task filters a range of the chunks of the array,
+	 * splitting itself in half until it only has one chunk.  The
+	 * results of each chunk are stored separately so they can be
+	 * joined in order.
+	 */
+
+	private static final class FilterTask extends RecursiveAction
+	{
+		FilterTask(Object[] objects, Filter filter,
+				ArrayList[] results, int first, int last)
+		{
+			_objects = objects;
+			_filter = filter;
+			_results = results;
+			_first = first;
+			_last = last;
+		}
+
+		protected void compute()
+		{
+			if(_last - _first > 1)
+			{
+				int mid = (_first + _last) >>> 1;
+				invokeAll(new FilterTask(_objects, _filter,
+						_results, _first, mid),
+					new FilterTask(_objects, _filter,
+						_results, mid, _last));
+				return;
+			}
+
+			int count = _results.length;
+			int start = (int)((long)_objects.length * _first / count);
+			int end = (int)((long)_objects.length * _last / count);
+			ArrayList list = new ArrayList();
+			for(int i = start; i < end; ++i)
+			{
+				if(_filter.execute(_objects[i]))
+					list.add(_objects[i]);
+			}
+
+			_results[_first] = list;
+		}
+
+		private final Object[]		_objects;
+		private final Filter		_filter;
+		private final ArrayList[]	_results;
+		private final int		_first;
+		private final int		_last;
+	}
+
+	/** the smallest number of objects given to each thread */
+	private static final int	MIN_PARALLEL_SIZE = 4096;
 }
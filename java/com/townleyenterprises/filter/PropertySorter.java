@@ -48,6 +48,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
 
+import com.townleyenterprises.common.PropertyAccessor;
 import com.townleyenterprises.common.PropertyProxy;
 
 /**
@@ -190,11 +191,12 @@ public final class PropertySorter extends PropertyProxy
 	public int compare(Object rhs, Object lhs)
 	{
 		int rc = -1;
+		PropertyAccessor[] accessors = getAccessors();
 
 		for(int i = 0; i < _props.length; ++i)
 		{
-			Object rval = getPropertyValue(_props[i].getProperty(), rhs);
-			Object lval = getPropertyValue(_props[i].getProperty(), lhs);
+			Object rval = getPropertyValue(accessors[i], rhs);
+			Object lval = getPropertyValue(accessors[i], lhs);
 
 			// special case if we have a non-null
 			// collator instance
@@ -252,6 +254,32 @@ public final class PropertySorter extends PropertyProxy
 		_map.clear();
 	}
 
+	/**
+	 * This method returns the accessors for the properties in
+	 * the sort specification, looking them up the first time.
+	 * The array is filled before it is stored in the volatile
+	 * field, so threads sorting in parallel never see a partly
+	 * filled array.
+	 *
+	 * @return the accessors
+	 */
+
+	private PropertyAccessor[] getAccessors()
+	{
+		PropertyAccessor[] accessors = _accessors;
+		if(accessors == null)
+		{
+			accessors = new PropertyAccessor[_props.length];
+			for(int i = 0; i < accessors.length; ++i)
+			{
+				accessors[i] = getAccessor(_props[i].getProperty());
+			}
+			_accessors = accessors;
+		}
+
+		return accessors;
+	}
+
 	/**
 	 * This method takes care of generating collation keys
 	 * for strings so that the next time around, the
@@ -290,4 +318,5 @@ public final class PropertySorter extends PropertyProxy
 	private SortSpecification[] 	_props;
 	private Collator		_collator = null;
 	private Map			_map = new HashMap();
+	private volatile PropertyAccessor[]	_accessors = null;
 }
@@ -42,6 +42,7 @@
 package com.townleyenterprises.filter;
 
 import java.io.Serializable;
+import com.townleyenterprises.common.PropertyAccessor;
 import com.townleyenterprises.common.PropertyProxy;
 
 /**
@@ -95,7 +96,7 @@ public class QueryFilter extends PropertyProxy
 	public boolean execute(Object o)
 	{
 		boolean result = false;
-		Comparable rez = (Comparable)getPropertyValue(_prop, o);
+		Comparable rez = (Comparable)getPropertyValue(o);
 		if(rez == null)
 			return false;
 
@@ -179,6 +180,28 @@ public class QueryFilter extends PropertyProxy
 		return buf.toString();
 	}
 
+	/**
+	 * This method returns the value of the filter's property for
+	 * the specified object.  The accessor for the property is
+	 * only looked up the first time.
+	 *
+	 * @param o the object to access
+	 * @return the property value
+	 * @since 3.0
+	 */
+
+	protected Object getPropertyValue(Object o)
+	{
+		PropertyAccessor accessor = _accessor;
+		if(accessor == null)
+		{
+			accessor = getAccessor(_prop);
+			_accessor = accessor;
+		}
+
+		return getPropertyValue(accessor, o);
+	}
+
 	/**
 	 * This method may be overridden by custom query filter
 	 * instances to return a string which describes the test they
@@ -200,4 +223,7 @@ public class QueryFilter extends PropertyProxy
 
 	/** our object value */
 	private final Comparable	_value;
+
+	/** the accessor for our property once it has been used */
+	private transient PropertyAccessor	_accessor;
 }
@@ -88,7 +88,7 @@ public class StringFilter extends QueryFilter
 
 	public boolean execute(Object o)
 	{
-		String s = (String)getPropertyValue(getProperty(), o);
+		String s = (String)getPropertyValue(o);
 		String val = (String)getValue();
 
 		// checks for null
@@ -101,7 +101,7 @@ public class SubstringFilter extends StringFilter
 
 	public boolean execute(Object o)
 	{
-		String s = (String)getPropertyValue(getProperty(), o);
+		String s = (String)getPropertyValue(o);
 		String val = (String)getValue();
 
 		if(s == null && val == null)
@@ -0,0 +1,100 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	AbstractBatchLineProcessor.java
+// Created:	Sun Oct 18 06:39:59 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+/**
+ * This class is used to provide default implementations for the
+ * methods in the BatchLineProcessor interface.  Subclasses should
+ * override {@link #processLines} and call the superclass
+ * implementation so that the lines are counted.  Lines which are
+ * passed to {@link #processLine} individually are processed as a
+ * batch containing a single line.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public abstract class AbstractBatchLineProcessor extends AbstractLineProcessor
+		implements BatchLineProcessor
+{
+	/**
+	 * This method passes the line to {@link #processLines} as a
+	 * batch of one line.
+	 *
+	 * @param line the line of the input file
+	 * @exception Exception
+	 *	if an error occurs processing the line
+	 */
+
+	public void processLine(String line) throws Exception
+	{
+		_single[0] = line;
+		try
+		{
+			processLines(_single, 1);
+		}
+		finally
+		{
+			_single[0] = null;
+		}
+	}
+
+	/**
+	 * This method gets called for each batch of lines read from
+	 * the input.  It counts the lines in the batch.
+	 *
+	 * @param lines the lines of the input file
+	 * @param count the number of lines in the batch
+	 * @exception Exception
+	 *	if an error occurs processing the lines
+	 */
+
+	public void processLines(CharSequence[] lines, int count)
+			throws Exception
+	{
+		addLines(count);
+	}
+
+	/** the array used for single lines */
+	private final CharSequence[] _single = new CharSequence[1];
+}
@@ -45,13 +45,20 @@ package com.townleyenterprises.io;
  * This class is used to provide default implementations for the
  * methods in the LineProcessor interface.  It also keeps track of the
  * count of lines processed.
+ * <p>
+ * When the file is processed by more than one instance, the line
+ * counts are combined by the {@link #merge} method.  Subclasses which
+ * accumulate other results should override this method to combine
+ * them and call the superclass implementation.
+ * </p>
  *
  * @version $Id: AbstractLineProcessor.java,v 1.1 2004/01/26 18:49:36 atownley Exp $
  * @author <a href="mailto:adz1092@nestscape.net">Andrew S. Townley</a>
  * @since 2.1
  */
 
-public abstract class AbstractLineProcessor implements LineProcessor
+public abstract class AbstractLineProcessor
+		implements MergeableLineProcessor
 {
 	/**
 	 * This method gets called for each line processed containing
@@ -89,6 +96,68 @@ public abstract class AbstractLineProcessor implements LineProcessor
 		return _lines;
 	}
 
+	/**
+	 * This method adds to the count of lines processed.  It is
+	 * used by processors which do not receive each line through
+	 * {@link #processLine}.
+	 *
+	 * @param count the number of lines
+	 */
+
+	void addLines(int count)
+	{
+		_lines += count;
+	}
+
+	/**
+	 * This method adds the number of lines processed by the
+	 * specified processor to the count of this instance.
+	 *
+	 * @param lp the processor to merge
+	 * @exception Exception
+	 * 	if the results cannot be merged
+	 */
+
+	public void merge(LineProcessor lp) throws Exception
+	{
+		if(lp instanceof AbstractLineProcessor)
+		{
+			_lines += ((AbstractLineProcessor)lp)._lines;
+		}
+	}
+
+	/**
+	 * This method is called by {@link TextFileProcessor} after
+	 * the last line of the input has been passed to the
+	 * processor, so that processors which hold back lines can
+	 * complete their work.  This implementation does nothing.
+	 *
+	 * @exception Exception
+	 *	if an error occurs completing the input
+	 * @since 3.0
+	 */
+
+	public void endOfInput() throws Exception
+	{
+	}
+
+	/**
+	 * This method returns true if the results of several
+	 * instances can be combined by {@link #merge}.  The methods
+	 * of {@link TextFileProcessor} which process a file with
+	 * several instances refuse processors which return false
+	 * before any lines are processed.  This implementation
+	 * returns true.
+	 *
+	 * @return true if instances can be merged
+	 * @since 3.0
+	 */
+
+	public boolean isMergeable()
+	{
+		return true;
+	}
+
 	/** the number of lines processed */
 	private int _lines = 0;
 }
@@ -0,0 +1,199 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	AggregateGroup.java
+// Created:	Sun Oct 18 06:58:17 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+/**
+ * This class provides access to the key and the aggregates of a
+ * group calculated by an {@link AggregatingLineProcessor}.  The
+ * aggregates of each value column are indexed by the position of the
+ * column in the array of value columns given to the processor.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class AggregateGroup
+{
+	/**
+	 * The constructor is only called by the aggregating processor.
+	 *
+	 * @param keys the number of key columns
+	 */
+
+	AggregateGroup(int keys)
+	{
+		_keys = keys;
+	}
+
+	/**
+	 * This method returns the number of key columns.
+	 *
+	 * @return the number of key columns
+	 */
+
+	public int getKeyCount()
+	{
+		return _keys;
+	}
+
+	/**
+	 * This method returns the value of a key column.  A column
+	 * which was missing from the lines of the group has an empty
+	 * value.
+	 *
+	 * @param k the index of the key column
+	 * @return the value
+	 */
+
+	public String getKey(int k)
+	{
+		if(k < 0 || k >= _keys)
+			throw new IndexOutOfBoundsException(String.valueOf(k));
+
+		return _table.getKey(_group, k);
+	}
+
+	/**
+	 * This method returns the number of lines in the group.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getCount()
+	{
+		return _table.getCount(_group);
+	}
+
+	/**
+	 * This method returns the number of lines in the group with a
+	 * numeric value in a value column.
+	 *
+	 * @param v the index of the value column
+	 * @return the number of values
+	 */
+
+	public long getValueCount(int v)
+	{
+		return _table.getValueCount(_group, v);
+	}
+
+	/**
+	 * This method returns the sum of a value column.
+	 *
+	 * @param v the index of the value column
+	 * @return the sum
+	 */
+
+	public double getSum(int v)
+	{
+		return _table.getSum(_group, v);
+	}
+
+	/**
+	 * This method returns the minimum of a value column.
+	 *
+	 * @param v the index of the value column
+	 * @return the minimum or NaN if there were no values
+	 */
+
+	public double getMin(int v)
+	{
+		if(getValueCount(v) == 0)
+			return Double.NaN;
+
+		return _table.getMin(_group, v);
+	}
+
+	/**
+	 * This method returns the maximum of a value column.
+	 *
+	 * @param v the index of the value column
+	 * @return the maximum or NaN if there were no values
+	 */
+
+	public double getMax(int v)
+	{
+		if(getValueCount(v) == 0)
+			return Double.NaN;
+
+		return _table.getMax(_group, v);
+	}
+
+	/**
+	 * This method returns the average of a value column.
+	 *
+	 * @param v the index of the value column
+	 * @return the average or NaN if there were no values
+	 */
+
+	public double getAverage(int v)
+	{
+		long count = getValueCount(v);
+		if(count == 0)
+			return Double.NaN;
+
+		return getSum(v) / count;
+	}
+
+	/**
+	 * This method sets the group represented by the instance.
+	 *
+	 * @param table the table
+	 * @param group the group number
+	 */
+
+	void set(GroupTable table, int group)
+	{
+		_table = table;
+		_group = group;
+	}
+
+	/** the number of key columns */
+	private final int	_keys;
+
+	/** the table holding the group */
+	private GroupTable	_table;
+
+	/** the group number */
+	private int		_group;
+}
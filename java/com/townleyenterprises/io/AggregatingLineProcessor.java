@@ -0,0 +1,508 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	AggregatingLineProcessor.java
+// Created:	Sun Oct 18 06:58:40 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This class groups the lines of a delimited file by the values of
+ * one or more key columns and calculates the count of lines in each
+ * group and the count, sum, minimum, maximum and average of one or
+ * more numeric value columns.  Values which are missing or are not
+ * numbers are ignored.
+ * <p>
+ * The groups are held in a hash table whose state is kept in
+ * primitive arrays, so no objects are created for each group or
+ * line.  If the memory used by the table exceeds the limit set by
+ * {@link #setMemoryLimit}, the groups are written to temporary files
+ * divided into partitions by the hash of their key, and the table is
+ * cleared.  When the groups are retrieved, each partition is read
+ * back and combined separately, so only one partition needs to fit
+ * in memory at a time.
+ * </p>
+ * <p>
+ * The results are retrieved using {@link #processGroups} or written
+ * as delimited text using {@link #writeGroups}.  The order of the
+ * groups is not defined.  Processors used for different parts of a
+ * file can be combined using {@link #merge}.
+ * </p>
+ * <pre>
+ * // sum and average column 3 by the values of columns 0 and 1
+ * AggregatingLineProcessor lp = new AggregatingLineProcessor("|",
+ * 		new int[] { 0, 1 }, new int[] { 3 });
+ * fp.processFile(lp);
+ * lp.processGroups(new AggregateHandler() {
+ * 	public void processGroup(AggregateGroup group)
+ * 	{
+ * 		System.out.println(group.getKey(0) + " " + group.getKey(1)
+ * 			+ " " + group.getSum(0) + " " + group.getAverage(0));
+ * 	}
+ * });
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public class AggregatingLineProcessor extends DelimitedFieldProcessor
+{
+	/**
+	 * The constructor initializes the processor with the
+	 * delimiter and the key and value columns.
+	 *
+	 * @param delim the delimiter
+	 * @param keys the indexes of the key columns
+	 * @param values the indexes of the value columns
+	 */
+
+	public AggregatingLineProcessor(String delim, int[] keys, int[] values)
+	{
+		super(delim, columns(keys, values));
+		_keys = (int[])keys.clone();
+		_values = (values == null ? new int[0] : (int[])values.clone());
+		_table = new GroupTable(_values.length);
+		_spills = new List[PARTITIONS];
+		for(int i = 0; i < PARTITIONS; ++i)
+		{
+			_spills[i] = new ArrayList();
+		}
+	}
+
+	public void processFields(DelimitedFields fields) throws Exception
+	{
+		int g = _table.find(fields, _keys, GroupTable.hash(fields, _keys));
+		_table.addCount(g, 1);
+		for(int v = 0; v < _values.length; ++v)
+		{
+			if(_values[v] >= fields.size())
+				continue;
+
+			double d = fields.getDouble(_values[v]);
+			if(fields.getStatus() == DelimitedFields.PARSE_OK)
+				_table.addValue(g, v, d);
+		}
+
+		if(_table.getMemoryUsage() > _memoryLimit)
+			spill();
+	}
+
+	/**
+	 * This method discards all of the groups.
+	 */
+
+	public void reset()
+	{
+		super.reset();
+		_table.clear();
+		deleteSpills();
+	}
+
+	/**
+	 * This method adds the groups of another aggregating processor
+	 * with the same columns to this one.
+	 *
+	 * @param lp the processor to merge
+	 * @exception Exception
+	 * 	if the groups cannot be merged
+	 */
+
+	public void merge(LineProcessor lp) throws Exception
+	{
+		super.merge(lp);
+
+		AggregatingLineProcessor other = (AggregatingLineProcessor)lp;
+		if(other.hasSpills())
+		{
+			// take over the other processor's files
+			other.spill();
+			for(int i = 0; i < PARTITIONS; ++i)
+			{
+				_spills[i].addAll(other._spills[i]);
+				other._spills[i].clear();
+			}
+			return;
+		}
+
+		GroupTable table = other._table;
+		for(int g = 0; g < table.size(); ++g)
+		{
+			_table.combine(table, g);
+			if(_table.getMemoryUsage() > _memoryLimit)
+				spill();
+		}
+	}
+
+	/**
+	 * This method passes each of the groups to the handler.  If
+	 * groups have been spilled to temporary files, the files are
+	 * deleted once they have been read, so the groups can only be
+	 * processed once.
+	 *
+	 * @param handler the handler
+	 * @exception Exception
+	 * 	if there was an error reading the spilled groups or the
+	 * 	handler threw an exception
+	 */
+
+	public void processGroups(AggregateHandler handler) throws Exception
+	{
+		AggregateGroup group = new AggregateGroup(_keys.length);
+		if(!hasSpills())
+		{
+			processGroups(_table, group, handler);
+			return;
+		}
+
+		try
+		{
+			spill();
+			GroupTable table = new GroupTable(_values.length);
+			for(int p = 0; p < PARTITIONS; ++p)
+			{
+				if(_spills[p].isEmpty())
+					continue;
+
+				table.clear();
+				for(Iterator i = _spills[p].iterator(); i.hasNext(); )
+				{
+					File file = (File)i.next();
+					readSpill(file, table);
+					file.delete();
+				}
+				_spills[p].clear();
+				processGroups(table, group, handler);
+			}
+		}
+		finally
+		{
+			deleteSpills();
+		}
+	}
+
+	/**
+	 * This method writes each group as a line containing the
+	 * values of the key columns, the number of lines and the sum,
+	 * minimum, maximum and average of each value column.  The
+	 * minimum, maximum and average are empty if the group had no
+	 * values for the column.
+	 *
+	 * @param out the writer
+	 * @exception Exception
+	 * 	if there was an error reading the spilled groups or
+	 * 	writing the lines
+	 */
+
+	public void writeGroups(final DelimitedLineWriter out) throws Exception
+	{
+		processGroups(new AggregateHandler() {
+			public void processGroup(AggregateGroup group)
+					throws Exception
+			{
+				for(int k = 0; k < group.getKeyCount(); ++k)
+				{
+					out.writeField(group.getKey(k));
+				}
+				out.writeField(group.getCount());
+				for(int v = 0; v < _values.length; ++v)
+				{
+					out.writeField(group.getSum(v));
+					if(group.getValueCount(v) == 0)
+					{
+						out.writeField((CharSequence)null);
+						out.writeField((CharSequence)null);
+						out.writeField((CharSequence)null);
+						continue;
+					}
+					out.writeField(group.getMin(v));
+					out.writeField(group.getMax(v));
+					out.writeField(group.getAverage(v));
+				}
+				out.endLine();
+			}
+		});
+	}
+
+	/**
+	 * This method sets the approximate number of bytes the hash
+	 * table may use before the groups are written to disk.
+	 *
+	 * @param bytes the number of bytes
+	 */
+
+	public void setMemoryLimit(long bytes)
+	{
+		_memoryLimit = bytes;
+	}
+
+	/**
+	 * This method returns the approximate number of bytes the
+	 * hash table may use before the groups are written to disk.
+	 *
+	 * @return the number of bytes
+	 */
+
+	public long getMemoryLimit()
+	{
+		return _memoryLimit;
+	}
+
+	/**
+	 * This method sets the directory used for the temporary files.
+	 *
+	 * @param dir the directory or null to use the default
+	 * 	temporary directory
+	 */
+
+	public void setTempDirectory(File dir)
+	{
+		_tempdir = dir;
+	}
+
+	/**
+	 * This method returns the directory used for the temporary
+	 * files.
+	 *
+	 * @return the directory or null
+	 */
+
+	public File getTempDirectory()
+	{
+		return _tempdir;
+	}
+
+	/**
+	 * This method indicates if any groups have been written to
+	 * disk.
+	 *
+	 * @return true if there are spilled groups
+	 */
+
+	boolean hasSpills()
+	{
+		for(int i = 0; i < PARTITIONS; ++i)
+		{
+			if(!_spills[i].isEmpty())
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * This method writes the groups in the table to a temporary
+	 * file for each partition and clears the table.  Each file
+	 * starts with the number of groups it contains.
+	 *
+	 * @exception IOException
+	 * 	if the groups cannot be written
+	 */
+
+	private void spill() throws IOException
+	{
+		if(_table.size() == 0)
+			return;
+
+		int[] counts = new int[PARTITIONS];
+		for(int g = 0; g < _table.size(); ++g)
+		{
+			++counts[_table.getPartition(g, PARTITIONS)];
+		}
+
+		DataOutputStream[] outs = new DataOutputStream[PARTITIONS];
+		try
+		{
+			for(int g = 0; g < _table.size(); ++g)
+			{
+				int p = _table.getPartition(g, PARTITIONS);
+				if(outs[p] == null)
+				{
+					File file = File.createTempFile("agg", ".spill",
+							_tempdir);
+					_spills[p].add(file);
+					outs[p] = new DataOutputStream(
+						new BufferedOutputStream(
+						new FileOutputStream(file), BUFFER_SIZE));
+					outs[p].writeInt(counts[p]);
+				}
+				_table.write(outs[p], g);
+			}
+		}
+		finally
+		{
+			IOException error = null;
+			for(int p = 0; p < PARTITIONS; ++p)
+			{
+				try
+				{
+					if(outs[p] != null)
+						outs[p].close();
+				}
+				catch(IOException e)
+				{
+					error = e;
+				}
+			}
+			if(error != null)
+				throw error;
+		}
+
+		_table.clear();
+	}
+
+	/**
+	 * This method adds the groups in a spill file to a table.
+	 *
+	 * @param file the spill file
+	 * @param table the table
+	 * @exception IOException
+	 * 	if the file cannot be read
+	 */
+
+	private static void readSpill(File file, GroupTable table)
+			throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file), BUFFER_SIZE));
+		try
+		{
+			int count = in.readInt();
+			for(int i = 0; i < count; ++i)
+			{
+				table.read(in);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * This method returns the union of the key and value columns.
+	 */
+
+	private static int[] columns(int[] keys, int[] values)
+	{
+		if(keys == null || keys.length == 0)
+		{
+			throw new IllegalArgumentException(
+				"key columns must not be empty");
+		}
+
+		if(values == null)
+			return keys;
+
+		int[] columns = new int[keys.length + values.length];
+		System.arraycopy(keys, 0, columns, 0, keys.length);
+		System.arraycopy(values, 0, columns, keys.length, values.length);
+		return columns;
+	}
+
+	/**
+	 * This method passes the groups in a table to the handler.
+	 */
+
+	private static void processGroups(GroupTable table,
+			AggregateGroup group, AggregateHandler handler)
+			throws Exception
+	{
+		for(int g = 0; g < table.size(); ++g)
+		{
+			group.set(table, g);
+			handler.processGroup(group);
+		}
+	}
+
+	/**
+	 * This method deletes the spill files.
+	 */
+
+	private void deleteSpills()
+	{
+		for(int p = 0; p < PARTITIONS; ++p)
+		{
+			for(Iterator i = _spills[p].iterator(); i.hasNext(); )
+			{
+				((File)i.next()).delete();
+			}
+			_spills[p].clear();
+		}
+	}
+
+	/** the default memory limit of the hash table */
+	public static final long	DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+	/** the number of partitions, which must be a power of two */
+	private static final int	PARTITIONS = 16;
+
+	/** the size of the buffers for the spill files */
+	private static final int	BUFFER_SIZE = 64 * 1024;
+
+	/** the key columns */
+	private final int[]		_keys;
+
+	/** the value columns */
+	private final int[]		_values;
+
+	/** the hash table */
+	private final GroupTable	_table;
+
+	/** the spill files for each partition */
+	private final List[]		_spills;
+
+	/** the memory limit of the hash table */
+	private long			_memoryLimit = DEFAULT_MEMORY_LIMIT;
+
+	/** the directory for the spill files */
+	private File			_tempdir = null;
+}
@@ -0,0 +1,160 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	AsciiText.java
+// Created:	Sun Oct 18 06:52:51 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class provides a CharSequence view of a range of bytes in
+ * a buffer where each byte represents the character with the same
+ * value.  This is the case for ISO-8859-1 text and for ASCII text in
+ * any of the encodings which are supersets of ASCII, such as UTF-8.
+ * It allows lines to be broken into fields and numeric fields to be
+ * parsed without decoding the line.  Text is only copied when a
+ * String is requested.
+ * <p>
+ * The instance is reused for every line, so it is only valid until
+ * the next line is read.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class AsciiText implements CharSequence
+{
+	/**
+	 * This method sets the range of bytes represented by the
+	 * instance.
+	 *
+	 * @param buf the buffer
+	 * @param start the index of the first byte
+	 * @param end the index after the last byte
+	 */
+
+	void set(ByteBuffer buf, int start, int end)
+	{
+		_buf = buf;
+		_start = start;
+		_end = end;
+	}
+
+	/**
+	 * This method returns the buffer containing the text.
+	 *
+	 * @return the buffer
+	 */
+
+	ByteBuffer getBuffer()
+	{
+		return _buf;
+	}
+
+	/**
+	 * This method returns the index in the buffer of the first
+	 * character.
+	 *
+	 * @return the index
+	 */
+
+	int getStart()
+	{
+		return _start;
+	}
+
+	public int length()
+	{
+		return _end - _start;
+	}
+
+	public char charAt(int i)
+	{
+		if(i < 0 || i >= _end - _start)
+			throw new IndexOutOfBoundsException(String.valueOf(i));
+
+		return (char)(_buf.get(_start + i) & 0xff);
+	}
+
+	/**
+	 * This method returns a copy of the characters in the range
+	 * as a String.
+	 *
+	 * @param start the index of the first character
+	 * @param end the index after the last character
+	 * @return the copy
+	 */
+
+	public CharSequence subSequence(int start, int end)
+	{
+		if(start < 0 || end > _end - _start || start > end)
+		{
+			throw new IndexOutOfBoundsException(start + ", " + end);
+		}
+
+		int len = end - start;
+		if(_bytes == null || _bytes.length < len)
+			_bytes = new byte[Math.max(len, 64)];
+
+		for(int i = 0; i < len; ++i)
+			_bytes[i] = _buf.get(_start + start + i);
+		return new String(_bytes, 0, len, StandardCharsets.ISO_8859_1);
+	}
+
+	public String toString()
+	{
+		return (String)subSequence(0, _end - _start);
+	}
+
+	/** the buffer */
+	private ByteBuffer	_buf;
+
+	/** the index of the first byte */
+	private int		_start;
+
+	/** the index after the last byte */
+	private int		_end;
+
+	/** the buffer used to copy the bytes */
+	private byte[]		_bytes;
+}
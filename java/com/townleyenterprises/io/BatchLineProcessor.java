@@ -0,0 +1,78 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	BatchLineProcessor.java
+// Created:	Sun Oct 18 06:39:59 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+/**
+ * This interface is implemented by line processors which can process
+ * a number of lines in a single call.  When a {@link
+ * TextFileProcessor} is given a BatchLineProcessor, it fills a batch
+ * of lines and passes them to {@link #processLines} rather than
+ * calling {@link #processLine} for each line.  This reduces the
+ * per-line overhead and makes it easy to process the lines in bulk,
+ * e.g. as a JDBC batch.
+ * <p>
+ * The array and the CharSequence instances in it may be reused for
+ * the next batch, so they are only valid for the duration of the
+ * call.  Lines which are needed later must be copied, e.g. by
+ * calling toString on them.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public interface BatchLineProcessor extends LineProcessor
+{
+	/**
+	 * This method gets called for each batch of lines read from
+	 * the input.
+	 *
+	 * @param lines the lines of the input file
+	 * @param count the number of lines in the array which are
+	 * 	part of the batch
+	 * @exception Exception
+	 *	if an error occurs processing the lines
+	 */
+
+	void processLines(CharSequence[] lines, int count) throws Exception;
+}
@@ -0,0 +1,405 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	BlockGzipInputStream.java
+// Created:	Sun Oct 18 06:49:14 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+
+/**
+ * This class reads a file compressed in the blocked gzip format
+ * (BGZF) and decompresses the blocks in parallel.  A BGZF file is a
+ * series of gzip members, each of which records its compressed size
+ * in an extra header field, so the blocks can be located without
+ * decompressing them.  The blocks are submitted to a pool of threads
+ * ahead of the reader and the decompressed data is returned in file
+ * order.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class BlockGzipInputStream extends InputStream
+{
+	/**
+	 * The constructor opens the file and creates the threads used
+	 * to decompress the blocks.
+	 *
+	 * @param file the file
+	 * @param threads the number of threads
+	 * @exception IOException
+	 * 	if the file cannot be opened
+	 */
+
+	BlockGzipInputStream(File file, int threads) throws IOException
+	{
+		_raf = new RandomAccessFile(file, "r");
+		_channel = _raf.getChannel();
+		_size = _channel.size();
+		_ahead = threads * 4;
+		_pool = Executors.newFixedThreadPool(threads);
+	}
+
+	public int read() throws IOException
+	{
+		if(!fill())
+			return -1;
+
+		return _block[_pos++] & 0xff;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if(len == 0)
+			return 0;
+		if(!fill())
+			return -1;
+
+		int n = Math.min(len, _block.length - _pos);
+		System.arraycopy(_block, _pos, b, off, n);
+		_pos += n;
+		return n;
+	}
+
+	public int available()
+	{
+		return (_block == null) ? 0 : _block.length - _pos;
+	}
+
+	public void close() throws IOException
+	{
+		_pool.shutdownNow();
+		_pending.clear();
+		_raf.close();
+	}
+
+	/**
+	 * This method indicates if the file starting at the specified
+	 * position is compressed using gzip.
+	 *
+	 * @param channel the file
+	 * @param pos the position
+	 * @return true if the file is compressed
+	 * @exception IOException
+	 * 	if the file cannot be read
+	 */
+
+	static boolean isGzip(FileChannel channel, long pos) throws IOException
+	{
+		ByteBuffer magic = ByteBuffer.allocate(2);
+		while(magic.hasRemaining())
+		{
+			if(channel.read(magic, pos + magic.position()) < 0)
+				return false;
+		}
+
+		return (magic.get(0) & 0xff) == ID1 && (magic.get(1) & 0xff) == ID2;
+	}
+
+	/**
+	 * This method returns the total size of the BGZF block
+	 * starting at the specified position.
+	 *
+	 * @param channel the file
+	 * @param pos the position of the block
+	 * @return the size of the block or -1 if the block is not a
+	 * 	BGZF block
+	 * @exception IOException
+	 * 	if the file cannot be read
+	 */
+
+	static int getBlockSize(FileChannel channel, long pos) throws IOException
+	{
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		try
+		{
+			readFully(channel, header, pos);
+		}
+		catch(EOFException e)
+		{
+			return -1;
+		}
+
+		if((header.get(0) & 0xff) != ID1 || (header.get(1) & 0xff) != ID2
+				|| header.get(2) != CM_DEFLATE
+				|| (header.get(3) & FEXTRA) == 0)
+		{
+			return -1;
+		}
+
+		int xlen = getShort(header, 10);
+		ByteBuffer extra = ByteBuffer.allocate(xlen);
+		readFully(channel, extra, pos + HEADER_SIZE);
+
+		// look for the BC subfield containing the block size
+		int i = 0;
+		while(i + 4 <= xlen)
+		{
+			int slen = getShort(extra, i + 2);
+			if(extra.get(i) == 'B' && extra.get(i + 1) == 'C'
+					&& slen == 2 && i + 6 <= xlen)
+			{
+				return getShort(extra, i + 4) + 1;
+			}
+			i += 4 + slen;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * This method makes sure there is decompressed data available
+	 * to be read, submitting more blocks to the pool as required.
+	 *
+	 * @return true if data is available; false at the end of the
+	 * 	file
+	 */
+
+	private boolean fill() throws IOException
+	{
+		while(_block == null || _pos == _block.length)
+		{
+			while(_pending.size() < _ahead && _next < _size)
+			{
+				submit();
+			}
+
+			if(_pending.isEmpty())
+				return false;
+
+			try
+			{
+				_block = (byte[])TextFileProcessor.getResult(
+					(Future)_pending.removeFirst());
+			}
+			catch(IOException e)
+			{
+				throw e;
+			}
+			catch(RuntimeException e)
+			{
+				throw e;
+			}
+			catch(Exception e)
+			{
+				IOException ioe = new IOException(e.toString());
+				ioe.initCause(e);
+				throw ioe;
+			}
+			_pos = 0;
+		}
+
+		return true;
+	}
+
+	/**
+	 * This method reads the next block from the file and submits
+	 * it to the pool for decompression.
+	 */
+
+	private void submit() throws IOException
+	{
+		int size = getBlockSize(_channel, _next);
+		if(size == -1)
+		{
+			throw new IOException("invalid BGZF block at offset "
+					+ _next);
+		}
+
+		final byte[] data = new byte[size];
+		readFully(_channel, ByteBuffer.wrap(data), _next);
+		_next += size;
+
+		_pending.addLast(_pool.submit(new Callable() {
+			public Object call() throws Exception
+			{
+				return inflate(data);
+			}
+		}));
+	}
+
+	/**
+	 * This method decompresses a block and verifies its checksum.
+	 *
+	 * @param data the block
+	 * @return the decompressed data
+	 * @exception Exception
+	 * 	if the block is corrupt
+	 */
+
+	private static byte[] inflate(byte[] data) throws Exception
+	{
+		ByteBuffer block = ByteBuffer.wrap(data);
+		int start = HEADER_SIZE + getShort(block, 10);
+		int crc = getInt(block, data.length - 8);
+		int isize = getInt(block, data.length - 4);
+
+		byte[] out = new byte[isize];
+		Inflater inflater = new Inflater(true);
+		try
+		{
+			inflater.setInput(data, start, data.length - 8 - start);
+			int n = 0;
+			while(n < isize)
+			{
+				int count = inflater.inflate(out, n, isize - n);
+				if(count == 0 && (inflater.finished()
+						|| inflater.needsInput()
+						|| inflater.needsDictionary()))
+				{
+					break;
+				}
+				n += count;
+			}
+
+			if(n != isize)
+				throw new IOException("truncated BGZF block");
+		}
+		finally
+		{
+			inflater.end();
+		}
+
+		CRC32 check = new CRC32();
+		check.update(out, 0, isize);
+		if((int)check.getValue() != crc)
+			throw new IOException("BGZF block checksum mismatch");
+
+		return out;
+	}
+
+	/**
+	 * This method fills the buffer with the bytes of the file
+	 * starting at the specified position.
+	 *
+	 * @param channel the file
+	 * @param buf the empty buffer
+	 * @param pos the position
+	 * @exception IOException
+	 * 	if the end of the file is reached before the buffer is
+	 * 	full
+	 */
+
+	private static void readFully(FileChannel channel, ByteBuffer buf,
+			long pos) throws IOException
+	{
+		while(buf.hasRemaining())
+		{
+			if(channel.read(buf, pos + buf.position()) < 0)
+				throw new EOFException("unexpected end of BGZF file");
+		}
+	}
+
+	/**
+	 * This method returns the unsigned little-endian short at the
+	 * specified index.
+	 */
+
+	private static int getShort(ByteBuffer buf, int i)
+	{
+		return (buf.get(i) & 0xff) | (buf.get(i + 1) & 0xff) << 8;
+	}
+
+	/**
+	 * This method returns the little-endian int at the specified
+	 * index.
+	 */
+
+	private static int getInt(ByteBuffer buf, int i)
+	{
+		return getShort(buf, i) | getShort(buf, i + 2) << 16;
+	}
+
+	/** the first byte of a gzip member */
+	private static final int	ID1 = 0x1f;
+
+	/** the second byte of a gzip member */
+	private static final int	ID2 = 0x8b;
+
+	/** the deflate compression method */
+	private static final byte	CM_DEFLATE = 8;
+
+	/** the flag indicating an extra header field */
+	private static final int	FEXTRA = 4;
+
+	/** the size of the fixed part of the member header */
+	private static final int	HEADER_SIZE = 12;
+
+	/** the file */
+	private final RandomAccessFile	_raf;
+
+	/** the channel for the file */
+	private final FileChannel	_channel;
+
+	/** the size of the file */
+	private final long		_size;
+
+	/** the maximum number of blocks submitted ahead of the reader */
+	private final int		_ahead;
+
+	/** the decompression threads */
+	private final ExecutorService	_pool;
+
+	/** the futures for the submitted blocks in file order */
+	private final LinkedList	_pending = new LinkedList();
+
+	/** the offset of the next block to submit */
+	private long			_next = 0;
+
+	/** the current decompressed block */
+	private byte[]			_block = null;
+
+	/** the position in the current block */
+	private int			_pos = 0;
+}
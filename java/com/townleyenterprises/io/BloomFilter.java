@@ -0,0 +1,147 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	BloomFilter.java
+// Created:	Sun Oct 18 07:02:52 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.util.Arrays;
+
+/**
+ * This class is a Bloom filter of 64-bit hashes.  It is sized for an
+ * expected number of entries and false positive rate, and uses the
+ * two halves of each hash to derive the bit positions.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class BloomFilter
+{
+	/**
+	 * The constructor creates an empty filter.
+	 *
+	 * @param expected the expected number of entries
+	 * @param fpp the false positive rate when the filter holds the
+	 * 	expected number of entries
+	 */
+
+	BloomFilter(long expected, double fpp)
+	{
+		if(expected < 1)
+		{
+			throw new IllegalArgumentException(
+				"expected entries must be positive: " + expected);
+		}
+		if(!(fpp > 0 && fpp < 1))
+		{
+			throw new IllegalArgumentException(
+				"invalid false positive rate: " + fpp);
+		}
+
+		double ln2 = Math.log(2);
+		long bits = (long)Math.ceil(-expected * Math.log(fpp)
+				/ (ln2 * ln2));
+		long words = Math.min((bits + 63) >>> 6, MAX_WORDS);
+		_bits = new long[(int)Math.max(words, 1)];
+		_hashes = (int)Math.max(1, Math.round(
+				(double)_bits.length * 64 / expected * ln2));
+	}
+
+	/**
+	 * This method adds a hash to the filter.
+	 *
+	 * @param hash the hash
+	 * @return true if the hash was definitely not in the filter
+	 */
+
+	boolean put(long hash)
+	{
+		long size = (long)_bits.length << 6;
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		boolean added = false;
+		for(int i = 1; i <= _hashes; ++i)
+		{
+			long h = h1 + (long)i * h2;
+			if(h < 0)
+				h = ~h;
+			long bit = h % size;
+			int w = (int)(bit >>> 6);
+			long mask = 1L << bit;
+			if((_bits[w] & mask) == 0)
+			{
+				_bits[w] |= mask;
+				added = true;
+			}
+		}
+
+		return added;
+	}
+
+	/**
+	 * This method removes all of the hashes from the filter.
+	 */
+
+	void clear()
+	{
+		Arrays.fill(_bits, 0);
+	}
+
+	/**
+	 * This method returns the number of bytes used by the filter.
+	 *
+	 * @return the number of bytes
+	 */
+
+	long getMemoryUsage()
+	{
+		return _bits.length * 8L;
+	}
+
+	/** the largest number of words in the filter */
+	private static final long	MAX_WORDS = Integer.MAX_VALUE - 8;
+
+	/** the bits */
+	private final long[]		_bits;
+
+	/** the number of bits set for each hash */
+	private final int		_hashes;
+}
@@ -0,0 +1,236 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	ByteScanner.java
+// Created:	Sun Oct 18 06:52:51 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class provides methods for searching byte buffers eight bytes
+ * at a time.  Each group of eight bytes is read as a long and the
+ * bytes matching the target are found using arithmetic on the whole
+ * word (SWAR, or SIMD within a register) rather than comparing each
+ * byte in turn.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class ByteScanner
+{
+	private ByteScanner()
+	{
+	}
+
+	/**
+	 * This method finds the next carriage return or line feed in
+	 * the buffer.
+	 *
+	 * @param buf the buffer
+	 * @param start the index to start searching
+	 * @param limit the index to stop searching
+	 * @return the index of the terminator or -1 if none was found
+	 */
+
+	static int indexOfLineEnd(ByteBuffer buf, int start, int limit)
+	{
+		boolean little = (buf.order() == ByteOrder.LITTLE_ENDIAN);
+		int i = start;
+		for(; i + 8 <= limit; i += 8)
+		{
+			long word = buf.getLong(i);
+			long found = zeroBytes(word ^ LF_WORD)
+					| zeroBytes(word ^ CR_WORD);
+			if(found != 0)
+				return i + firstByte(found, little);
+		}
+
+		for(; i < limit; ++i)
+		{
+			byte b = buf.get(i);
+			if(b == LF || b == CR)
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * This method finds the next occurrence of a byte in the
+	 * buffer.
+	 *
+	 * @param buf the buffer
+	 * @param b the byte to find
+	 * @param start the index to start searching
+	 * @param limit the index to stop searching
+	 * @return the index of the byte or -1 if it was not found
+	 */
+
+	static int indexOf(ByteBuffer buf, byte b, int start, int limit)
+	{
+		boolean little = (buf.order() == ByteOrder.LITTLE_ENDIAN);
+		long pattern = (b & 0xffL) * ONES;
+		int i = start;
+		for(; i + 8 <= limit; i += 8)
+		{
+			long found = zeroBytes(buf.getLong(i) ^ pattern);
+			if(found != 0)
+				return i + firstByte(found, little);
+		}
+
+		for(; i < limit; ++i)
+		{
+			if(buf.get(i) == b)
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * This method counts the occurrences of a byte in the buffer.
+	 *
+	 * @param buf the buffer
+	 * @param b the byte to count
+	 * @param start the index of the first byte
+	 * @param limit the index after the last byte
+	 * @return the number of occurrences
+	 */
+
+	static long count(ByteBuffer buf, byte b, int start, int limit)
+	{
+		long pattern = (b & 0xffL) * ONES;
+		long count = 0;
+		int i = start;
+		for(; i + 8 <= limit; i += 8)
+		{
+			count += Long.bitCount(zeroBytes(buf.getLong(i) ^ pattern));
+		}
+
+		for(; i < limit; ++i)
+		{
+			if(buf.get(i) == b)
+				++count;
+		}
+
+		return count;
+	}
+
+	/**
+	 * This method indicates if all of the bytes in the range are
+	 * ASCII characters, i.e. none of them has the high bit set.
+	 *
+	 * @param buf the buffer
+	 * @param start the index of the first byte
+	 * @param limit the index after the last byte
+	 * @return true if the bytes are all ASCII
+	 */
+
+	static boolean isAscii(ByteBuffer buf, int start, int limit)
+	{
+		long bits = 0;
+		int i = start;
+		for(; i + 8 <= limit; i += 8)
+		{
+			bits |= buf.getLong(i);
+		}
+
+		for(; i < limit; ++i)
+		{
+			bits |= buf.get(i);
+		}
+
+		return (bits & HIGH_BITS) == 0;
+	}
+
+	/**
+	 * This method returns a word with the high bit set in each
+	 * byte which is zero in the specified word and all other bits
+	 * clear.  Unlike the shorter (x - 0x01..) &amp; ~x form, there
+	 * are no false positives, so any byte order can be used.
+	 *
+	 * @param x the word
+	 * @return the marked zero bytes
+	 */
+
+	private static long zeroBytes(long x)
+	{
+		long t = (x & LOW_BITS) + LOW_BITS;
+		return ~(t | x | LOW_BITS);
+	}
+
+	/**
+	 * This method returns the index in memory of the first byte
+	 * marked by {@link #zeroBytes}.
+	 *
+	 * @param found the marked bytes
+	 * @param little true if the word was read little-endian
+	 * @return the index of the byte within the word
+	 */
+
+	private static int firstByte(long found, boolean little)
+	{
+		if(little)
+			return Long.numberOfTrailingZeros(found) >>> 3;
+
+		return Long.numberOfLeadingZeros(found) >>> 3;
+	}
+
+	private static final byte	CR = (byte)'\r';
+	private static final byte	LF = (byte)'\n';
+
+	/** a word with each byte set to one */
+	private static final long	ONES = 0x0101010101010101L;
+
+	/** a word with the high bit of each byte set */
+	private static final long	HIGH_BITS = 0x8080808080808080L;
+
+	/** a word with the low seven bits of each byte set */
+	private static final long	LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+
+	/** a word with each byte a line feed */
+	private static final long	LF_WORD = LF * ONES;
+
+	/** a word with each byte a carriage return */
+	private static final long	CR_WORD = CR * ONES;
+}
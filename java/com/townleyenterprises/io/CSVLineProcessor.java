@@ -0,0 +1,447 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	CSVLineProcessor.java
+// Created:	Sun Oct 18 06:36:19 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+/**
+ * This class provides the capability to process comma-separated value
+ * files as described in RFC 4180.  Fields may be enclosed in quotes,
+ * in which case they may contain the delimiter, line breaks and
+ * quotes.  A quote within a quoted field is represented by two
+ * consecutive quotes.
+ * <p>
+ * Each line is parsed in a single pass by a state machine which
+ * copies the unquoted field values into a buffer that is reused for
+ * every record.  The fields of each record are passed to the {@link
+ * #processFields} method.  When a quoted field contains a line break,
+ * the record is continued on the next line and the line break is
+ * represented in the field value by a single line feed character.
+ * Because records may span lines, the count returned by {@link
+ * #getLineCount} is the number of lines read; the number of records
+ * is returned by {@link #getRecordCount}.
+ * </p>
+ * <p>
+ * Records spanning lines can only be recognized if the lines are
+ * processed in order by a single instance, so this processor is not
+ * mergeable and {@link TextFileProcessor} refuses to process
+ * separate regions of a file with it in parallel.
+ * </p>
+ * <p>
+ * The parser is lenient about malformed input:  quotes appearing
+ * inside an unquoted field and characters following the closing
+ * quote of a quoted field are treated as part of the value.  If the
+ * input ends inside a quoted field, e.g. because of a stray quote,
+ * the rest of the input becomes the final record, which is
+ * processed by {@link #endOfInput} when {@link TextFileProcessor}
+ * reaches the end of the input.  If the lines are passed to the
+ * processor some other way, {@link #flush} must be called after the
+ * last line so the final record is not lost.
+ * </p>
+ * <p>
+ * If the required columns have been declared using {@link
+ * #setColumns}, the whole record is still scanned to find its end,
+ * but only the values of the required columns are copied.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public abstract class CSVLineProcessor extends DelimitedFieldProcessor
+{
+	/**
+	 * The constructor initializes the processor to use commas to
+	 * separate the fields and double quotes to quote them.
+	 */
+
+	public CSVLineProcessor()
+	{
+		this(',', '"');
+	}
+
+	/**
+	 * The constructor initializes the processor with the
+	 * delimiter to be used and double quotes to quote the fields.
+	 *
+	 * @param delim the delimiter
+	 */
+
+	public CSVLineProcessor(char delim)
+	{
+		this(delim, '"');
+	}
+
+	/**
+	 * The constructor initializes the processor with the
+	 * delimiter and quote character to be used.
+	 *
+	 * @param delim the delimiter
+	 * @param quote the quote character
+	 */
+
+	public CSVLineProcessor(char delim, char quote)
+	{
+		super(String.valueOf(delim));
+		if(delim == quote)
+		{
+			throw new IllegalArgumentException(
+				"delimiter and quote must be different");
+		}
+
+		_delimChar = delim;
+		_quote = quote;
+	}
+
+	/**
+	 * This method resets the line and record counts and discards
+	 * any partially processed record.
+	 */
+
+	public void reset()
+	{
+		super.reset();
+		_records = 0;
+		_inQuotes = false;
+	}
+
+	/**
+	 * This method returns the number of records processed since
+	 * the last reset.
+	 *
+	 * @return the count
+	 */
+
+	public int getRecordCount()
+	{
+		return _records;
+	}
+
+	/**
+	 * This method adds the number of records processed by the
+	 * specified processor to the count of this instance.
+	 *
+	 * @param lp the processor to merge
+	 * @exception Exception
+	 * 	if the results cannot be merged
+	 */
+
+	public void merge(LineProcessor lp) throws Exception
+	{
+		super.merge(lp);
+		if(lp instanceof CSVLineProcessor)
+		{
+			_records += ((CSVLineProcessor)lp)._records;
+		}
+	}
+
+	/**
+	 * This method returns false because a record may span the
+	 * boundary between the lines processed by two instances.
+	 *
+	 * @return false
+	 */
+
+	public boolean isMergeable()
+	{
+		return false;
+	}
+
+	/**
+	 * This method processes a record which has not been completed
+	 * because the input ended inside a quoted field.  It should
+	 * be called after processing input which may be truncated.
+	 *
+	 * @exception Exception
+	 * 	if something goes wrong processing the fields
+	 */
+
+	public void flush() throws Exception
+	{
+		if(!_inQuotes)
+			return;
+
+		_inQuotes = false;
+		endField();
+		++_records;
+		processFields(getFields());
+	}
+
+	/**
+	 * This method processes the final record if the input ended
+	 * inside a quoted field.
+	 *
+	 * @exception Exception
+	 * 	if something goes wrong processing the fields
+	 * @see #flush
+	 */
+
+	public void endOfInput() throws Exception
+	{
+		super.endOfInput();
+		flush();
+	}
+
+	/**
+	 * This method returns false because quoted fields may contain
+	 * the delimiter and line breaks, which the columnar cache
+	 * splits on.
+	 *
+	 * @return false
+	 */
+
+	boolean canUseColumnarCache()
+	{
+		return false;
+	}
+
+	/**
+	 * This method parses the line, continuing the current record
+	 * if the previous line ended inside a quoted field.
+	 *
+	 * @param line the line to split
+	 * @return the fields or null if the record continues on the
+	 * 	next line
+	 */
+
+	DelimitedFields split(CharSequence line)
+	{
+		int len = line.length();
+		int state;
+
+		if(_inQuotes)
+		{
+			append('\n');
+			state = QUOTED;
+		}
+		else
+		{
+			if(len == 0)
+				return null;
+
+			getFields().reset(_text);
+			_length = 0;
+			_fieldStart = 0;
+			_copy = isColumnSelected(0);
+			state = FIELD_START;
+		}
+
+		for(int i = 0; i < len; ++i)
+		{
+			char c = line.charAt(i);
+			switch(state)
+			{
+				case FIELD_START:
+					if(c == _quote)
+					{
+						state = QUOTED;
+					}
+					else if(c == _delimChar)
+					{
+						endField();
+					}
+					else
+					{
+						append(c);
+						state = UNQUOTED;
+					}
+					break;
+
+				case UNQUOTED:
+					if(c == _delimChar)
+					{
+						endField();
+						state = FIELD_START;
+					}
+					else
+					{
+						append(c);
+					}
+					break;
+
+				case QUOTED:
+					if(c == _quote)
+						state = QUOTE_SEEN;
+					else
+						append(c);
+					break;
+
+				case QUOTE_SEEN:
+					if(c == _quote)
+					{
+						// escaped quote
+						append(c);
+						state = QUOTED;
+					}
+					else if(c == _delimChar)
+					{
+						endField();
+						state = FIELD_START;
+					}
+					else
+					{
+						append(c);
+						state = UNQUOTED;
+					}
+					break;
+			}
+		}
+
+		if(state == QUOTED)
+		{
+			_inQuotes = true;
+			return null;
+		}
+
+		_inQuotes = false;
+		endField();
+		++_records;
+		return getFields();
+	}
+
+	/**
+	 * This method completes the current field.
+	 */
+
+	private void endField()
+	{
+		DelimitedFields fields = getFields();
+		int last = getLastColumn();
+		if(last == -1 || fields.size() <= last)
+		{
+			fields.add(_fieldStart, _length);
+			_copy = isColumnSelected(fields.size());
+		}
+		_fieldStart = _length;
+	}
+
+	/**
+	 * This method appends a character to the record buffer if
+	 * the current field is required.
+	 *
+	 * @param c the character
+	 */
+
+	private void append(char c)
+	{
+		if(!_copy)
+			return;
+
+		if(_length == _buf.length)
+		{
+			char[] buf = new char[_buf.length * 2];
+			System.arraycopy(_buf, 0, buf, 0, _length);
+			_buf = buf;
+		}
+
+		_buf[_length++] = c;
+	}
+
+	/**
+	 * This class provides the CharSequence view of the record
+	 * buffer used by the fields.
+	 */
+
+	private final class RecordText implements CharSequence
+	{
+		public int length()
+		{
+			return _length;
+		}
+
+		public char charAt(int i)
+		{
+			if(i < 0 || i >= _length)
+				throw new IndexOutOfBoundsException(String.valueOf(i));
+
+			return _buf[i];
+		}
+
+		public CharSequence subSequence(int start, int end)
+		{
+			if(start < 0 || end > _length || start > end)
+			{
+				throw new IndexOutOfBoundsException(start
+						+ ", " + end);
+			}
+
+			return new String(_buf, start, end - start);
+		}
+
+		public String toString()
+		{
+			return new String(_buf, 0, _length);
+		}
+	}
+
+	// parser states
+	private static final int	FIELD_START = 0;
+	private static final int	UNQUOTED = 1;
+	private static final int	QUOTED = 2;
+	private static final int	QUOTE_SEEN = 3;
+
+	/** the delimiter */
+	private final char		_delimChar;
+
+	/** the quote character */
+	private final char		_quote;
+
+	/** the view of the record buffer */
+	private final RecordText	_text = new RecordText();
+
+	/** the unquoted text of the current record */
+	private char[]			_buf = new char[256];
+
+	/** the number of characters in the record buffer */
+	private int			_length = 0;
+
+	/** the offset of the start of the current field */
+	private int			_fieldStart = 0;
+
+	/** indicates if the current field is being copied */
+	private boolean			_copy = true;
+
+	/** indicates if the record continues on the next line */
+	private boolean			_inQuotes = false;
+
+	/** the number of records processed */
+	private int			_records = 0;
+}
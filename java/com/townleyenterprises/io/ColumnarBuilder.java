@@ -0,0 +1,517 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	ColumnarBuilder.java
+// Created:	Sun Oct 18 07:06:25 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class converts a delimited file into the format read by
+ * {@link ColumnarFile}.  The file is read twice:  the first pass
+ * decides the type of each column and the second pass writes the
+ * values in blocks of rows.  The blocks are followed by a table of
+ * the location and the minimum and maximum value of each column in
+ * each block, the dictionaries of the string columns and a trailer
+ * giving the position of the table.
+ * <p>
+ * The dictionary of a string column holds at most {@link
+ * #MAX_DICTIONARY_SIZE} values.  Once it is full, a block with a
+ * value which is not in the dictionary stores the text of the column
+ * instead, so that columns with many distinct values do not require
+ * unlimited memory.
+ * </p>
+ * <p>
+ * A column is numeric if every value present in it is written the
+ * way the value would be formatted, so that the line can be
+ * rebuilt exactly from the stored value.  Empty lines are stored as
+ * rows without any fields.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class ColumnarBuilder extends DelimitedFieldProcessor
+{
+	/**
+	 * The constructor initializes the builder for the first pass.
+	 *
+	 * @param delim the delimiter
+	 */
+
+	ColumnarBuilder(String delim)
+	{
+		super(delim);
+	}
+
+	public void processFields(DelimitedFields fields) throws Exception
+	{
+		// empty lines are counted but not passed to this method
+		int empty = getLineCount() - 1 - (int)_rows;
+		for(int i = 0; i < empty; ++i)
+		{
+			addRow(null);
+		}
+		addRow(fields);
+	}
+
+	/**
+	 * This method ends the first pass and starts writing the
+	 * columnar file.
+	 *
+	 * @param source the delimited file
+	 * @param encoding the name of the encoding of the file
+	 * @param file the columnar file to write
+	 * @exception IOException
+	 * 	if the file cannot be created
+	 */
+
+	void startWriting(File source, String encoding, File file)
+			throws IOException
+	{
+		addEmptyRows();
+		_totalRows = _rows;
+		_rows = 0;
+		_writing = true;
+		super.reset();
+
+		int columns = _columns;
+		_counts = new int[ColumnarFile.BLOCK_ROWS];
+		_numbers = new long[columns][];
+		_ids = new int[columns][];
+		_strings = new String[columns][];
+		_text = new boolean[columns];
+		_dictionaries = new HashMap[columns];
+		_values = new List[columns];
+		for(int c = 0; c < columns; ++c)
+		{
+			// a column with no values at all is stored as text
+			if(_types[c] == ColumnarFile.TYPE_UNKNOWN)
+				_types[c] = ColumnarFile.TYPE_STRING;
+
+			if(_types[c] == ColumnarFile.TYPE_STRING)
+			{
+				_ids[c] = new int[ColumnarFile.BLOCK_ROWS];
+				_strings[c] = new String[ColumnarFile.BLOCK_ROWS];
+				_dictionaries[c] = new HashMap();
+				_values[c] = new ArrayList();
+			}
+			else
+			{
+				_numbers[c] = new long[ColumnarFile.BLOCK_ROWS];
+			}
+		}
+
+		_fos = new FileOutputStream(file);
+		_out = new DataOutputStream(new BufferedOutputStream(
+				_fos, BUFFER_SIZE));
+		_out.writeInt(ColumnarFile.MAGIC);
+		_out.writeInt(ColumnarFile.VERSION);
+		_out.writeLong(source.length());
+		_out.writeLong(source.lastModified());
+		_out.writeUTF(encoding);
+		_out.writeUTF(getDelimiter());
+		_out.writeLong(_totalRows);
+		_out.writeInt(ColumnarFile.BLOCK_ROWS);
+		_out.writeBoolean(_minFields != _maxFields);
+		_out.writeInt(columns);
+		for(int c = 0; c < columns; ++c)
+		{
+			_out.writeByte(_types[c]);
+			_out.writeByte(_scales[c]);
+		}
+		_pos = _out.size();
+	}
+
+	/**
+	 * This method ends the second pass and completes the file.
+	 *
+	 * @exception IOException
+	 * 	if the file cannot be written or the second pass did not
+	 * 	read the same lines as the first
+	 */
+
+	void finish() throws IOException
+	{
+		try
+		{
+			addEmptyRows();
+			if(_block > 0)
+				writeBlock();
+			if(_rows != _totalRows)
+			{
+				throw new IOException(
+					"file changed while it was converted");
+			}
+
+			long table = _pos;
+			_out.writeInt(_blocks.size());
+			for(int b = 0; b < _blocks.size(); ++b)
+			{
+				long[] info = (long[])_blocks.get(b);
+				for(int i = 0; i < info.length; ++i)
+					_out.writeLong(info[i]);
+			}
+
+			for(int c = 0; c < _columns; ++c)
+			{
+				if(_values[c] == null)
+					continue;
+
+				List values = _values[c];
+				_out.writeInt(values.size());
+				for(int i = 0; i < values.size(); ++i)
+				{
+					String s = (String)values.get(i);
+					_out.writeInt(s.length());
+					_out.writeChars(s);
+				}
+			}
+
+			_out.writeLong(table);
+			_out.writeInt(ColumnarFile.MAGIC);
+			_out.flush();
+			_fos.getFD().sync();
+		}
+		finally
+		{
+			_out.close();
+		}
+	}
+
+	/**
+	 * This method closes the columnar file if it is being written
+	 * after an error.
+	 */
+
+	void abort()
+	{
+		if(_out == null)
+			return;
+
+		try
+		{
+			_out.close();
+		}
+		catch(IOException e)
+		{
+			// don't care
+		}
+	}
+
+	/**
+	 * This method adds the empty lines at the end of the file.
+	 */
+
+	private void addEmptyRows() throws IOException
+	{
+		int empty = getLineCount() - (int)_rows;
+		for(int i = 0; i < empty; ++i)
+		{
+			addRow(null);
+		}
+	}
+
+	/**
+	 * This method records a row for the current pass.
+	 *
+	 * @param fields the fields or null for an empty line
+	 */
+
+	private void addRow(DelimitedFields fields) throws IOException
+	{
+		++_rows;
+		if(_writing)
+		{
+			writeRow(fields);
+			return;
+		}
+
+		int n = (fields == null ? 0 : fields.size());
+		_minFields = Math.min(_minFields, n);
+		_maxFields = Math.max(_maxFields, n);
+		if(n > _columns)
+			growColumns(n);
+
+		for(int c = 0; c < n; ++c)
+		{
+			int type = _types[c];
+			if(type == ColumnarFile.TYPE_STRING)
+				continue;
+
+			int scale = ColumnarFile.getScale(fields.getText(),
+					fields.getStart(c), fields.getEnd(c));
+			if(scale < 0 || (type != ColumnarFile.TYPE_UNKNOWN
+					&& scale != _scales[c]))
+			{
+				_types[c] = ColumnarFile.TYPE_STRING;
+				_scales[c] = 0;
+			}
+			else
+			{
+				_types[c] = ColumnarFile.TYPE_NUMBER;
+				_scales[c] = scale;
+			}
+		}
+	}
+
+	private void growColumns(int n)
+	{
+		int size = Math.max(n, _types.length * 2);
+		int[] types = new int[size];
+		int[] scales = new int[size];
+		System.arraycopy(_types, 0, types, 0, _columns);
+		System.arraycopy(_scales, 0, scales, 0, _columns);
+		_types = types;
+		_scales = scales;
+		_columns = n;
+	}
+
+	/**
+	 * This method adds a row to the current block.
+	 */
+
+	private void writeRow(DelimitedFields fields) throws IOException
+	{
+		int n = (fields == null ? 0 : fields.size());
+		if(n > _columns)
+			throw new IOException("file changed while it was converted");
+
+		int r = _block;
+		_counts[r] = n;
+		for(int c = 0; c < _columns; ++c)
+		{
+			if(_ids[c] == null)
+			{
+				_numbers[c][r] = (c < n ? ColumnarFile.getUnscaled(
+						fields.getText(), fields.getStart(c),
+						fields.getEnd(c)) : 0);
+				continue;
+			}
+
+			if(c >= n)
+			{
+				_ids[c][r] = -1;
+				_strings[c][r] = null;
+				continue;
+			}
+
+			String s = fields.getString(c);
+			_strings[c][r] = s;
+			Integer id = (Integer)_dictionaries[c].get(s);
+			if(id == null && _values[c].size() < MAX_DICTIONARY_SIZE)
+			{
+				id = Integer.valueOf(_values[c].size());
+				_dictionaries[c].put(s, id);
+				_values[c].add(s);
+			}
+
+			if(id == null)
+			{
+				_ids[c][r] = -1;
+				_text[c] = true;
+			}
+			else
+			{
+				_ids[c][r] = id.intValue();
+			}
+		}
+
+		if(++_block == ColumnarFile.BLOCK_ROWS)
+			writeBlock();
+	}
+
+	/**
+	 * This method writes the current block and records its
+	 * location and the range of each numeric column.  For a string
+	 * column, the first value of the range is 1 if the block stores
+	 * the text of the column:  the offset of the text of each row
+	 * and of the end of the last row, followed by the characters.
+	 */
+
+	private void writeBlock() throws IOException
+	{
+		int rows = _block;
+		boolean counts = (_minFields != _maxFields);
+
+		// start, length, counts and then offset, min and max
+		// for each column
+		long[] info = new long[3 + _columns * 3];
+		info[0] = _pos;
+		if(counts)
+		{
+			info[2] = _pos;
+			for(int r = 0; r < rows; ++r)
+				_out.writeInt(_counts[r]);
+			_pos += rows * 4L;
+		}
+
+		for(int c = 0; c < _columns; ++c)
+		{
+			int i = 3 + c * 3;
+			info[i] = _pos;
+			if(_text[c])
+			{
+				String[] strings = _strings[c];
+				int offset = 0;
+				_out.writeInt(offset);
+				for(int r = 0; r < rows; ++r)
+				{
+					if(strings[r] != null)
+						offset += strings[r].length();
+					_out.writeInt(offset);
+				}
+				for(int r = 0; r < rows; ++r)
+				{
+					if(strings[r] != null)
+						_out.writeChars(strings[r]);
+				}
+				_pos += (rows + 1) * 4L + offset * 2L;
+				info[i + 1] = 1;
+				_text[c] = false;
+				continue;
+			}
+
+			if(_ids[c] != null)
+			{
+				int[] ids = _ids[c];
+				for(int r = 0; r < rows; ++r)
+					_out.writeInt(ids[r]);
+				_pos += rows * 4L;
+				continue;
+			}
+
+			long[] values = _numbers[c];
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+			for(int r = 0; r < rows; ++r)
+			{
+				_out.writeLong(values[r]);
+				if(c < _counts[r])
+				{
+					min = Math.min(min, values[r]);
+					max = Math.max(max, values[r]);
+				}
+			}
+			_pos += rows * 8L;
+			info[i + 1] = min;
+			info[i + 2] = max;
+		}
+
+		info[1] = _pos - info[0];
+		_blocks.add(info);
+		_block = 0;
+	}
+
+	/** the largest number of values in the dictionary of a column */
+	static final int		MAX_DICTIONARY_SIZE = 16384;
+
+	/** the size of the output buffer */
+	private static final int	BUFFER_SIZE = 64 * 1024;
+
+	/** the number of columns */
+	private int			_columns = 0;
+
+	/** the type of each column */
+	private int[]			_types = new int[16];
+
+	/** the scale of each numeric column */
+	private int[]			_scales = new int[16];
+
+	/** the smallest number of fields in a row */
+	private int			_minFields = Integer.MAX_VALUE;
+
+	/** the largest number of fields in a row */
+	private int			_maxFields = 0;
+
+	/** the number of rows seen in the current pass */
+	private long			_rows = 0;
+
+	/** the number of rows seen in the first pass */
+	private long			_totalRows = 0;
+
+	/** true during the second pass */
+	private boolean			_writing = false;
+
+	/** the number of fields in each row of the current block */
+	private int[]			_counts;
+
+	/** the values of the numeric columns in the current block */
+	private long[][]		_numbers;
+
+	/** the dictionary indexes of the string columns in the block */
+	private int[][]			_ids;
+
+	/** the text of the string columns in the block */
+	private String[][]		_strings;
+
+	/** true if the block stores the text of a string column */
+	private boolean[]		_text;
+
+	/** the dictionary index of each value of the string columns */
+	private HashMap[]		_dictionaries;
+
+	/** the values of the string columns in order of their index */
+	private List[]			_values;
+
+	/** the number of rows in the current block */
+	private int			_block = 0;
+
+	/** the location and ranges of the blocks written */
+	private final List		_blocks = new ArrayList();
+
+	/** the columnar file */
+	private FileOutputStream	_fos;
+
+	/** the buffered stream writing the columnar file */
+	private DataOutputStream	_out;
+
+	/** the number of bytes written */
+	private long			_pos;
+}
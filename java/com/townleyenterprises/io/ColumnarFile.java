@@ -0,0 +1,893 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	ColumnarFile.java
+// Created:	Sun Oct 18 07:07:17 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * This class provides access to a delimited file which has been
+ * converted into a binary columnar form.  Each column is stored with
+ * a type:  columns whose values are all numbers with the same number
+ * of decimal places are stored as longs, and other columns are
+ * stored as indexes into a dictionary of their distinct values.  A
+ * column with too many distinct values stores the text of the fields
+ * in the blocks with values missing from its dictionary.  The
+ * rows are divided into blocks, and the minimum and maximum value of
+ * each numeric column in each block is recorded so that blocks can be
+ * skipped without reading them.
+ * <p>
+ * Columnar files are created by {@link
+ * TextFileProcessor#getColumnarFile} and stored in a sidecar file next
+ * to the delimited file.  The length and modification time of the
+ * delimited file are recorded so that a columnar file which no longer
+ * matches it can be detected by {@link #isCurrent}.  The blocks are
+ * memory-mapped when the file is loaded, so the values are read
+ * directly from the file without parsing any text.
+ * </p>
+ * <p>
+ * The values can be read by row using the typed accessors, or the
+ * lines can be passed to a {@link DelimitedFieldProcessor} by {@link
+ * #process} in place of reading the delimited file.  The lines are
+ * rebuilt exactly as they were in the delimited file.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class ColumnarFile
+{
+	private ColumnarFile()
+	{
+	}
+
+	/**
+	 * This method loads a columnar file.
+	 *
+	 * @param file the columnar file
+	 * @return the columnar file or null if the file does not exist
+	 * @exception IOException
+	 * 	if the file cannot be read or is not a columnar file
+	 */
+
+	public static ColumnarFile load(File file) throws IOException
+	{
+		if(!file.exists())
+			return null;
+
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			if(size < 12)
+				throw new IOException(file + " is not a columnar file");
+
+			ByteBuffer trailer = ByteBuffer.allocate(12);
+			channel.read(trailer, size - 12);
+			trailer.flip();
+			long table = trailer.getLong();
+			if(trailer.getInt() != MAGIC)
+				throw new IOException(file + " is not a columnar file");
+
+			channel.position(0);
+			DataInputStream in = new DataInputStream(
+				new BufferedInputStream(
+				Channels.newInputStream(channel)));
+			if(in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException(file + " is not a columnar file");
+
+			ColumnarFile cf = new ColumnarFile();
+			cf.readHeader(in);
+
+			channel.position(table);
+			in = new DataInputStream(new BufferedInputStream(
+				Channels.newInputStream(channel)));
+			cf.readTable(in, channel);
+
+			return cf;
+		}
+		finally
+		{
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/**
+	 * This method checks if the columnar file was created from
+	 * the current contents of a delimited file.
+	 *
+	 * @param file the delimited file
+	 * @return true if the length and modification time of the file
+	 * 	are unchanged
+	 */
+
+	public boolean isCurrent(File file)
+	{
+		return file.length() == _length
+			&& file.lastModified() == _modified;
+	}
+
+	/**
+	 * This method returns the name of the encoding used to read
+	 * the delimited file.
+	 *
+	 * @return the name of the encoding
+	 */
+
+	public String getEncoding()
+	{
+		return _encoding;
+	}
+
+	/**
+	 * This method returns the delimiter of the delimited file.
+	 *
+	 * @return the delimiter
+	 */
+
+	public String getDelimiter()
+	{
+		return _delim;
+	}
+
+	/**
+	 * This method returns the number of columns, which is the
+	 * largest number of fields in any line.
+	 *
+	 * @return the number of columns
+	 */
+
+	public int getColumnCount()
+	{
+		return _types.length;
+	}
+
+	/**
+	 * This method returns the number of rows, which is the number
+	 * of lines in the delimited file.
+	 *
+	 * @return the number of rows
+	 */
+
+	public long getRowCount()
+	{
+		return _rows;
+	}
+
+	/**
+	 * This method returns the type of a column.
+	 *
+	 * @param column the column
+	 * @return the type
+	 */
+
+	public ColumnType getColumnType(int column)
+	{
+		if(_types[column] == TYPE_STRING)
+			return ColumnType.STRING;
+
+		return (_scales[column] == 0) ? ColumnType.INTEGER
+					: ColumnType.DECIMAL;
+	}
+
+	/**
+	 * This method returns the number of digits after the decimal
+	 * point in the values of a numeric column.
+	 *
+	 * @param column the column
+	 * @return the number of digits
+	 */
+
+	public int getScale(int column)
+	{
+		return _scales[column];
+	}
+
+	/**
+	 * This method returns the number of blocks of rows.
+	 *
+	 * @return the number of blocks
+	 */
+
+	public int getBlockCount()
+	{
+		return _blocks.length;
+	}
+
+	/**
+	 * This method returns the number of rows in each block except
+	 * the last.  Block <em>b</em> starts with row <em>b</em> times
+	 * the block size.
+	 *
+	 * @return the number of rows
+	 */
+
+	public int getBlockSize()
+	{
+		return _blockRows;
+	}
+
+	/**
+	 * This method returns the smallest value of a numeric column
+	 * in a block.
+	 *
+	 * @param block the block
+	 * @param column the column
+	 * @return the value or NaN if the column is not numeric or has
+	 * 	no values in the block
+	 */
+
+	public double getMin(int block, int column)
+	{
+		return getRange(block, column, 1);
+	}
+
+	/**
+	 * This method returns the largest value of a numeric column
+	 * in a block.
+	 *
+	 * @param block the block
+	 * @param column the column
+	 * @return the value or NaN if the column is not numeric or has
+	 * 	no values in the block
+	 */
+
+	public double getMax(int block, int column)
+	{
+		return getRange(block, column, 2);
+	}
+
+	/**
+	 * This method returns the number of fields in a row.
+	 *
+	 * @param row the row
+	 * @return the number of fields
+	 */
+
+	public int getFieldCount(long row)
+	{
+		int block = getBlock(row);
+		if(!_counts)
+			return _types.length;
+
+		return _blocks[block].getInt((int)(_table[block][2]
+				- _table[block][0]) + getIndex(row) * 4);
+	}
+
+	/**
+	 * This method indicates if a row has a field for a column.
+	 *
+	 * @param column the column
+	 * @param row the row
+	 * @return true if the field is present
+	 */
+
+	public boolean isPresent(int column, long row)
+	{
+		return column < getFieldCount(row);
+	}
+
+	/**
+	 * This method returns the value of a numeric column as a
+	 * long.  The value of a decimal column is returned unscaled,
+	 * so that it is the value multiplied by ten to the power of
+	 * the scale.
+	 *
+	 * @param column the column
+	 * @param row the row
+	 * @return the value or 0 if the field is not present
+	 * @exception IllegalArgumentException
+	 * 	if the column is not numeric
+	 */
+
+	public long getLong(int column, long row)
+	{
+		if(_types[column] != TYPE_NUMBER)
+		{
+			throw new IllegalArgumentException("column " + column
+					+ " is not numeric");
+		}
+
+		int block = getBlock(row);
+		return getNumber(block, column, getIndex(row));
+	}
+
+	/**
+	 * This method returns the value of a numeric column as a
+	 * double.
+	 *
+	 * @param column the column
+	 * @param row the row
+	 * @return the value or 0 if the field is not present
+	 * @exception IllegalArgumentException
+	 * 	if the column is not numeric
+	 */
+
+	public double getDouble(int column, long row)
+	{
+		return scale(getLong(column, row), _scales[column]);
+	}
+
+	/**
+	 * This method returns the text of a field.
+	 *
+	 * @param column the column
+	 * @param row the row
+	 * @return the text or null if the field is not present
+	 */
+
+	public String getString(int column, long row)
+	{
+		if(!isPresent(column, row))
+			return null;
+
+		int block = getBlock(row);
+		int r = getIndex(row);
+		if(_types[column] == TYPE_STRING && !isText(block, column))
+			return _dictionaries[column][getId(block, column, r)];
+
+		Line line = new Line();
+		if(_types[column] == TYPE_STRING)
+			appendText(line, block, column, r);
+		else
+			line.append(getNumber(block, column, r), _scales[column]);
+		return line.toString();
+	}
+
+	/**
+	 * This method passes each line to a processor.  If the
+	 * processor does not override {@link
+	 * DelimitedFieldProcessor#processLine}, the fields are passed
+	 * to it directly without searching the line for delimiters.
+	 *
+	 * @param lp the processor
+	 * @exception Exception
+	 * 	if an error occurs processing the lines
+	 */
+
+	public void process(DelimitedFieldProcessor lp) throws Exception
+	{
+		lp.reset();
+		boolean direct = lp.canProcessText();
+		int last = lp.getLastColumn();
+		DelimitedFields fields = lp.getFields();
+		Line line = new Line();
+		int columns = _types.length;
+		int dlen = _delim.length();
+
+		for(int b = 0; b < _blocks.length; ++b)
+		{
+			int rows = getRows(b);
+			ByteBuffer buf = _blocks[b];
+			long[] info = _table[b];
+			int counts = (int)(info[2] - info[0]);
+			for(int r = 0; r < rows; ++r)
+			{
+				int n = _counts ? buf.getInt(counts + r * 4)
+						: columns;
+				if(n == 0)
+				{
+					if(direct)
+						lp.addLines(1);
+					else
+						lp.processLine("");
+					continue;
+				}
+
+				line.clear();
+				fields.reset(line);
+				for(int c = 0; c < n; ++c)
+				{
+					if(c > 0)
+						line.append(_delim);
+					int start = line.length();
+					if(_types[c] == TYPE_STRING && isText(b, c))
+					{
+						appendText(line, b, c, r);
+					}
+					else if(_types[c] == TYPE_STRING)
+					{
+						line.append(_dictionaries[c][
+							getId(b, c, r)]);
+					}
+					else
+					{
+						line.append(getNumber(b, c, r),
+							_scales[c]);
+					}
+					if(last == -1 || c <= last)
+						fields.add(start, line.length());
+				}
+
+				if(direct)
+				{
+					lp.addLines(1);
+					lp.processFields(fields);
+				}
+				else
+				{
+					lp.processLine(line.toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method returns the number of digits after the decimal
+	 * point if the text is a number in the form it would be
+	 * formatted:  an optional minus sign, a whole number without
+	 * leading zeros and optionally a decimal point followed by at
+	 * least one digit.  Values which could not be stored in a long
+	 * are rejected.
+	 *
+	 * @param text the text
+	 * @param start the start of the number
+	 * @param end the end of the number
+	 * @return the number of digits after the decimal point or -1
+	 * 	if the text is not a number in that form
+	 */
+
+	static int getScale(CharSequence text, int start, int end)
+	{
+		int pos = start;
+		boolean neg = false;
+		if(pos < end && text.charAt(pos) == '-')
+		{
+			neg = true;
+			++pos;
+		}
+
+		int whole = pos;
+		while(pos < end && isDigit(text.charAt(pos)))
+			++pos;
+		int digits = pos - whole;
+		if(digits == 0 || (digits > 1 && text.charAt(whole) == '0'))
+			return -1;
+
+		boolean zero = (digits == 1 && text.charAt(whole) == '0');
+		int scale = 0;
+		if(pos < end && text.charAt(pos) == '.')
+		{
+			int fraction = ++pos;
+			while(pos < end && isDigit(text.charAt(pos)))
+			{
+				if(text.charAt(pos) != '0')
+					zero = false;
+				++pos;
+			}
+			scale = pos - fraction;
+			if(scale == 0)
+				return -1;
+		}
+
+		// negative zero can't be stored and more than 18 digits
+		// might not fit
+		if(pos != end || (neg && zero) || digits + scale > 18)
+			return -1;
+
+		return scale;
+	}
+
+	/**
+	 * This method returns the digits of a number checked by
+	 * {@link #getScale} as a long, ignoring the decimal point.
+	 *
+	 * @param text the text
+	 * @param start the start of the number
+	 * @param end the end of the number
+	 * @return the unscaled value
+	 */
+
+	static long getUnscaled(CharSequence text, int start, int end)
+	{
+		boolean neg = (text.charAt(start) == '-');
+		long val = 0;
+		for(int i = neg ? start + 1 : start; i < end; ++i)
+		{
+			char c = text.charAt(i);
+			if(c != '.')
+				val = val * 10 + (c - '0');
+		}
+
+		return neg ? -val : val;
+	}
+
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * This method converts an unscaled value to a double.
+	 */
+
+	private static double scale(long val, int scale)
+	{
+		if(scale == 0)
+			return val;
+
+		// both values are exact, so the result is the nearest
+		// double to the decimal value
+		if(scale <= 22 && Math.abs(val) <= (1L << 53))
+			return val / POWERS_OF_TEN[scale];
+
+		return Double.parseDouble(val + "E-" + scale);
+	}
+
+	/**
+	 * This method returns the minimum or maximum of a column in a
+	 * block.
+	 */
+
+	private double getRange(int block, int column, int which)
+	{
+		long[] info = _table[block];
+		int i = 3 + column * 3;
+		if(_types[column] != TYPE_NUMBER || info[i + 1] > info[i + 2])
+			return Double.NaN;
+
+		return scale(info[i + which], _scales[column]);
+	}
+
+	private int getBlock(long row)
+	{
+		if(row < 0 || row >= _rows)
+			throw new IndexOutOfBoundsException("row " + row);
+
+		return (int)(row / _blockRows);
+	}
+
+	private int getIndex(long row)
+	{
+		return (int)(row % _blockRows);
+	}
+
+	private int getRows(int block)
+	{
+		if(block < _blocks.length - 1)
+			return _blockRows;
+
+		return (int)(_rows - (long)block * _blockRows);
+	}
+
+	private long getNumber(int block, int column, int r)
+	{
+		long[] info = _table[block];
+		return _blocks[block].getLong((int)(info[3 + column * 3]
+				- info[0]) + r * 8);
+	}
+
+	private int getId(int block, int column, int r)
+	{
+		long[] info = _table[block];
+		return _blocks[block].getInt((int)(info[3 + column * 3]
+				- info[0]) + r * 4);
+	}
+
+	/**
+	 * This method indicates if a block stores the text of a string
+	 * column rather than indexes into its dictionary.
+	 */
+
+	private boolean isText(int block, int column)
+	{
+		return _table[block][4 + column * 3] != 0;
+	}
+
+	/**
+	 * This method appends the text of a field from a block which
+	 * stores the text of the column.
+	 */
+
+	private void appendText(Line line, int block, int column, int r)
+	{
+		long[] info = _table[block];
+		ByteBuffer buf = _blocks[block];
+		int offsets = (int)(info[3 + column * 3] - info[0]);
+		int start = buf.getInt(offsets + r * 4);
+		int end = buf.getInt(offsets + r * 4 + 4);
+		int chars = offsets + (getRows(block) + 1) * 4;
+		line.append(buf, chars + start * 2, end - start);
+	}
+
+	/**
+	 * This method reads the description of the delimited file and
+	 * the columns.
+	 */
+
+	private void readHeader(DataInputStream in) throws IOException
+	{
+		_length = in.readLong();
+		_modified = in.readLong();
+		_encoding = in.readUTF();
+		_delim = in.readUTF();
+		_rows = in.readLong();
+		_blockRows = in.readInt();
+		_counts = in.readBoolean();
+		int columns = in.readInt();
+		_types = new int[columns];
+		_scales = new int[columns];
+		for(int c = 0; c < columns; ++c)
+		{
+			_types[c] = in.readByte();
+			_scales[c] = in.readByte();
+		}
+	}
+
+	/**
+	 * This method reads the block table and the dictionaries and
+	 * maps the blocks.
+	 */
+
+	private void readTable(DataInputStream in, FileChannel channel)
+			throws IOException
+	{
+		int count = in.readInt();
+		int columns = _types.length;
+		_table = new long[count][3 + columns * 3];
+		_blocks = new ByteBuffer[count];
+		for(int b = 0; b < count; ++b)
+		{
+			long[] info = _table[b];
+			for(int i = 0; i < info.length; ++i)
+				info[i] = in.readLong();
+		}
+
+		_dictionaries = new String[columns][];
+		for(int c = 0; c < columns; ++c)
+		{
+			if(_types[c] != TYPE_STRING)
+				continue;
+
+			String[] values = new String[in.readInt()];
+			char[] chars = new char[64];
+			for(int i = 0; i < values.length; ++i)
+			{
+				int len = in.readInt();
+				if(chars.length < len)
+					chars = new char[len];
+				for(int j = 0; j < len; ++j)
+					chars[j] = in.readChar();
+				values[i] = new String(chars, 0, len);
+			}
+			_dictionaries[c] = values;
+		}
+
+		for(int b = 0; b < count; ++b)
+		{
+			_blocks[b] = channel.map(FileChannel.MapMode.READ_ONLY,
+					_table[b][0], _table[b][1]);
+		}
+	}
+
+	/**
+	 * This class is the text of a line being rebuilt.  Unlike
+	 * StringBuffer, it is not synchronized, and numbers are added
+	 * without creating any objects.
+	 */
+
+	private static final class Line implements CharSequence
+	{
+		public int length()
+		{
+			return _length;
+		}
+
+		public char charAt(int i)
+		{
+			if(i < 0 || i >= _length)
+				throw new IndexOutOfBoundsException(String.valueOf(i));
+
+			return _chars[i];
+		}
+
+		public CharSequence subSequence(int start, int end)
+		{
+			if(start < 0 || end > _length || start > end)
+			{
+				throw new IndexOutOfBoundsException(start
+						+ ", " + end);
+			}
+
+			return new String(_chars, start, end - start);
+		}
+
+		public String toString()
+		{
+			return new String(_chars, 0, _length);
+		}
+
+		void clear()
+		{
+			_length = 0;
+		}
+
+		void append(String s)
+		{
+			int len = s.length();
+			ensure(len);
+			s.getChars(0, len, _chars, _length);
+			_length += len;
+		}
+
+		/**
+		 * This method appends characters stored in a buffer.
+		 */
+
+		void append(ByteBuffer buf, int pos, int len)
+		{
+			ensure(len);
+			for(int i = 0; i < len; ++i)
+				_chars[_length++] = buf.getChar(pos + i * 2);
+		}
+
+		/**
+		 * This method appends an unscaled value with the
+		 * specified number of digits after the decimal point.
+		 */
+
+		void append(long val, int scale)
+		{
+			// 18 digits, a sign, a leading zero and a point
+			ensure(21);
+			if(val < 0)
+			{
+				_chars[_length++] = '-';
+				val = -val;
+			}
+
+			int digits = 1;
+			for(long v = val / 10; v != 0; v /= 10)
+				++digits;
+			digits = Math.max(digits, scale + 1);
+
+			int len = digits + (scale > 0 ? 1 : 0);
+			int pos = _length + len;
+			for(int i = 0; i < digits; ++i)
+			{
+				if(scale > 0 && i == scale)
+					_chars[--pos] = '.';
+				_chars[--pos] = (char)('0' + val % 10);
+				val /= 10;
+			}
+			_length += len;
+		}
+
+		private void ensure(int len)
+		{
+			if(_length + len <= _chars.length)
+				return;
+
+			char[] chars = new char[Math.max(_chars.length * 2,
+					_length + len)];
+			System.arraycopy(_chars, 0, chars, 0, _length);
+			_chars = chars;
+		}
+
+		/** the characters */
+		private char[]	_chars = new char[256];
+
+		/** the number of characters */
+		private int	_length = 0;
+	}
+
+	/** the number of rows in a block */
+	static final int		BLOCK_ROWS = 16384;
+
+	/** the type of a column before any values have been seen */
+	static final int		TYPE_UNKNOWN = 0;
+
+	/** the type of a numeric column */
+	static final int		TYPE_NUMBER = 1;
+
+	/** the type of a text column */
+	static final int		TYPE_STRING = 2;
+
+	/** the identifier of a columnar file */
+	static final int		MAGIC = 0x54434f4c;
+
+	/** the version of the file format */
+	static final int		VERSION = 2;
+
+	/** the powers of ten which are exactly representable */
+	private static final double[]	POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+		1e20, 1e21, 1e22
+	};
+
+	/** the length of the delimited file */
+	private long			_length;
+
+	/** the modification time of the delimited file */
+	private long			_modified;
+
+	/** the encoding of the delimited file */
+	private String			_encoding;
+
+	/** the delimiter */
+	private String			_delim;
+
+	/** the number of rows */
+	private long			_rows;
+
+	/** the number of rows in each block */
+	private int			_blockRows;
+
+	/** true if the number of fields in each row is stored */
+	private boolean			_counts;
+
+	/** the type of each column */
+	private int[]			_types;
+
+	/** the scale of each numeric column */
+	private int[]			_scales;
+
+	/**
+	 * the start and length of each block, the offset of the
+	 * field counts and the offset, minimum and maximum of each
+	 * column
+	 */
+	private long[][]		_table;
+
+	/** the mapped blocks */
+	private ByteBuffer[]		_blocks;
+
+	/** the values of each string column */
+	private String[][]		_dictionaries;
+}
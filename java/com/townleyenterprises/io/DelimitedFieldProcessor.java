@@ -0,0 +1,451 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedFieldProcessor.java
+// Created:	Sun Oct 18 06:35:08 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class provides the capability to break a line of delimited
+ * text into fields without allocating any objects for each line.
+ * The fields are made available to the {@link #processFields}
+ * method through a {@link DelimitedFields} instance which is reused
+ * for every line, so a processor only pays for copying the fields
+ * it actually needs.
+ * <p>
+ * An example of summing the third column of a file:
+ * </p>
+ * <pre>
+ * fp.processFile(new DelimitedFieldProcessor("|") {
+ * 	public void processFields(DelimitedFields fields)
+ * 	{
+ * 		total += Integer.parseInt(fields.getString(2));
+ * 	}
+ * });
+ * </pre>
+ * <p>
+ * If only some of the columns are required, they can be declared
+ * using {@link #setColumns}.  The line is then only scanned as far
+ * as the last declared column and the values of the other columns
+ * are never copied.
+ * </p>
+ * <p>
+ * When a file is read by {@link TextFileProcessor} in memory-mapped
+ * mode and the text is ISO-8859-1 or ASCII, the lines are split by
+ * scanning the mapped bytes directly, so only the fields which are
+ * actually read are converted to characters.  This is only done if
+ * the {@link #processLine} method is not overridden.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public abstract class DelimitedFieldProcessor extends AbstractLineProcessor
+{
+	/**
+	 * The constructor initializes the processor with the
+	 * delimiter to be used.
+	 *
+	 * @param delim the delimiter
+	 */
+
+	public DelimitedFieldProcessor(String delim)
+	{
+		if(delim == null || delim.length() == 0)
+		{
+			throw new IllegalArgumentException(
+				"delimiter must not be empty");
+		}
+
+		_delim = delim;
+	}
+
+	/**
+	 * The constructor initializes the processor with the
+	 * delimiter to be used and the columns required by the
+	 * processor.
+	 *
+	 * @param delim the delimiter
+	 * @param columns the indexes of the required columns
+	 * @see #setColumns
+	 */
+
+	public DelimitedFieldProcessor(String delim, int[] columns)
+	{
+		this(delim);
+		setColumns(columns);
+	}
+
+	/**
+	 * This method declares the columns required by the processor.
+	 * Each line is only broken up as far as the last required
+	 * column, so the fields instance passed to {@link
+	 * #processFields} will not contain any fields after that
+	 * column.
+	 *
+	 * @param columns the zero-based indexes of the required
+	 * 	columns or null if all columns are required
+	 * @exception IllegalArgumentException
+	 * 	if the array is empty or contains a negative index
+	 */
+
+	public void setColumns(int[] columns)
+	{
+		if(columns == null)
+		{
+			_columns = null;
+			_selected = null;
+			_lastColumn = -1;
+			return;
+		}
+
+		if(columns.length == 0)
+		{
+			throw new IllegalArgumentException(
+				"columns must not be empty");
+		}
+
+		int last = -1;
+		for(int i = 0; i < columns.length; ++i)
+		{
+			if(columns[i] < 0)
+			{
+				throw new IllegalArgumentException(
+					"invalid column index: " + columns[i]);
+			}
+			last = Math.max(last, columns[i]);
+		}
+
+		boolean[] selected = new boolean[last + 1];
+		for(int i = 0; i < columns.length; ++i)
+		{
+			selected[columns[i]] = true;
+		}
+
+		_columns = (int[])columns.clone();
+		_selected = selected;
+		_lastColumn = last;
+	}
+
+	/**
+	 * This method returns the columns required by the processor.
+	 *
+	 * @return the column indexes or null if all columns are
+	 * 	required
+	 */
+
+	public int[] getColumns()
+	{
+		if(_columns == null)
+			return null;
+
+		return (int[])_columns.clone();
+	}
+
+	/**
+	 * This method indicates if the specified column is required
+	 * by the processor.
+	 *
+	 * @param column the column index
+	 * @return true if the column is required; false otherwise
+	 */
+
+	public boolean isColumnSelected(int column)
+	{
+		if(_selected == null)
+			return true;
+
+		return column < _selected.length && _selected[column];
+	}
+
+	/**
+	 * This method gets called for each line processed containing
+	 * the text of the line.  Empty lines are counted, but are not
+	 * passed to {@link #processFields}.
+	 *
+	 * @param line the line of the input file
+	 * @exception Exception
+	 *	if an error occurs processing the line
+	 */
+
+	public void processLine(String line) throws Exception
+	{
+		super.processLine(line);
+		if(line == null)
+		{
+			return;
+		}
+
+		DelimitedFields fields = split(line);
+		if(fields != null)
+		{
+			processFields(fields);
+		}
+	}
+
+	/**
+	 * This method gets called after the input line has been
+	 * broken up into fields.  The fields instance is reused for
+	 * each line.
+	 *
+	 * @param fields the fields of the line
+	 * @exception Exception
+	 * 	if something goes wrong processing the fields
+	 */
+
+	public abstract void processFields(DelimitedFields fields)
+			throws Exception;
+
+	/**
+	 * This method returns the delimiter used by the processor.
+	 *
+	 * @return the delimiter
+	 */
+
+	public String getDelimiter()
+	{
+		return _delim;
+	}
+
+	/**
+	 * This method indicates if lines can be passed to the
+	 * processor using {@link #processText}, which is only the case
+	 * if the processor relies on the implementation of {@link
+	 * #processLine} in this class.
+	 *
+	 * @return true if the text of the lines can be processed
+	 * 	directly
+	 */
+
+	boolean canProcessText()
+	{
+		try
+		{
+			return getClass().getMethod("processLine",
+				new Class[] { String.class }).getDeclaringClass()
+				== DelimitedFieldProcessor.class;
+		}
+		catch(NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * This method indicates if the lines can be read from a
+	 * {@link ColumnarFile}, whose fields are found by splitting
+	 * each line on the delimiter in the same way as this class.
+	 * Subclasses which split lines differently must return false.
+	 *
+	 * @return true if the columnar cache can be used
+	 */
+
+	boolean canUseColumnarCache()
+	{
+		return true;
+	}
+
+	/**
+	 * This method processes a line in the same way as {@link
+	 * #processLine} without the line being decoded.
+	 *
+	 * @param line the line of the input file
+	 * @exception Exception
+	 *	if an error occurs processing the line
+	 */
+
+	void processText(AsciiText line) throws Exception
+	{
+		addLines(1);
+
+		DelimitedFields fields = split(line);
+		if(fields != null)
+		{
+			processFields(fields);
+		}
+	}
+
+	/**
+	 * This method returns the index of the last required column.
+	 *
+	 * @return the column index or -1 if all columns are required
+	 */
+
+	int getLastColumn()
+	{
+		return _lastColumn;
+	}
+
+	/**
+	 * This method returns the reusable fields instance.
+	 *
+	 * @return the fields
+	 */
+
+	DelimitedFields getFields()
+	{
+		return _fields;
+	}
+
+	/**
+	 * This method breaks the line up into the fields instance.
+	 *
+	 * @param line the line to split
+	 * @return the fields or null if there are no fields to
+	 * 	process for the line
+	 */
+
+	DelimitedFields split(CharSequence line)
+	{
+		int len = line.length();
+		if(len == 0)
+		{
+			return null;
+		}
+
+		DelimitedFields fields = _fields;
+		fields.reset(line);
+		int start = 0;
+
+		// the number of delimiters to find before stopping
+		int remaining = (_lastColumn == -1) ? Integer.MAX_VALUE
+						: _lastColumn;
+
+		if(_delim.length() == 1 && _delim.charAt(0) < 0x80
+				&& line instanceof AsciiText)
+		{
+			// search the bytes eight at a time
+			AsciiText text = (AsciiText)line;
+			ByteBuffer buf = text.getBuffer();
+			byte delim = (byte)_delim.charAt(0);
+			int base = text.getStart();
+			int limit = base + len;
+			int idx = ByteScanner.indexOf(buf, delim, base, limit);
+			while(idx != -1)
+			{
+				fields.add(start, idx - base);
+				start = idx - base + 1;
+				if(--remaining < 0)
+					return fields;
+				idx = ByteScanner.indexOf(buf, delim, idx + 1, limit);
+			}
+			fields.add(start, len);
+			return fields;
+		}
+
+		if(_delim.length() == 1)
+		{
+			char delim = _delim.charAt(0);
+			for(int i = 0; i < len; ++i)
+			{
+				if(line.charAt(i) == delim)
+				{
+					fields.add(start, i);
+					start = i + 1;
+					if(--remaining < 0)
+						return fields;
+				}
+			}
+			fields.add(start, len);
+			return fields;
+		}
+
+		int dlen = _delim.length();
+		int idx = indexOf(line, start);
+		while(idx != -1)
+		{
+			fields.add(start, idx);
+			start = idx + dlen;
+			if(--remaining < 0)
+				return fields;
+			idx = indexOf(line, start);
+		}
+		fields.add(start, len);
+		return fields;
+	}
+
+	/**
+	 * This method finds the next occurrence of a multi-character
+	 * delimiter in the line.
+	 *
+	 * @param line the line to search
+	 * @param from the offset to start searching
+	 * @return the offset of the delimiter or -1 if not found
+	 */
+
+	private int indexOf(CharSequence line, int from)
+	{
+		int dlen = _delim.length();
+		int last = line.length() - dlen;
+		char first = _delim.charAt(0);
+
+		for(int i = from; i <= last; ++i)
+		{
+			if(line.charAt(i) != first)
+				continue;
+
+			int j = 1;
+			while(j < dlen && line.charAt(i + j) == _delim.charAt(j))
+				++j;
+			if(j == dlen)
+				return i;
+		}
+
+		return -1;
+	}
+
+	/** the delimiter */
+	private final String		_delim;
+
+	/** the required columns */
+	private int[]			_columns = null;
+
+	/** flags indicating which columns are required */
+	private boolean[]		_selected = null;
+
+	/** the index of the last required column */
+	private int			_lastColumn = -1;
+
+	/** the reusable fields of the current line */
+	private final DelimitedFields	_fields = new DelimitedFields();
+}
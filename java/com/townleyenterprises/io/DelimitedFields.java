@@ -0,0 +1,823 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedFields.java
+// Created:	Sun Oct 18 06:34:53 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+/**
+ * This class provides access to the fields of a single line of
+ * delimited text without creating a new String for each field.  The
+ * fields are represented as offset ranges into the text of the line
+ * and are returned as CharSequence instances which are reused for
+ * every line.
+ * <p>
+ * The instance and all of the CharSequence instances returned by it
+ * are only valid until the next line is processed.  If the value of
+ * a field is required after that, it must be copied, e.g. by calling
+ * {@link #getString}.
+ * </p>
+ * <p>
+ * Numeric and date values can be parsed directly from the text of
+ * the field using the typed accessors such as {@link #getInt} and
+ * {@link #getDate}.  These methods do not create any objects and do
+ * not throw exceptions for bad values.  Instead, the result of the
+ * last conversion is available from {@link #getStatus}:
+ * </p>
+ * <pre>
+ * int qty = fields.getInt(3);
+ * if(fields.getStatus() != DelimitedFields.PARSE_OK)
+ * {
+ * 	// handle missing or bad value
+ * }
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class DelimitedFields
+{
+	/**
+	 * The constructor is only called by the delimited processors
+	 * in this package.
+	 */
+
+	DelimitedFields()
+	{
+	}
+
+	/**
+	 * This method returns the number of fields in the line.
+	 *
+	 * @return the field count
+	 */
+
+	public int size()
+	{
+		return _count;
+	}
+
+	/**
+	 * This method returns the text containing the fields.
+	 *
+	 * @return the text
+	 */
+
+	public CharSequence getText()
+	{
+		return _text;
+	}
+
+	/**
+	 * This method returns the offset of the first character of
+	 * the field in the text returned by {@link #getText}.
+	 *
+	 * @param i the index of the field
+	 * @return the start offset
+	 */
+
+	public int getStart(int i)
+	{
+		checkIndex(i);
+		return _starts[i];
+	}
+
+	/**
+	 * This method returns the offset of the character following
+	 * the last character of the field in the text returned by
+	 * {@link #getText}.
+	 *
+	 * @param i the index of the field
+	 * @return the end offset
+	 */
+
+	public int getEnd(int i)
+	{
+		checkIndex(i);
+		return _ends[i];
+	}
+
+	/**
+	 * This method returns the length of the field.
+	 *
+	 * @param i the index of the field
+	 * @return the length
+	 */
+
+	public int getLength(int i)
+	{
+		checkIndex(i);
+		return _ends[i] - _starts[i];
+	}
+
+	/**
+	 * This method returns the field as a CharSequence.  The same
+	 * instance is returned for a given index on every line.
+	 *
+	 * @param i the index of the field
+	 * @return the field
+	 */
+
+	public CharSequence getField(int i)
+	{
+		checkIndex(i);
+		if(_slices == null || _slices.length < _starts.length)
+		{
+			Field[] slices = new Field[_starts.length];
+			if(_slices != null)
+			{
+				System.arraycopy(_slices, 0, slices, 0,
+						_slices.length);
+			}
+			_slices = slices;
+		}
+
+		Field f = _slices[i];
+		if(f == null)
+		{
+			f = new Field(i);
+			_slices[i] = f;
+		}
+
+		return f;
+	}
+
+	/**
+	 * This method returns a copy of the field as a String.
+	 *
+	 * @param i the index of the field
+	 * @return the field value
+	 */
+
+	public String getString(int i)
+	{
+		checkIndex(i);
+		return _text.subSequence(_starts[i], _ends[i]).toString();
+	}
+
+	/**
+	 * This method compares the value of the field with the
+	 * specified text without copying the field.
+	 *
+	 * @param i the index of the field
+	 * @param s the text to compare
+	 * @return true if they are the same; false otherwise
+	 */
+
+	public boolean fieldEquals(int i, CharSequence s)
+	{
+		checkIndex(i);
+		int start = _starts[i];
+		int len = _ends[i] - start;
+		if(s.length() != len)
+			return false;
+
+		for(int j = 0; j < len; ++j)
+		{
+			if(_text.charAt(start + j) != s.charAt(j))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * This method returns the status of the last conversion
+	 * performed by one of the typed accessors.
+	 *
+	 * @return one of the PARSE_ status codes
+	 */
+
+	public int getStatus()
+	{
+		return _status;
+	}
+
+	/**
+	 * This method parses the field as a decimal int value using
+	 * the same syntax as Integer.parseInt.
+	 *
+	 * @param i the index of the field
+	 * @return the value or 0 if the value could not be parsed
+	 */
+
+	public int getInt(int i)
+	{
+		long val = parseLong(i, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		return (int)val;
+	}
+
+	/**
+	 * This method parses the field as a decimal long value using
+	 * the same syntax as Long.parseLong.
+	 *
+	 * @param i the index of the field
+	 * @return the value or 0 if the value could not be parsed
+	 */
+
+	public long getLong(int i)
+	{
+		return parseLong(i, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * This method parses the field as a double value.  Plain
+	 * decimal values of up to 18 significant digits are
+	 * converted directly from the text of the field.  Other values
+	 * are converted by Double.parseDouble.
+	 *
+	 * @param i the index of the field
+	 * @return the value or 0 if the value could not be parsed
+	 */
+
+	public double getDouble(int i)
+	{
+		if(!checkField(i))
+			return 0;
+
+		CharSequence text = _text;
+		int pos = _starts[i];
+		int end = _ends[i];
+
+		boolean neg = false;
+		char c = text.charAt(pos);
+		if(c == '-' || c == '+')
+		{
+			neg = (c == '-');
+			++pos;
+		}
+
+		long mant = 0;
+		int digits = 0;
+		int scale = 0;
+		boolean point = false;
+		boolean any = false;
+		for(; pos < end; ++pos)
+		{
+			c = text.charAt(pos);
+			if(c >= '0' && c <= '9')
+			{
+				any = true;
+				if(mant == 0 && c == '0')
+				{
+					// leading zeros aren't significant
+				}
+				else if(++digits > 18)
+				{
+					return parseDouble(i);
+				}
+				mant = mant * 10 + (c - '0');
+				if(point)
+					--scale;
+			}
+			else if(c == '.' && !point)
+			{
+				point = true;
+			}
+			else
+			{
+				break;
+			}
+		}
+
+		if(!any)
+			return parseDouble(i);
+
+		if(pos < end)
+		{
+			if(c != 'e' && c != 'E' || ++pos == end)
+				return parseDouble(i);
+
+			boolean eneg = false;
+			c = text.charAt(pos);
+			if(c == '-' || c == '+')
+			{
+				eneg = (c == '-');
+				if(++pos == end)
+					return parseDouble(i);
+			}
+
+			int exp = 0;
+			for(; pos < end; ++pos)
+			{
+				c = text.charAt(pos);
+				if(c < '0' || c > '9' || exp > 1000)
+					return parseDouble(i);
+				exp = exp * 10 + (c - '0');
+			}
+			scale += eneg ? -exp : exp;
+		}
+
+		// the value is only exact if both the mantissa and the
+		// power of ten are exactly representable
+		if(mant > (1L << 53) || scale < -22 || scale > 22)
+			return parseDouble(i);
+
+		double val = (double)mant;
+		if(scale < 0)
+			val /= POWERS_OF_TEN[-scale];
+		else
+			val *= POWERS_OF_TEN[scale];
+
+		_status = PARSE_OK;
+		return neg ? -val : val;
+	}
+
+	/**
+	 * This method parses the field as a date.  The pattern uses
+	 * a subset of the syntax of SimpleDateFormat:  the pattern
+	 * letters y (year), M (month), d (day), H (hour), m (minute),
+	 * s (second) and S (millisecond) are supported.  A letter
+	 * repeated more than once requires exactly that many digits;
+	 * a single letter allows a variable number of digits.  All
+	 * other characters except letters must match exactly.  The
+	 * date is interpreted in the default time zone.
+	 * <p>
+	 * The result is returned in the same form as Date.getTime so
+	 * that no object needs to be created for each value.
+	 * </p>
+	 *
+	 * @param i the index of the field
+	 * @param pattern the date pattern
+	 * @return the number of milliseconds since January 1, 1970,
+	 * 	00:00:00 GMT or 0 if the value could not be parsed
+	 * @exception IllegalArgumentException
+	 * 	if the pattern contains unsupported letters
+	 */
+
+	public long getDate(int i, String pattern)
+	{
+		if(!pattern.equals(_datePattern))
+		{
+			_dateFormat = compileDatePattern(pattern);
+			_datePattern = pattern;
+		}
+
+		if(!checkField(i))
+			return 0;
+
+		CharSequence text = _text;
+		int pos = _starts[i];
+		int end = _ends[i];
+		int[] values = _dateValues;
+		values[0] = 1970;
+		values[1] = 1;
+		values[2] = 1;
+		values[3] = 0;
+		values[4] = 0;
+		values[5] = 0;
+		values[6] = 0;
+
+		char[] format = _dateFormat;
+		for(int j = 0; j < format.length; j += 2)
+		{
+			char letter = format[j];
+			int width = format[j + 1];
+
+			if(width == 0)
+			{
+				if(pos == end || text.charAt(pos) != letter)
+				{
+					_status = PARSE_INVALID;
+					return 0;
+				}
+				++pos;
+				continue;
+			}
+
+			// a single letter reads as many digits as there are
+			int max = (width == 1) ? 9 : width;
+			int val = 0;
+			int n = 0;
+			while(n < max && pos < end)
+			{
+				char c = text.charAt(pos);
+				if(c < '0' || c > '9')
+					break;
+				val = val * 10 + (c - '0');
+				++pos;
+				++n;
+			}
+
+			if(n == 0 || (width > 1 && n != width))
+			{
+				_status = PARSE_INVALID;
+				return 0;
+			}
+
+			values[DATE_LETTERS.indexOf(letter)] = val;
+		}
+
+		if(pos != end || values[1] < 1 || values[1] > 12
+				|| values[2] < 1 || values[3] > 23
+				|| values[4] > 59 || values[5] > 59
+				|| values[6] > 999)
+		{
+			_status = PARSE_INVALID;
+			return 0;
+		}
+
+		Calendar cal = _calendar;
+		if(cal == null)
+		{
+			cal = new GregorianCalendar();
+			_calendar = cal;
+		}
+
+		cal.clear();
+		cal.set(values[0], values[1] - 1, 1);
+		if(values[2] > cal.getActualMaximum(Calendar.DAY_OF_MONTH))
+		{
+			_status = PARSE_INVALID;
+			return 0;
+		}
+
+		cal.set(values[0], values[1] - 1, values[2], values[3],
+				values[4], values[5]);
+		cal.set(Calendar.MILLISECOND, values[6]);
+		_status = PARSE_OK;
+		return cal.getTimeInMillis();
+	}
+
+	/**
+	 * This method returns a list containing a copy of each field
+	 * as a String.
+	 *
+	 * @return the list of fields
+	 */
+
+	public List toList()
+	{
+		ArrayList list = new ArrayList(_count);
+		for(int i = 0; i < _count; ++i)
+		{
+			list.add(getString(i));
+		}
+
+		return list;
+	}
+
+	/**
+	 * This method returns a string representation of the fields
+	 * of the line.
+	 *
+	 * @return the fields
+	 */
+
+	public String toString()
+	{
+		return toList().toString();
+	}
+
+	/**
+	 * This method sets the text for the next line and clears the
+	 * fields.
+	 *
+	 * @param text the text of the line
+	 */
+
+	void reset(CharSequence text)
+	{
+		_text = text;
+		_count = 0;
+	}
+
+	/**
+	 * This method adds a field to the line.
+	 *
+	 * @param start the offset of the start of the field
+	 * @param end the offset of the end of the field
+	 */
+
+	void add(int start, int end)
+	{
+		if(_count == _starts.length)
+		{
+			int[] starts = new int[_count * 2];
+			int[] ends = new int[_count * 2];
+			System.arraycopy(_starts, 0, starts, 0, _count);
+			System.arraycopy(_ends, 0, ends, 0, _count);
+			_starts = starts;
+			_ends = ends;
+		}
+
+		_starts[_count] = start;
+		_ends[_count] = end;
+		++_count;
+	}
+
+	/**
+	 * This method checks that the field exists and is not empty
+	 * before it is parsed, setting the status if it isn't.
+	 *
+	 * @param i the index of the field
+	 * @return true if the field can be parsed
+	 */
+
+	private boolean checkField(int i)
+	{
+		if(i < 0 || i >= _count)
+		{
+			_status = PARSE_MISSING;
+			return false;
+		}
+
+		if(_starts[i] == _ends[i])
+		{
+			_status = PARSE_EMPTY;
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * This method parses the field as a decimal integer which
+	 * must be within the specified range.
+	 *
+	 * @param i the index of the field
+	 * @param min the minimum value
+	 * @param max the maximum value
+	 * @return the value or 0 if it could not be parsed
+	 */
+
+	private long parseLong(int i, long min, long max)
+	{
+		if(!checkField(i))
+			return 0;
+
+		CharSequence text = _text;
+		int pos = _starts[i];
+		int end = _ends[i];
+
+		boolean neg = false;
+		char c = text.charAt(pos);
+		if(c == '-' || c == '+')
+		{
+			neg = (c == '-');
+			if(++pos == end)
+			{
+				_status = PARSE_INVALID;
+				return 0;
+			}
+		}
+
+		// accumulate negatively so that the minimum value can
+		// be represented
+		long limit = neg ? min : -max;
+		long mult = limit / 10;
+		long val = 0;
+		for(; pos < end; ++pos)
+		{
+			c = text.charAt(pos);
+			if(c < '0' || c > '9')
+			{
+				_status = PARSE_INVALID;
+				return 0;
+			}
+
+			int digit = c - '0';
+			if(val < mult)
+			{
+				_status = PARSE_OVERFLOW;
+				return 0;
+			}
+			val *= 10;
+			if(val < limit + digit)
+			{
+				_status = PARSE_OVERFLOW;
+				return 0;
+			}
+			val -= digit;
+		}
+
+		_status = PARSE_OK;
+		return neg ? val : -val;
+	}
+
+	/**
+	 * This method parses the field using Double.parseDouble.  It
+	 * is used for the values which can't be converted directly.
+	 *
+	 * @param i the index of the field
+	 * @return the value or 0 if it could not be parsed
+	 */
+
+	private double parseDouble(int i)
+	{
+		try
+		{
+			double val = Double.parseDouble(getString(i));
+			_status = PARSE_OK;
+			return val;
+		}
+		catch(NumberFormatException e)
+		{
+			_status = PARSE_INVALID;
+			return 0;
+		}
+	}
+
+	/**
+	 * This method converts a date pattern into pairs of
+	 * characters:  the pattern letter and the number of digits,
+	 * or a literal character and zero.
+	 *
+	 * @param pattern the pattern
+	 * @return the compiled pattern
+	 */
+
+	private static char[] compileDatePattern(String pattern)
+	{
+		StringBuffer buf = new StringBuffer();
+		int len = pattern.length();
+		for(int i = 0; i < len; )
+		{
+			char c = pattern.charAt(i);
+			if(!Character.isLetter(c))
+			{
+				buf.append(c).append((char)0);
+				++i;
+				continue;
+			}
+
+			if(DATE_LETTERS.indexOf(c) == -1)
+			{
+				throw new IllegalArgumentException(
+					"unsupported date pattern letter '"
+					+ c + "' in " + pattern);
+			}
+
+			int n = 1;
+			while(i + n < len && pattern.charAt(i + n) == c)
+				++n;
+			buf.append(c).append((char)n);
+			i += n;
+		}
+
+		char[] format = new char[buf.length()];
+		buf.getChars(0, format.length, format, 0);
+		return format;
+	}
+
+	/**
+	 * This method checks that the index refers to a field of the
+	 * current line.
+	 *
+	 * @param i the index
+	 */
+
+	private void checkIndex(int i)
+	{
+		if(i < 0 || i >= _count)
+		{
+			throw new IndexOutOfBoundsException("field " + i
+				+ " requested; line has " + _count + " fields");
+		}
+	}
+
+	/**
+	 * This class provides the CharSequence view of a single
+	 * field.  The bounds are read from the enclosing instance each
+	 * time so the view always reflects the current line.
+	 */
+
+	private final class Field implements CharSequence
+	{
+		Field(int index)
+		{
+			_index = index;
+		}
+
+		public int length()
+		{
+			return _ends[_index] - _starts[_index];
+		}
+
+		public char charAt(int i)
+		{
+			if(i < 0 || i >= length())
+				throw new IndexOutOfBoundsException(String.valueOf(i));
+
+			return _text.charAt(_starts[_index] + i);
+		}
+
+		public CharSequence subSequence(int start, int end)
+		{
+			if(start < 0 || end > length() || start > end)
+			{
+				throw new IndexOutOfBoundsException(start
+						+ ", " + end);
+			}
+
+			int base = _starts[_index];
+			return _text.subSequence(base + start, base + end);
+		}
+
+		public String toString()
+		{
+			return getString(_index);
+		}
+
+		/** the index of the field */
+		private final int _index;
+	}
+
+	/** the value was parsed successfully */
+	public static final int	PARSE_OK = 0;
+
+	/** the field does not exist in the current line */
+	public static final int	PARSE_MISSING = 1;
+
+	/** the field is empty */
+	public static final int	PARSE_EMPTY = 2;
+
+	/** the field does not contain a valid value */
+	public static final int	PARSE_INVALID = 3;
+
+	/** the value is outside the range of the type */
+	public static final int	PARSE_OVERFLOW = 4;
+
+	/** the supported date pattern letters in the order stored */
+	private static final String	DATE_LETTERS = "yMdHmsS";
+
+	/** the exactly representable powers of ten */
+	private static final double[]	POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+		1e21, 1e22
+	};
+
+	/** the text of the current line */
+	private CharSequence	_text;
+
+	/** the start offsets of the fields */
+	private int[]		_starts = new int[16];
+
+	/** the end offsets of the fields */
+	private int[]		_ends = new int[16];
+
+	/** the number of fields in the current line */
+	private int		_count = 0;
+
+	/** the reusable field views */
+	private Field[]		_slices;
+
+	/** the status of the last conversion */
+	private int		_status = PARSE_OK;
+
+	/** the last date pattern used */
+	private String		_datePattern;
+
+	/** the compiled form of the last date pattern */
+	private char[]		_dateFormat;
+
+	/** the values of the date fields being parsed */
+	private final int[]	_dateValues = new int[7];
+
+	/** the calendar used to compute dates */
+	private Calendar	_calendar;
+}
@@ -0,0 +1,824 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedFileSorter.java
+// Created:	Sun Oct 18 06:55:35 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.townleyenterprises.filter.SortOrder;
+import com.townleyenterprises.filter.SortSpecification;
+
+/**
+ * This class sorts the lines of a delimited text file by the values
+ * of one or more columns without holding the whole file in memory.
+ * The sort keys are given as {@link SortSpecification} instances
+ * whose property is the zero-based index of the column.
+ * <p>
+ * The file is read in runs of up to {@link #getRunSize} lines.  Each
+ * run is sorted in memory and written to a temporary file by a pool
+ * of threads while the next run is being read.  The sorted runs are
+ * then merged into the output file.  If there are more runs than can
+ * be merged at once, groups of runs are first merged into larger
+ * runs.  If the whole file fits into a single run, it is sorted in
+ * memory and written directly to the output.
+ * </p>
+ * <p>
+ * Columns are compared as text unless they have been declared as
+ * numeric using {@link #setNumericColumns}.  Lines which do not have
+ * a column, or whose value for a numeric column is not a number,
+ * sort before all other lines for that key, whether it is ascending
+ * or descending.  The sort is stable, so lines with
+ * equal keys keep their order in the input file.  Each line of
+ * the output is terminated by a line feed.
+ * </p>
+ * <pre>
+ * DelimitedFileSorter sorter = new DelimitedFileSorter("|",
+ * 	new SortSpecification[] {
+ * 		new SortSpecification("2"),
+ * 		new SortSpecification("0", SortOrder.DESCENDING) });
+ * sorter.setNumericColumns(new int[] { 0 });
+ * sorter.sort("input.dat", "sorted.dat", "UTF-8");
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public class DelimitedFileSorter
+{
+	/**
+	 * The constructor initializes the sorter with the delimiter
+	 * and the columns to sort by.
+	 *
+	 * @param delim the delimiter
+	 * @param spec the sort specification
+	 * @exception IllegalArgumentException
+	 * 	if a property of the specification is not a column index
+	 */
+
+	public DelimitedFileSorter(String delim, SortSpecification[] spec)
+	{
+		if(delim == null || delim.length() == 0)
+		{
+			throw new IllegalArgumentException(
+				"delimiter must not be empty");
+		}
+
+		if(spec == null || spec.length == 0)
+		{
+			throw new IllegalArgumentException(
+				"sort specification must not be empty");
+		}
+
+		_delim = delim;
+		_keys = new int[spec.length];
+		_descending = new boolean[spec.length];
+		for(int i = 0; i < spec.length; ++i)
+		{
+			try
+			{
+				_keys[i] = Integer.parseInt(spec[i].getProperty());
+			}
+			catch(NumberFormatException e)
+			{
+				_keys[i] = -1;
+			}
+
+			if(_keys[i] < 0)
+			{
+				throw new IllegalArgumentException(
+					"sort property must be a column index: "
+					+ spec[i].getProperty());
+			}
+			_descending[i] = SortOrder.DESCENDING.equals(
+					spec[i].getOrder());
+		}
+		_numeric = new boolean[spec.length];
+	}
+
+	/**
+	 * This method sorts the input file into the output file.
+	 *
+	 * @param input the name of the file to sort
+	 * @param output the name of the file to write
+	 * @param encoding the encoding of the files or null to use
+	 * 	the default encoding
+	 * @return the number of lines sorted
+	 * @exception IOException
+	 * 	if there was an error reading or writing the files
+	 * @exception Exception
+	 * 	if the sort was interrupted
+	 */
+
+	public long sort(String input, String output, final String encoding)
+			throws IOException, Exception
+	{
+		final List runs = new ArrayList();
+		final LinkedList pending = new LinkedList();
+		List merged = new ArrayList();
+		final ExecutorService pool = Executors.newFixedThreadPool(_threads);
+
+		try
+		{
+			RunCollector rc = new RunCollector() {
+				void runFull(final Record[] run, final int count)
+						throws Exception
+				{
+					// limit the number of runs held in memory
+					while(pending.size() >= _threads)
+					{
+						runs.add(TextFileProcessor.getResult(
+							(Future)pending.removeFirst()));
+					}
+
+					pending.addLast(pool.submit(new Callable() {
+						public Object call() throws Exception
+						{
+							Arrays.sort(run, 0, count, _comparator);
+							return writeRun(run, count, encoding);
+						}
+					}));
+				}
+			};
+
+			new TextFileProcessor(input, encoding).processFile(rc);
+
+			if(runs.isEmpty() && pending.isEmpty())
+			{
+				// the whole file fits in memory
+				Record[] run = (rc._run != null) ? rc._run
+							: new Record[0];
+				Arrays.sort(run, 0, rc._count, _comparator);
+				Writer out = openWriter(new File(output), encoding);
+				try
+				{
+					for(int i = 0; i < rc._count; ++i)
+					{
+						writeLine(out, run[i].line);
+					}
+				}
+				finally
+				{
+					out.close();
+				}
+
+				return rc.getLineCount();
+			}
+
+			if(rc._count > 0)
+				rc.runFull(rc._run, rc._count);
+
+			while(!pending.isEmpty())
+			{
+				runs.add(TextFileProcessor.getResult(
+						(Future)pending.removeFirst()));
+			}
+
+			// reduce the number of runs until they can all be
+			// merged at once, keeping them in file order so that
+			// the sort remains stable
+			while(runs.size() > _mergeFactor)
+			{
+				merged.clear();
+				for(int i = 0; i < runs.size(); i += _mergeFactor)
+				{
+					List group = new ArrayList(runs.subList(i,
+						Math.min(i + _mergeFactor, runs.size())));
+					if(group.size() == 1)
+					{
+						merged.add(group.get(0));
+						continue;
+					}
+
+					File file = createRunFile();
+					merged.add(file);
+					merge(group, file, encoding);
+				}
+				runs.clear();
+				runs.addAll(merged);
+			}
+
+			merge(runs, new File(output), encoding);
+			runs.clear();
+			return rc.getLineCount();
+		}
+		finally
+		{
+			// wait for the runs still being written so that
+			// their files can be removed
+			pool.shutdownNow();
+			while(!pending.isEmpty())
+			{
+				try
+				{
+					runs.add(((Future)pending.removeFirst()).get());
+				}
+				catch(Exception e)
+				{
+					// the run removes its own file
+				}
+			}
+
+			for(Iterator i = runs.iterator(); i.hasNext(); )
+			{
+				((File)i.next()).delete();
+			}
+			for(Iterator i = merged.iterator(); i.hasNext(); )
+			{
+				((File)i.next()).delete();
+			}
+		}
+	}
+
+	/**
+	 * This method declares which of the sort columns are compared
+	 * as numbers rather than as text.
+	 *
+	 * @param columns the indexes of the numeric columns or null
+	 */
+
+	public void setNumericColumns(int[] columns)
+	{
+		for(int i = 0; i < _keys.length; ++i)
+		{
+			_numeric[i] = false;
+			for(int j = 0; columns != null && j < columns.length; ++j)
+			{
+				if(columns[j] == _keys[i])
+					_numeric[i] = true;
+			}
+		}
+	}
+
+	/**
+	 * This method sets the maximum number of lines sorted in
+	 * memory at once.  Up to one run for each thread may be held
+	 * in memory in addition to the run being read.
+	 *
+	 * @param lines the number of lines
+	 */
+
+	public void setRunSize(int lines)
+	{
+		if(lines < 1)
+		{
+			throw new IllegalArgumentException(
+				"run size must be positive: " + lines);
+		}
+
+		_runSize = lines;
+	}
+
+	/**
+	 * This method returns the maximum number of lines sorted in
+	 * memory at once.
+	 *
+	 * @return the number of lines
+	 */
+
+	public int getRunSize()
+	{
+		return _runSize;
+	}
+
+	/**
+	 * This method sets the number of threads used to sort runs.
+	 *
+	 * @param threads the number of threads
+	 */
+
+	public void setThreads(int threads)
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException(
+				"thread count must be positive: " + threads);
+		}
+
+		_threads = threads;
+	}
+
+	/**
+	 * This method returns the number of threads used to sort
+	 * runs.
+	 *
+	 * @return the number of threads
+	 */
+
+	public int getThreads()
+	{
+		return _threads;
+	}
+
+	/**
+	 * This method sets the maximum number of runs which are
+	 * merged at once.
+	 *
+	 * @param runs the number of runs
+	 */
+
+	public void setMergeFactor(int runs)
+	{
+		if(runs < 2)
+		{
+			throw new IllegalArgumentException(
+				"merge factor must be at least two: " + runs);
+		}
+
+		_mergeFactor = runs;
+	}
+
+	/**
+	 * This method returns the maximum number of runs which are
+	 * merged at once.
+	 *
+	 * @return the number of runs
+	 */
+
+	public int getMergeFactor()
+	{
+		return _mergeFactor;
+	}
+
+	/**
+	 * This method sets the directory used for the temporary run
+	 * files.
+	 *
+	 * @param dir the directory or null to use the default
+	 * 	temporary directory
+	 */
+
+	public void setTempDirectory(File dir)
+	{
+		_tempdir = dir;
+	}
+
+	/**
+	 * This method returns the directory used for the temporary
+	 * run files.
+	 *
+	 * @return the directory or null
+	 */
+
+	public File getTempDirectory()
+	{
+		return _tempdir;
+	}
+
+	/**
+	 * This method merges the sorted runs into the output file.
+	 * Lines with equal keys are taken from the earliest run.
+	 *
+	 * @param runs the run files
+	 * @param output the output file
+	 * @param encoding the encoding
+	 */
+
+	private void merge(List runs, File output, String encoding)
+			throws IOException
+	{
+		PriorityQueue queue = new PriorityQueue(Math.max(1, runs.size()),
+			new Comparator() {
+				public int compare(Object o1, Object o2)
+				{
+					RunReader r1 = (RunReader)o1;
+					RunReader r2 = (RunReader)o2;
+					int rc = _comparator.compare(r1.head, r2.head);
+					return (rc != 0) ? rc : r1.index - r2.index;
+				}
+			});
+
+		KeyParser parser = new KeyParser();
+		Writer out = null;
+		try
+		{
+			for(int i = 0; i < runs.size(); ++i)
+			{
+				RunReader r = new RunReader((File)runs.get(i),
+						encoding, i);
+				if(r.next(parser))
+					queue.add(r);
+				else
+					r.close();
+			}
+
+			out = openWriter(output, encoding);
+			while(!queue.isEmpty())
+			{
+				RunReader r = (RunReader)queue.poll();
+				writeLine(out, r.head.line);
+				if(r.next(parser))
+					queue.add(r);
+				else
+					r.close();
+			}
+		}
+		finally
+		{
+			while(!queue.isEmpty())
+			{
+				((RunReader)queue.poll()).close();
+			}
+
+			if(out != null)
+				out.close();
+
+			for(int i = 0; i < runs.size(); ++i)
+			{
+				((File)runs.get(i)).delete();
+			}
+		}
+	}
+
+	/**
+	 * This method writes a sorted run to a temporary file.
+	 *
+	 * @param run the records
+	 * @param count the number of records
+	 * @param encoding the encoding
+	 * @return the file
+	 */
+
+	private File writeRun(Record[] run, int count, String encoding)
+			throws IOException
+	{
+		File file = createRunFile();
+		try
+		{
+			Writer out = openWriter(file, encoding);
+			try
+			{
+				for(int i = 0; i < count; ++i)
+				{
+					writeLine(out, run[i].line);
+					run[i] = null;
+				}
+			}
+			finally
+			{
+				out.close();
+			}
+		}
+		catch(IOException e)
+		{
+			file.delete();
+			throw e;
+		}
+
+		return file;
+	}
+
+	/**
+	 * This method creates a temporary file for a run.
+	 *
+	 * @return the file
+	 */
+
+	private File createRunFile() throws IOException
+	{
+		return File.createTempFile("sort", ".run", _tempdir);
+	}
+
+	/**
+	 * This method opens a buffered writer for a file.
+	 *
+	 * @param file the file
+	 * @param encoding the encoding or null
+	 * @return the writer
+	 */
+
+	private static Writer openWriter(File file, String encoding)
+			throws IOException
+	{
+		FileOutputStream fos = new FileOutputStream(file);
+		OutputStreamWriter osw;
+
+		try
+		{
+			if(encoding != null)
+				osw = new OutputStreamWriter(fos, encoding);
+			else
+				osw = new OutputStreamWriter(fos);
+		}
+		catch(IOException e)
+		{
+			fos.close();
+			throw e;
+		}
+
+		return new BufferedWriter(osw, BUFFER_SIZE);
+	}
+
+	/**
+	 * This method writes a line followed by a line feed.
+	 *
+	 * @param out the writer
+	 * @param line the line
+	 */
+
+	private static void writeLine(Writer out, String line)
+			throws IOException
+	{
+		out.write(line);
+		out.write('\n');
+	}
+
+	/**
+	 * This class holds a line and the values of its sort keys.
+	 */
+
+	private static final class Record
+	{
+		Record(String line, Object[] keys)
+		{
+			this.line = line;
+			this.keys = keys;
+		}
+
+		final String	line;
+		final Object[]	keys;
+	}
+
+	/**
+	 * This class extracts the sort keys from a line.
+	 */
+
+	private class KeyParser extends DelimitedFieldProcessor
+	{
+		KeyParser()
+		{
+			super(_delim);
+
+			setColumns(_keys);
+		}
+
+		/**
+		 * This method creates the record for a line.
+		 */
+
+		Record parse(String line) throws Exception
+		{
+			_keyValues = new Object[_keys.length];
+			processLine(line);
+			return new Record(line, _keyValues);
+		}
+
+		public void processFields(DelimitedFields fields)
+		{
+			for(int i = 0; i < _keys.length; ++i)
+			{
+				int col = _keys[i];
+				if(col >= fields.size())
+					continue;
+
+				if(_numeric[i])
+				{
+					double d = fields.getDouble(col);
+					if(fields.getStatus() == DelimitedFields.PARSE_OK)
+						_keyValues[i] = Double.valueOf(d);
+				}
+				else
+				{
+					_keyValues[i] = fields.getString(col);
+				}
+			}
+		}
+
+		/** the keys of the current line */
+		Object[]		_keyValues;
+	}
+
+	/**
+	 * This class collects the lines of the input file into runs.
+	 */
+
+	private abstract class RunCollector extends KeyParser
+	{
+		public void processLine(String line) throws Exception
+		{
+			if(_run == null)
+				_run = new Record[_runSize];
+
+			_keyValues = new Object[_keys.length];
+			super.processLine(line);
+			_run[_count++] = new Record(line, _keyValues);
+
+			if(_count == _runSize)
+			{
+				runFull(_run, _count);
+				_run = new Record[_runSize];
+				_count = 0;
+			}
+		}
+
+		/**
+		 * This method is called when a run is full.
+		 */
+
+		abstract void runFull(Record[] run, int count)
+				throws Exception;
+
+		/** the current run */
+		Record[]		_run;
+
+		/** the number of lines in the current run */
+		int			_count = 0;
+	}
+
+	/**
+	 * This class reads the lines of a sorted run.
+	 */
+
+	private static final class RunReader
+	{
+		RunReader(File file, String encoding, int index)
+				throws IOException
+		{
+			FileInputStream fis = new FileInputStream(file);
+			try
+			{
+				if(encoding != null)
+					_in = new BufferedReader(new InputStreamReader(
+						fis, encoding), BUFFER_SIZE);
+				else
+					_in = new BufferedReader(new InputStreamReader(
+						fis), BUFFER_SIZE);
+			}
+			catch(IOException e)
+			{
+				fis.close();
+				throw e;
+			}
+
+			this.index = index;
+		}
+
+		/**
+		 * This method reads the next line of the run.
+		 *
+		 * @return true if there was a line; false at the end of
+		 * 	the run
+		 */
+
+		boolean next(KeyParser parser) throws IOException
+		{
+			String line = _in.readLine();
+			if(line == null)
+				return false;
+
+			try
+			{
+				head = parser.parse(line);
+			}
+			catch(IOException e)
+			{
+				throw e;
+			}
+			catch(Exception e)
+			{
+				// the parser doesn't throw checked exceptions
+				throw new RuntimeException(e);
+			}
+			return true;
+		}
+
+		void close()
+		{
+			try
+			{
+				_in.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+
+		/** the current line */
+		Record			head;
+
+		/** the position of the run in the merge */
+		final int		index;
+
+		/** the reader */
+		private final BufferedReader	_in;
+	}
+
+	/** the default maximum number of lines sorted in memory */
+	public static final int		DEFAULT_RUN_SIZE = 500000;
+
+	/** the default maximum number of runs merged at once */
+	public static final int		DEFAULT_MERGE_FACTOR = 64;
+
+	/** the size of the buffers used for the run files */
+	private static final int	BUFFER_SIZE = 64 * 1024;
+
+	/** compares records by their keys */
+	private final Comparator	_comparator = new Comparator() {
+		public int compare(Object o1, Object o2)
+		{
+			Object[] k1 = ((Record)o1).keys;
+			Object[] k2 = ((Record)o2).keys;
+			for(int i = 0; i < k1.length; ++i)
+			{
+				int rc;
+				if(k1[i] == null)
+					rc = (k2[i] == null) ? 0 : -1;
+				else if(k2[i] == null)
+					rc = 1;
+				else if(_descending[i])
+					rc = ((Comparable)k2[i]).compareTo(k1[i]);
+				else
+					rc = ((Comparable)k1[i]).compareTo(k2[i]);
+
+				// missing keys sort first in either order
+				if(rc != 0)
+					return rc;
+			}
+			return 0;
+		}
+	};
+
+	/** the delimiter */
+	private final String		_delim;
+
+	/** the column of each sort key */
+	private final int[]		_keys;
+
+	/** indicates which sort keys are descending */
+	private final boolean[]		_descending;
+
+	/** indicates which sort keys are numeric */
+	private final boolean[]		_numeric;
+
+	/** the maximum number of lines sorted in memory */
+	private int			_runSize = DEFAULT_RUN_SIZE;
+
+	/** the number of threads used to sort runs */
+	private int			_threads =
+				Runtime.getRuntime().availableProcessors();
+
+	/** the maximum number of runs merged at once */
+	private int			_mergeFactor = DEFAULT_MERGE_FACTOR;
+
+	/** the directory for the run files */
+	private File			_tempdir = null;
+}
@@ -46,14 +46,22 @@ import java.util.List;
 
 /**
  * This class provides the capability to break a line of delimited
- * text into a list of objects representing each value.
+ * text into a list of objects representing each value.  Processors
+ * which only need some of the values, or which want to avoid
+ * creating a list and a String for every value, should extend
+ * {@link DelimitedFieldProcessor} directly.
+ * <p>
+ * If the columns required by the processor have been declared, the
+ * list only extends as far as the last required column and the
+ * entries for the columns which are not required are null.
+ * </p>
  *
  * @version $Id: DelimitedLineProcessor.java,v 1.2 2004/11/06 19:15:36 atownley Exp $
  * @author <a href="mailto:adz1092@nestscape.net">Andrew S. Townley</a>
  * @since 2.1
  */
 
-public abstract class DelimitedLineProcessor extends AbstractLineProcessor
+public abstract class DelimitedLineProcessor extends DelimitedFieldProcessor
 {
 	/**
 	 * The constructor initializes the processor with the
@@ -64,59 +72,50 @@ public abstract class DelimitedLineProcessor extends AbstractLineProcessor
 
 	public DelimitedLineProcessor(String delim)
 	{
-		_delim = delim;
+		super(delim);
 	}
 
 	/**
-	 * This method gets called for each line processed containing
-	 * the text of the line.
+	 * The constructor initializes the processor with the
+	 * delimiter to be used and the columns required by the
+	 * processor.
 	 *
-	 * @param line the line of the input file
+	 * @param delim the delimiter
+	 * @param columns the indexes of the required columns
+	 */
+
+	public DelimitedLineProcessor(String delim, int[] columns)
+	{
+		super(delim, columns);
+	}
+
+	/**
+	 * This method copies each of the required fields into a list
+	 * and passes it to {@link #processItems}.
+	 *
+	 * @param fields the fields of the line
 	 * @exception Exception
-	 *	if an error occurs processing the line
+	 * 	if something goes wrong processing the items
 	 */
 
-	public void processLine(String line) throws Exception
+	public void processFields(DelimitedFields fields) throws Exception
 	{
-		super.processLine(line);
-		if(line == null || line.length() == 0)
+		if(getLastColumn() == -1)
 		{
+			processItems(fields.toList());
 			return;
 		}
 
-		ArrayList list = new ArrayList();
-		int idx = 0;
-		int lidx = -1;
-
-		// break up the list
-		while(idx != -1)
+		int size = fields.size();
+		ArrayList list = new ArrayList(size);
+		for(int i = 0; i < size; ++i)
 		{
-			String tok;
-
-			idx = line.indexOf(_delim, lidx+1);
-
-			// does the line start with the delimiter
-			if(idx == 0)
-			{
-				tok = "";
-			}
+			if(isColumnSelected(i))
+				list.add(fields.getString(i));
 			else
-			{
-				if(idx != -1)
-				{
-					tok = line.substring(lidx+1, idx);
-				}
-				else
-				{
-					tok = line.substring(lidx+1);
-				}
-			}
-
-			list.add(tok);
-			lidx = idx;
+				list.add(null);
 		}
 
-		// call the abstract method
 		processItems(list);
 	}
 
@@ -130,15 +129,4 @@ public abstract class DelimitedLineProcessor extends AbstractLineProcessor
 	 */
 
 	public abstract void processItems(List list) throws Exception;
-
-	/**
-	 * This method does nothing.
-	 */
-
-	public void reset()
-	{
-	}
-
-	/** the delimiter */
-	private String _delim;
 }
@@ -0,0 +1,727 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedLineWriter.java
+// Created:	Sun Oct 18 06:47:43 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This class writes lines of delimited fields to an output stream.
+ * It is the counterpart of {@link DelimitedLineProcessor} and is
+ * intended for jobs which transform large delimited files.
+ * <p>
+ * The fields are written into a character buffer which is encoded
+ * into a byte buffer and written to the stream when it is full, so
+ * no intermediate Strings are created for each line.  Integer
+ * values and doubles written with a fixed number of decimal places
+ * are formatted directly into the buffer.
+ * </p>
+ * <p>
+ * Text fields can be quoted according to a {@link QuotePolicy}.
+ * Quote characters within a quoted field are doubled as described
+ * in RFC 4180, so the output can be read by {@link
+ * CSVLineProcessor}.  By default, the buffered output is only written
+ * to the stream when the buffer is full or the writer is flushed,
+ * but the writer can also be flushed every given number of lines
+ * using {@link #setFlushLines}.
+ * </p>
+ * <p>
+ * An example of writing the fields of a tab-delimited file:
+ * </p>
+ * <pre>
+ * DelimitedLineWriter out = new DelimitedLineWriter(
+ * 		new FileOutputStream("out.dat"), "UTF-8", "\t");
+ * out.writeField(name);
+ * out.writeField(count);
+ * out.writeField(price, 2);
+ * out.endLine();
+ * ...
+ * out.close();
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public class DelimitedLineWriter
+{
+	/**
+	 * The constructor creates a writer using the default
+	 * encoding.
+	 *
+	 * @param out the output stream
+	 * @param delim the delimiter written between fields
+	 */
+
+	public DelimitedLineWriter(OutputStream out, String delim)
+	{
+		this(out, null, delim);
+	}
+
+	/**
+	 * The constructor creates a writer using the specified
+	 * encoding.
+	 *
+	 * @param out the output stream
+	 * @param encoding the encoding or null to use the default
+	 * 	encoding
+	 * @param delim the delimiter written between fields
+	 * @exception UnsupportedCharsetException
+	 * 	if the encoding is not supported by the JVM
+	 */
+
+	public DelimitedLineWriter(OutputStream out, String encoding,
+			String delim) throws UnsupportedCharsetException
+	{
+		if(delim == null || delim.length() == 0)
+		{
+			throw new IllegalArgumentException(
+				"delimiter must not be empty");
+		}
+
+		Charset charset = (encoding != null) ? Charset.forName(encoding)
+					: Charset.defaultCharset();
+
+		_out = out;
+		_delim = delim;
+		_encoder = charset.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		_chars = new char[BUFFER_SIZE];
+		_charbuf = CharBuffer.wrap(_chars);
+		_bytes = ByteBuffer.allocate((int)Math.ceil(BUFFER_SIZE
+					* _encoder.maxBytesPerChar()));
+	}
+
+	/**
+	 * This method writes a text field.
+	 *
+	 * @param s the text or null to write an empty field
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeField(CharSequence s) throws IOException
+	{
+		startField();
+		if(s == null)
+		{
+			if(_policy == QuotePolicy.ALWAYS)
+			{
+				append(_quote);
+				append(_quote);
+			}
+			return;
+		}
+
+		if(!needsQuotes(s))
+		{
+			append(s);
+			return;
+		}
+
+		append(_quote);
+		int len = s.length();
+		for(int i = 0; i < len; ++i)
+		{
+			char c = s.charAt(i);
+			if(c == _quote)
+				append(c);
+			append(c);
+		}
+		append(_quote);
+	}
+
+	/**
+	 * This method writes an integer field.
+	 *
+	 * @param value the value
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeField(int value) throws IOException
+	{
+		writeField((long)value);
+	}
+
+	/**
+	 * This method writes a long integer field.
+	 *
+	 * @param value the value
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeField(long value) throws IOException
+	{
+		startField();
+		appendLong(value);
+	}
+
+	/**
+	 * This method writes a double field in the format used by
+	 * Double.toString.
+	 *
+	 * @param value the value
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeField(double value) throws IOException
+	{
+		startField();
+		append(Double.toString(value));
+	}
+
+	/**
+	 * This method writes a double field rounded half up to the
+	 * specified number of decimal places.  Values which are too
+	 * large to be formatted directly are formatted using
+	 * BigDecimal, and values which are not numbers or are infinite
+	 * are written in the format used by Double.toString.
+	 *
+	 * @param value the value
+	 * @param decimals the number of decimal places
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeField(double value, int decimals) throws IOException
+	{
+		if(decimals < 0 || decimals >= POWERS.length)
+		{
+			throw new IllegalArgumentException(
+				"decimal places must be between 0 and "
+				+ (POWERS.length - 1) + ": " + decimals);
+		}
+
+		startField();
+		if(Double.isNaN(value) || Double.isInfinite(value))
+		{
+			append(Double.toString(value));
+			return;
+		}
+
+		double scaled = Math.abs(value) * POWERS[decimals];
+		if(scaled >= MAX_SCALED)
+		{
+			append(new BigDecimal(value).setScale(decimals,
+					RoundingMode.HALF_UP).toPlainString());
+			return;
+		}
+
+		long units = Math.round(scaled);
+		if(value < 0 && units != 0)
+			append('-');
+
+		long pow = (long)POWERS[decimals];
+		appendLong(units / pow);
+		if(decimals == 0)
+			return;
+
+		append('.');
+		if(_len + decimals > _chars.length)
+			drain();
+
+		long frac = units % pow;
+		for(int i = _len + decimals - 1; i >= _len; --i)
+		{
+			_chars[i] = (char)('0' + frac % 10);
+			frac /= 10;
+		}
+		_len += decimals;
+	}
+
+	/**
+	 * This method writes each of the fields as a text field.
+	 *
+	 * @param fields the fields
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeFields(DelimitedFields fields) throws IOException
+	{
+		int size = fields.size();
+		for(int i = 0; i < size; ++i)
+		{
+			writeField(fields.getField(i));
+		}
+	}
+
+	/**
+	 * This method writes a complete line containing the items of
+	 * the list.  Integer and Long items are written as integers
+	 * and other items are written as text using their toString
+	 * method.  Null items are written as empty fields.
+	 *
+	 * @param items the items
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void writeLine(List items) throws IOException
+	{
+		for(Iterator i = items.iterator(); i.hasNext(); )
+		{
+			Object item = i.next();
+			if(item instanceof Integer || item instanceof Long)
+				writeField(((Number)item).longValue());
+			else if(item instanceof CharSequence)
+				writeField((CharSequence)item);
+			else if(item != null)
+				writeField(item.toString());
+			else
+				writeField((CharSequence)null);
+		}
+		endLine();
+	}
+
+	/**
+	 * This method ends the current line.
+	 *
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void endLine() throws IOException
+	{
+		append(_separator);
+		_fields = 0;
+		++_lines;
+
+		if(_flushLines > 0 && _lines % _flushLines == 0)
+			flush();
+	}
+
+	/**
+	 * This method writes any buffered output to the stream and
+	 * flushes the stream.
+	 *
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void flush() throws IOException
+	{
+		drain();
+		_out.flush();
+	}
+
+	/**
+	 * This method writes any buffered output to the stream and
+	 * closes the stream.
+	 *
+	 * @exception IOException
+	 * 	if there was an error writing to the stream
+	 */
+
+	public void close() throws IOException
+	{
+		try
+		{
+			drain();
+			_charbuf.limit(_len);
+			_charbuf.position(0);
+			_encoder.encode(_charbuf, _bytes, true);
+			_encoder.flush(_bytes);
+			writeBytes();
+			_len = 0;
+			_out.flush();
+		}
+		finally
+		{
+			_out.close();
+		}
+	}
+
+	/**
+	 * This method returns the number of lines written.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getLineCount()
+	{
+		return _lines;
+	}
+
+	/**
+	 * This method returns the delimiter written between fields.
+	 *
+	 * @return the delimiter
+	 */
+
+	public String getDelimiter()
+	{
+		return _delim;
+	}
+
+	/**
+	 * This method sets when text fields are quoted.  The default
+	 * is {@link QuotePolicy#AS_NEEDED}.
+	 *
+	 * @param policy the quote policy
+	 */
+
+	public void setQuotePolicy(QuotePolicy policy)
+	{
+		if(policy == null)
+		{
+			throw new IllegalArgumentException(
+				"quote policy must not be null");
+		}
+
+		_policy = policy;
+	}
+
+	/**
+	 * This method returns when text fields are quoted.
+	 *
+	 * @return the quote policy
+	 */
+
+	public QuotePolicy getQuotePolicy()
+	{
+		return _policy;
+	}
+
+	/**
+	 * This method sets the character used to quote fields.
+	 *
+	 * @param quote the quote character
+	 */
+
+	public void setQuoteChar(char quote)
+	{
+		_quote = quote;
+	}
+
+	/**
+	 * This method returns the character used to quote fields.
+	 *
+	 * @return the quote character
+	 */
+
+	public char getQuoteChar()
+	{
+		return _quote;
+	}
+
+	/**
+	 * This method sets the characters written at the end of each
+	 * line.  The default is the line separator of the platform.
+	 *
+	 * @param separator the line separator
+	 */
+
+	public void setLineSeparator(String separator)
+	{
+		_separator = separator;
+	}
+
+	/**
+	 * This method returns the characters written at the end of
+	 * each line.
+	 *
+	 * @return the line separator
+	 */
+
+	public String getLineSeparator()
+	{
+		return _separator;
+	}
+
+	/**
+	 * This method sets how often the writer is flushed.  If the
+	 * number of lines is greater than zero, the writer is flushed
+	 * whenever that many lines have been written.  Otherwise,
+	 * output is only written to the stream when the buffer is full
+	 * or the writer is explicitly flushed.
+	 *
+	 * @param lines the number of lines between flushes or 0
+	 */
+
+	public void setFlushLines(int lines)
+	{
+		_flushLines = lines;
+	}
+
+	/**
+	 * This method returns how often the writer is flushed.
+	 *
+	 * @return the number of lines between flushes or 0
+	 */
+
+	public int getFlushLines()
+	{
+		return _flushLines;
+	}
+
+	/**
+	 * This method writes the delimiter if the field is not the
+	 * first on the line.
+	 */
+
+	private void startField() throws IOException
+	{
+		if(_fields++ > 0)
+			append(_delim);
+	}
+
+	/**
+	 * This method indicates if the text must be quoted.
+	 *
+	 * @param s the text
+	 * @return true if the text must be quoted
+	 */
+
+	private boolean needsQuotes(CharSequence s)
+	{
+		if(_policy == QuotePolicy.NEVER)
+			return false;
+		if(_policy == QuotePolicy.ALWAYS)
+			return true;
+
+		char delim = _delim.charAt(0);
+		int dlen = _delim.length();
+		int len = s.length();
+		for(int i = 0; i < len; ++i)
+		{
+			char c = s.charAt(i);
+			if(c == _quote || c == '\r' || c == '\n')
+				return true;
+
+			if(c == delim && i + dlen <= len)
+			{
+				int j = 1;
+				while(j < dlen && s.charAt(i + j) == _delim.charAt(j))
+					++j;
+				if(j == dlen)
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * This method appends a character to the buffer.
+	 *
+	 * @param c the character
+	 */
+
+	private void append(char c) throws IOException
+	{
+		if(_len == _chars.length)
+			drain();
+
+		_chars[_len++] = c;
+	}
+
+	/**
+	 * This method appends the text to the buffer.
+	 *
+	 * @param s the text
+	 */
+
+	private void append(CharSequence s) throws IOException
+	{
+		int len = s.length();
+		int start = 0;
+		while(start < len)
+		{
+			if(_len == _chars.length)
+				drain();
+
+			int n = Math.min(len - start, _chars.length - _len);
+			if(s instanceof String)
+			{
+				((String)s).getChars(start, start + n, _chars, _len);
+			}
+			else
+			{
+				for(int i = 0; i < n; ++i)
+				{
+					_chars[_len + i] = s.charAt(start + i);
+				}
+			}
+			_len += n;
+			start += n;
+		}
+	}
+
+	/**
+	 * This method appends the decimal digits of the value to the
+	 * buffer.
+	 *
+	 * @param value the value
+	 */
+
+	private void appendLong(long value) throws IOException
+	{
+		if(value == Long.MIN_VALUE)
+		{
+			append("-9223372036854775808");
+			return;
+		}
+
+		if(_len + 20 > _chars.length)
+			drain();
+
+		if(value < 0)
+		{
+			_chars[_len++] = '-';
+			value = -value;
+		}
+
+		int digits = 1;
+		for(long v = value; v >= 10; v /= 10)
+			++digits;
+
+		for(int i = _len + digits - 1; i >= _len; --i)
+		{
+			_chars[i] = (char)('0' + value % 10);
+			value /= 10;
+		}
+		_len += digits;
+	}
+
+	/**
+	 * This method encodes the buffered characters and writes them
+	 * to the stream.  A high surrogate at the end of the buffer is
+	 * kept until the rest of the character has been appended.
+	 */
+
+	private void drain() throws IOException
+	{
+		_charbuf.limit(_len);
+		_charbuf.position(0);
+		while(true)
+		{
+			CoderResult cr = _encoder.encode(_charbuf, _bytes, false);
+			writeBytes();
+			if(cr.isUnderflow())
+				break;
+			if(cr.isError())
+				cr.throwException();
+		}
+
+		int left = _charbuf.remaining();
+		System.arraycopy(_chars, _charbuf.position(), _chars, 0, left);
+		_len = left;
+	}
+
+	/**
+	 * This method writes the encoded bytes to the stream.
+	 */
+
+	private void writeBytes() throws IOException
+	{
+		_out.write(_bytes.array(), 0, _bytes.position());
+		_bytes.clear();
+	}
+
+	/** the number of characters buffered before encoding */
+	private static final int	BUFFER_SIZE = 8192;
+
+	/** the powers of ten for each supported number of decimals */
+	private static final double[]	POWERS = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+		1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+
+	/** the largest scaled value which is formatted directly */
+	private static final double	MAX_SCALED = 1e15;
+
+	/** the output stream */
+	private final OutputStream	_out;
+
+	/** the delimiter */
+	private final String		_delim;
+
+	/** the encoder for the character encoding */
+	private final CharsetEncoder	_encoder;
+
+	/** the character buffer */
+	private final char[]		_chars;
+
+	/** the character buffer wrapped for the encoder */
+	private final CharBuffer	_charbuf;
+
+	/** the buffer for the encoded bytes */
+	private final ByteBuffer	_bytes;
+
+	/** the number of characters in the buffer */
+	private int			_len = 0;
+
+	/** the number of fields written on the current line */
+	private int			_fields = 0;
+
+	/** the number of lines written */
+	private long			_lines = 0;
+
+	/** the quote policy */
+	private QuotePolicy		_policy = QuotePolicy.AS_NEEDED;
+
+	/** the quote character */
+	private char			_quote = '"';
+
+	/** the line separator */
+	private String			_separator =
+				System.getProperty("line.separator");
+
+	/** the number of lines between flushes */
+	private int			_flushLines = 0;
+}
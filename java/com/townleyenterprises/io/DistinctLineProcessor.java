@@ -0,0 +1,267 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DistinctLineProcessor.java
+// Created:	Sun Oct 18 07:03:36 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+/**
+ * This class passes the first line with each key to another line
+ * processor and drops the lines which repeat a key.  The key is the
+ * value of one or more columns, or the whole line if no key columns
+ * are given.  Empty lines have no fields and are dropped.
+ * <p>
+ * The keys seen are recorded in a Bloom filter sized for the
+ * expected number of keys and in an exact set held outside of the
+ * Java heap.  A key which the Bloom filter has not seen is new and is
+ * added to the set without searching it, so the set is only searched
+ * for repeated keys and the occasional false positive.  The heap
+ * used is therefore fixed by the size of the Bloom filter no matter
+ * how many keys are seen, while the direct memory used by the set
+ * grows with the number and length of the keys.
+ * </p>
+ * <p>
+ * Since the first line with a key must be seen before any of its
+ * repeats, a file must be processed by a single instance and the
+ * results of several instances cannot be merged.
+ * </p>
+ * <pre>
+ * LineProcessor lp = new DistinctLineProcessor("|", new int[] { 0 },
+ * 		next, 500000000L);
+ * fp.processFile(lp);
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public class DistinctLineProcessor extends DelimitedFieldProcessor
+{
+	/**
+	 * The constructor initializes the processor with the default
+	 * false positive rate.
+	 *
+	 * @param delim the delimiter
+	 * @param keys the indexes of the key columns or null to use the
+	 * 	whole line as the key
+	 * @param lp the processor receiving the distinct lines
+	 * @param expected the expected number of distinct keys
+	 */
+
+	public DistinctLineProcessor(String delim, int[] keys,
+			LineProcessor lp, long expected)
+	{
+		this(delim, keys, lp, expected, DEFAULT_FALSE_POSITIVE_RATE);
+	}
+
+	/**
+	 * The constructor initializes the processor.
+	 *
+	 * @param delim the delimiter
+	 * @param keys the indexes of the key columns or null to use the
+	 * 	whole line as the key
+	 * @param lp the processor receiving the distinct lines
+	 * @param expected the expected number of distinct keys
+	 * @param fpp the false positive rate of the Bloom filter when
+	 * 	it holds the expected number of keys
+	 */
+
+	public DistinctLineProcessor(String delim, int[] keys,
+			LineProcessor lp, long expected, double fpp)
+	{
+		// only the first column is needed to find the end of a
+		// line without key columns
+		super(delim, keys == null ? new int[] { 0 } : keys);
+		if(keys != null && keys.length == 0)
+		{
+			throw new IllegalArgumentException(
+				"key columns must not be empty");
+		}
+		if(lp == null)
+		{
+			throw new IllegalArgumentException(
+				"line processor must not be null");
+		}
+
+		_keys = (keys == null ? null : (int[])keys.clone());
+		_processor = lp;
+		_filter = new BloomFilter(expected, fpp);
+	}
+
+	public void processFields(DelimitedFields fields) throws Exception
+	{
+		long h = KeySet.hash(fields, _keys);
+		boolean seen = !_filter.put(h);
+		if(seen && !_set.add(fields, _keys, h, true))
+		{
+			++_duplicates;
+			return;
+		}
+		if(!seen)
+		{
+			_set.add(fields, _keys, h, false);
+		}
+
+		_processor.processLine(fields.getText().toString());
+	}
+
+	/**
+	 * This method forgets all of the keys seen and resets the
+	 * processor receiving the distinct lines.
+	 */
+
+	public void reset()
+	{
+		super.reset();
+		_filter.clear();
+		_set.clear();
+		_duplicates = 0;
+		_processor.reset();
+	}
+
+	/**
+	 * This method passes the end of the input on to the processor
+	 * receiving the distinct lines.
+	 *
+	 * @exception Exception
+	 * 	if the processor throws an exception
+	 */
+
+	public void endOfInput() throws Exception
+	{
+		super.endOfInput();
+		if(_processor instanceof AbstractLineProcessor)
+			((AbstractLineProcessor)_processor).endOfInput();
+	}
+
+	/**
+	 * This method returns false because lines passed on by one
+	 * instance may repeat the keys of lines passed on by another.
+	 *
+	 * @return false
+	 */
+
+	public boolean isMergeable()
+	{
+		return false;
+	}
+
+	/**
+	 * This method always throws an exception because lines passed
+	 * on by one instance may repeat the keys of lines passed on by
+	 * another.
+	 *
+	 * @param lp the processor to merge
+	 * @exception UnsupportedOperationException
+	 * 	always
+	 */
+
+	public void merge(LineProcessor lp) throws Exception
+	{
+		throw new UnsupportedOperationException(
+			"distinct line processors cannot be merged");
+	}
+
+	/**
+	 * This method returns the processor receiving the distinct
+	 * lines.
+	 *
+	 * @return the processor
+	 */
+
+	public LineProcessor getLineProcessor()
+	{
+		return _processor;
+	}
+
+	/**
+	 * This method returns the number of distinct keys seen.
+	 *
+	 * @return the number of keys
+	 */
+
+	public long getDistinctCount()
+	{
+		return _set.size();
+	}
+
+	/**
+	 * This method returns the number of lines dropped because
+	 * their key had already been seen.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getDuplicateCount()
+	{
+		return _duplicates;
+	}
+
+	/**
+	 * This method returns the approximate number of bytes used by
+	 * the Bloom filter on the heap and by the set of keys in
+	 * direct memory.
+	 *
+	 * @return the number of bytes
+	 */
+
+	public long getMemoryUsage()
+	{
+		return _filter.getMemoryUsage() + _set.getMemoryUsage();
+	}
+
+	/** the default false positive rate of the Bloom filter */
+	public static final double	DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+	/** the key columns */
+	private final int[]		_keys;
+
+	/** the processor receiving the distinct lines */
+	private final LineProcessor	_processor;
+
+	/** the Bloom filter of the key hashes */
+	private final BloomFilter	_filter;
+
+	/** the keys seen */
+	private final KeySet		_set = new KeySet();
+
+	/** the number of lines dropped */
+	private long			_duplicates = 0;
+}
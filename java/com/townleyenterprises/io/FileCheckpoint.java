@@ -0,0 +1,265 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FileCheckpoint.java
+// Created:	Sun Oct 18 06:42:25 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Properties;
+
+/**
+ * This class records how far a file has been processed so that
+ * processing can be resumed from that point.  The checkpoint consists
+ * of the byte offset of the next line to be processed, the number of
+ * lines processed before it and, where the platform supports it, a
+ * key identifying the file so that a replaced file can be detected.
+ * <p>
+ * Checkpoints are stored as a small properties file.  The new
+ * contents are written to a temporary file and synchronized to the
+ * disk before the temporary file is renamed, so a checkpoint file is
+ * never left partially written.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class FileCheckpoint
+{
+	/**
+	 * The constructor initializes the checkpoint.
+	 *
+	 * @param offset the offset of the next line to process
+	 * @param lines the number of lines processed
+	 * @param key the file key or null if it is not known
+	 */
+
+	public FileCheckpoint(long offset, long lines, String key)
+	{
+		_offset = offset;
+		_lines = lines;
+		_key = key;
+	}
+
+	/**
+	 * This method returns the offset of the next line to be
+	 * processed.
+	 *
+	 * @return the byte offset
+	 */
+
+	public long getOffset()
+	{
+		return _offset;
+	}
+
+	/**
+	 * This method returns the number of lines processed before
+	 * the offset.
+	 *
+	 * @return the line count
+	 */
+
+	public long getLineCount()
+	{
+		return _lines;
+	}
+
+	/**
+	 * This method returns the key identifying the file which was
+	 * being processed.
+	 *
+	 * @return the key or null if it is not known
+	 */
+
+	public String getFileKey()
+	{
+		return _key;
+	}
+
+	public String toString()
+	{
+		return "offset=" + _offset + ", lines=" + _lines
+			+ ", key=" + _key;
+	}
+
+	/**
+	 * This method reads a checkpoint from a file.
+	 *
+	 * @param file the checkpoint file
+	 * @return the checkpoint or null if the file does not exist
+	 * @exception IOException
+	 * 	if the file cannot be read or is invalid
+	 */
+
+	public static FileCheckpoint load(File file) throws IOException
+	{
+		if(!file.exists())
+			return null;
+
+		Properties props = new Properties();
+		InputStream in = new FileInputStream(file);
+		try
+		{
+			props.load(in);
+		}
+		finally
+		{
+			in.close();
+		}
+
+		try
+		{
+			return new FileCheckpoint(
+				Long.parseLong(props.getProperty(OFFSET)),
+				Long.parseLong(props.getProperty(LINES)),
+				props.getProperty(KEY));
+		}
+		catch(NumberFormatException e)
+		{
+			throw new IOException("invalid checkpoint file "
+					+ file + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * This method durably writes the checkpoint to a file.
+	 *
+	 * @param file the checkpoint file
+	 * @exception IOException
+	 * 	if the file cannot be written
+	 */
+
+	public void store(File file) throws IOException
+	{
+		Properties props = new Properties();
+		props.setProperty(OFFSET, Long.toString(_offset));
+		props.setProperty(LINES, Long.toString(_lines));
+		if(_key != null)
+			props.setProperty(KEY, _key);
+
+		File tmp = new File(file.getPath() + ".tmp");
+		FileOutputStream out = new FileOutputStream(tmp);
+		try
+		{
+			props.store(out, null);
+			out.flush();
+			out.getFD().sync();
+		}
+		finally
+		{
+			out.close();
+		}
+
+		replaceFile(tmp, file);
+	}
+
+	/**
+	 * This method renames a completely written temporary file to
+	 * replace a file, so that readers of the file never see it
+	 * partly written.  The rename is atomic if the file system
+	 * supports it.
+	 *
+	 * @param tmp the temporary file
+	 * @param file the file to replace
+	 * @exception IOException
+	 * 	if the file cannot be renamed
+	 */
+
+	static void replaceFile(File tmp, File file) throws IOException
+	{
+		try
+		{
+			Files.move(tmp.toPath(), file.toPath(),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch(AtomicMoveNotSupportedException e)
+		{
+			// not all file systems support atomic moves
+			Files.move(tmp.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * This method returns the key which identifies the file on
+	 * the file system, e.g. the device and inode number.
+	 *
+	 * @param file the file
+	 * @return the key or null if it is not available
+	 */
+
+	static String getFileKey(File file)
+	{
+		try
+		{
+			Object key = Files.readAttributes(file.toPath(),
+				BasicFileAttributes.class).fileKey();
+			return (key == null) ? null : key.toString();
+		}
+		catch(IOException e)
+		{
+			return null;
+		}
+	}
+
+	private static final String	OFFSET = "offset";
+	private static final String	LINES = "lines";
+	private static final String	KEY = "key";
+
+	/** the offset of the next line */
+	private final long		_offset;
+
+	/** the number of lines processed */
+	private final long		_lines;
+
+	/** the key identifying the file */
+	private final String		_key;
+}
@@ -0,0 +1,175 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FileResult.java
+// Created:	Sun Oct 18 06:51:16 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+
+/**
+ * This class records the outcome of processing one of the files
+ * processed by {@link TextFileProcessor#processFiles}.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class FileResult
+{
+	/**
+	 * The constructor initializes the result before the file is
+	 * processed.
+	 *
+	 * @param file the file
+	 * @param lp the processor for the file
+	 */
+
+	FileResult(File file, LineProcessor lp)
+	{
+		_file = file;
+		_lp = lp;
+		_bytes = file.length();
+	}
+
+	/**
+	 * This method returns the file.
+	 *
+	 * @return the file
+	 */
+
+	public File getFile()
+	{
+		return _file;
+	}
+
+	/**
+	 * This method returns the processor used for the file.
+	 *
+	 * @return the LineProcessor
+	 */
+
+	public LineProcessor getLineProcessor()
+	{
+		return _lp;
+	}
+
+	/**
+	 * This method returns the number of lines processed.  If an
+	 * error occurred, the count is zero.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getLineCount()
+	{
+		return _lines;
+	}
+
+	/**
+	 * This method returns the size of the file in bytes.
+	 *
+	 * @return the number of bytes
+	 */
+
+	public long getByteCount()
+	{
+		return _bytes;
+	}
+
+	/**
+	 * This method returns the error which stopped the processing
+	 * of the file.
+	 *
+	 * @return the error or null if the file was processed
+	 * 	successfully
+	 */
+
+	public Exception getError()
+	{
+		return _error;
+	}
+
+	public String toString()
+	{
+		StringBuffer buf = new StringBuffer(_file.getPath());
+		buf.append(": ");
+		buf.append(_lines);
+		buf.append(" lines, ");
+		buf.append(_bytes);
+		buf.append(" bytes");
+		if(_error != null)
+		{
+			buf.append(", error: ");
+			buf.append(_error);
+		}
+
+		return buf.toString();
+	}
+
+	/**
+	 * This method records the outcome once the file has been
+	 * processed.
+	 *
+	 * @param lines the number of lines processed
+	 * @param error the error or null
+	 */
+
+	void finish(long lines, Exception error)
+	{
+		_lines = lines;
+		_error = error;
+	}
+
+	/** the file */
+	private final File		_file;
+
+	/** the processor for the file */
+	private final LineProcessor	_lp;
+
+	/** the size of the file */
+	private final long		_bytes;
+
+	/** the number of lines processed */
+	private long			_lines = 0;
+
+	/** the error which stopped processing */
+	private Exception		_error = null;
+}
@@ -0,0 +1,491 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FileStatistics.java
+// Created:	Sun Oct 18 07:12:11 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class provides the size, number of lines and length of the
+ * longest line of a text file, along with an estimate of the number
+ * of fields in each line of a delimited file.  The statistics are
+ * gathered by scanning the bytes of the memory-mapped file without
+ * decoding any characters, with segments of the file scanned in
+ * parallel, so they are much cheaper to obtain than by processing
+ * the file with {@link TextFileProcessor}.
+ * <p>
+ * Lines are terminated in the same way as by {@link
+ * TextFileProcessor}:  by a line feed, a carriage return, or a
+ * carriage return followed by a line feed.  Since only bytes are
+ * examined, the file must use an encoding such as ASCII, ISO-8859-1
+ * or UTF-8 in which the line terminators and the delimiter are single
+ * bytes, and line lengths are given in bytes.  The number of fields
+ * is an estimate because delimiters inside quoted fields are
+ * counted.
+ * </p>
+ * <pre>
+ * FileStatistics stats = FileStatistics.scan("extract.txt", "|", 4);
+ * int capacity = (int)stats.getLongestLine();
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class FileStatistics
+{
+	private FileStatistics(File file)
+	{
+		_file = file;
+	}
+
+	/**
+	 * This method scans a file using a thread for each processor
+	 * without counting fields.
+	 *
+	 * @param filename the name of the file
+	 * @return the statistics
+	 * @exception IOException
+	 * 	if the file cannot be read or is compressed
+	 * @exception Exception
+	 * 	if the scan was interrupted
+	 */
+
+	public static FileStatistics scan(String filename)
+			throws IOException, Exception
+	{
+		return scan(filename, null,
+			Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * This method scans a file.
+	 *
+	 * @param filename the name of the file
+	 * @param delim the delimiter, which must be a single ASCII
+	 * 	character, or null if the fields should not be counted
+	 * @param threads the number of threads to use
+	 * @return the statistics
+	 * @exception IOException
+	 * 	if the file cannot be read or is compressed
+	 * @exception Exception
+	 * 	if the scan was interrupted
+	 */
+
+	public static FileStatistics scan(String filename, String delim,
+			int threads) throws IOException, Exception
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException(
+				"thread count must be positive: " + threads);
+		}
+
+		if(delim != null && (delim.length() != 1
+				|| delim.charAt(0) >= 0x80))
+		{
+			throw new IllegalArgumentException(
+				"delimiter must be a single ASCII character: "
+				+ delim);
+		}
+
+		FileStatistics stats = new FileStatistics(new File(filename));
+		RandomAccessFile raf = new RandomAccessFile(filename, "r");
+		ExecutorService pool = null;
+		try
+		{
+			final FileChannel channel = raf.getChannel();
+			final long size = channel.size();
+			if(BlockGzipInputStream.isGzip(channel, 0))
+			{
+				throw new IOException("cannot scan compressed file "
+						+ filename);
+			}
+
+			long segment = Math.max(MIN_SEGMENT_SIZE,
+					(size + threads - 1) / threads);
+			segment = Math.min(segment, MAX_SEGMENT_SIZE);
+			int count = (int)((size + segment - 1) / segment);
+
+			final byte d = (delim == null ? 0 : (byte)delim.charAt(0));
+			final boolean fields = (delim != null);
+			List futures = new ArrayList();
+			if(count > 1 && threads > 1)
+				pool = Executors.newFixedThreadPool(
+						Math.min(threads, count));
+			for(int i = 0; i < count; ++i)
+			{
+				final long start = i * segment;
+				final long end = Math.min(size, start + segment);
+				Callable task = new Callable() {
+					public Object call() throws Exception
+					{
+						return scanSegment(channel, start, end,
+							d, fields);
+					}
+				};
+
+				if(pool != null)
+					futures.add(pool.submit(task));
+				else
+					stats.add((Segment)task.call());
+			}
+
+			for(int i = 0; i < futures.size(); ++i)
+			{
+				stats.add((Segment)TextFileProcessor.getResult(
+						(Future)futures.get(i)));
+			}
+			stats.finish(size, fields);
+		}
+		finally
+		{
+			if(pool != null)
+				pool.shutdown();
+
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+
+		return stats;
+	}
+
+	/**
+	 * This method returns the file.
+	 *
+	 * @return the file
+	 */
+
+	public File getFile()
+	{
+		return _file;
+	}
+
+	/**
+	 * This method returns the size of the file.
+	 *
+	 * @return the number of bytes
+	 */
+
+	public long getByteCount()
+	{
+		return _bytes;
+	}
+
+	/**
+	 * This method returns the number of lines, including empty
+	 * lines.  A final line without a terminator is counted.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getLineCount()
+	{
+		return _lines;
+	}
+
+	/**
+	 * This method returns the number of empty lines.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getEmptyLineCount()
+	{
+		return _empty;
+	}
+
+	/**
+	 * This method returns the length of the longest line,
+	 * excluding the line terminator.
+	 *
+	 * @return the number of bytes
+	 */
+
+	public long getLongestLine()
+	{
+		return _longest;
+	}
+
+	/**
+	 * This method returns the average length of the lines,
+	 * excluding the line terminators.
+	 *
+	 * @return the number of bytes or 0 if there are no lines
+	 */
+
+	public double getAverageLineLength()
+	{
+		if(_lines == 0)
+			return 0;
+
+		return (double)_content / _lines;
+	}
+
+	/**
+	 * This method returns the estimated average number of fields
+	 * in the lines which are not empty.
+	 *
+	 * @return the number of fields, 0 if all lines are empty or
+	 * 	NaN if the fields were not counted
+	 */
+
+	public double getAverageFieldCount()
+	{
+		if(_delimiters < 0)
+			return Double.NaN;
+		if(_lines == _empty)
+			return 0;
+
+		return 1 + (double)_delimiters / (_lines - _empty);
+	}
+
+	public String toString()
+	{
+		StringBuffer buf = new StringBuffer(_file.getPath());
+		buf.append(": ");
+		buf.append(_bytes);
+		buf.append(" bytes; ");
+		buf.append(_lines);
+		buf.append(" lines; longest ");
+		buf.append(_longest);
+		if(_delimiters >= 0)
+		{
+			buf.append("; fields ");
+			buf.append(getAverageFieldCount());
+		}
+
+		return buf.toString();
+	}
+
+	/**
+	 * This method scans a segment of the file.
+	 */
+
+	private static Segment scanSegment(FileChannel channel, long start,
+			long end, byte delim, boolean fields) throws IOException
+	{
+		// the byte before the segment is mapped to find line feeds
+		// which complete a carriage return in the previous segment
+		long from = (start > 0 ? start - 1 : 0);
+		ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+					from, end - from);
+		buf.order(ByteOrder.nativeOrder());
+
+		Segment seg = new Segment();
+		seg.start = start;
+		int limit = buf.limit();
+		int pos = (int)(start - from);
+		if(start > 0 && pos < limit && buf.get(pos) == LF
+				&& buf.get(pos - 1) == CR)
+		{
+			seg.skipped = true;
+			++pos;
+		}
+
+		if(fields)
+			seg.delimiters = ByteScanner.count(buf, delim, pos, limit);
+
+		int lineStart = -1;
+		int idx = ByteScanner.indexOfLineEnd(buf, pos, limit);
+		while(idx != -1)
+		{
+			if(lineStart == -1)
+			{
+				seg.first = from + idx;
+			}
+			else
+			{
+				int len = idx - lineStart;
+				seg.longest = Math.max(seg.longest, len);
+				seg.content += len;
+				if(len == 0)
+					++seg.empty;
+			}
+			++seg.lines;
+
+			// a carriage return followed by a line feed ends
+			// one line
+			if(buf.get(idx) == CR && idx + 1 < limit
+					&& buf.get(idx + 1) == LF)
+				++idx;
+			lineStart = idx + 1;
+			idx = ByteScanner.indexOfLineEnd(buf, lineStart, limit);
+		}
+		seg.last = (lineStart == -1) ? -1 : from + lineStart;
+
+		return seg;
+	}
+
+	/**
+	 * This method adds the counts of the next segment.
+	 */
+
+	private void add(Segment seg)
+	{
+		// the line feed completed a carriage return which ended
+		// the previous segment
+		if(seg.skipped)
+			_lineStart = seg.start + 1;
+		if(seg.delimiters >= 0)
+			_delimiters = Math.max(_delimiters, 0) + seg.delimiters;
+
+		if(seg.first == -1)
+			return;
+
+		// the first line started in an earlier segment
+		long len = seg.first - _lineStart;
+		_longest = Math.max(_longest, len);
+		_content += len;
+		if(len == 0)
+			++_empty;
+
+		_lines += seg.lines;
+		_empty += seg.empty;
+		_content += seg.content;
+		_longest = Math.max(_longest, seg.longest);
+		_lineStart = seg.last;
+	}
+
+	/**
+	 * This method counts the last line if it has no terminator.
+	 */
+
+	private void finish(long size, boolean fields)
+	{
+		_bytes = size;
+		if(_lineStart < size)
+		{
+			long len = size - _lineStart;
+			++_lines;
+			_longest = Math.max(_longest, len);
+			_content += len;
+		}
+
+		if(!fields)
+			_delimiters = -1;
+	}
+
+	/**
+	 * This class holds the counts for a segment of the file.
+	 */
+
+	private static final class Segment
+	{
+		/** the position of the start of the segment */
+		long	start;
+
+		/** true if a line feed at the start was skipped */
+		boolean	skipped = false;
+
+		/** the position of the first terminator or -1 */
+		long	first = -1;
+
+		/** the position after the last terminator */
+		long	last = -1;
+
+		/** the number of terminators */
+		long	lines = 0;
+
+		/** the number of empty lines after the first terminator */
+		long	empty = 0;
+
+		/** the length of the lines after the first terminator */
+		long	content = 0;
+
+		/** the longest line after the first terminator */
+		long	longest = 0;
+
+		/** the number of delimiters */
+		long	delimiters = -1;
+	}
+
+	private static final byte	CR = (byte)'\r';
+	private static final byte	LF = (byte)'\n';
+
+	/** the smallest segment scanned by a separate thread */
+	private static final long	MIN_SEGMENT_SIZE = 1024 * 1024;
+
+	/** the largest segment mapped at once */
+	private static final long	MAX_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+	/** the file */
+	private final File		_file;
+
+	/** the size of the file */
+	private long			_bytes = 0;
+
+	/** the number of lines */
+	private long			_lines = 0;
+
+	/** the number of empty lines */
+	private long			_empty = 0;
+
+	/** the total length of the lines */
+	private long			_content = 0;
+
+	/** the length of the longest line */
+	private long			_longest = 0;
+
+	/** the number of delimiters or -1 if not counted */
+	private long			_delimiters = -1;
+
+	/** the position of the start of the current line */
+	private long			_lineStart = 0;
+}
@@ -0,0 +1,662 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	GroupTable.java
+// Created:	Sun Oct 18 06:58:00 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * This class is the hash table used by {@link
+ * AggregatingLineProcessor}.  Each group is identified by a number
+ * and all of its state is held in primitive arrays indexed by that
+ * number, so no objects are created for a group.  The text of the
+ * keys is copied into a single character array, with the values of
+ * the key columns separated by a NUL character.  The table itself
+ * is an open-addressing array of group numbers using linear probing.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class GroupTable
+{
+	/**
+	 * The constructor creates an empty table.
+	 *
+	 * @param values the number of value columns aggregated for
+	 * 	each group
+	 */
+
+	GroupTable(int values)
+	{
+		_values = values;
+		clear();
+	}
+
+	/**
+	 * This method removes all of the groups and releases the
+	 * memory used by them.
+	 */
+
+	void clear()
+	{
+		_slots = new int[INITIAL_GROUPS * 2];
+		Arrays.fill(_slots, -1);
+		_hashes = new int[INITIAL_GROUPS];
+		_starts = new int[INITIAL_GROUPS];
+		_lengths = new int[INITIAL_GROUPS];
+		_counts = new long[INITIAL_GROUPS];
+		_vcounts = new long[INITIAL_GROUPS * _values];
+		_sums = new double[INITIAL_GROUPS * _values];
+		_mins = new double[INITIAL_GROUPS * _values];
+		_maxs = new double[INITIAL_GROUPS * _values];
+		_chars = new char[INITIAL_GROUPS * 16];
+		_size = 0;
+		_used = 0;
+	}
+
+	/**
+	 * This method returns the number of groups.
+	 *
+	 * @return the number of groups
+	 */
+
+	int size()
+	{
+		return _size;
+	}
+
+	/**
+	 * This method returns the approximate number of bytes used by
+	 * the table.
+	 *
+	 * @return the number of bytes
+	 */
+
+	long getMemoryUsage()
+	{
+		return _slots.length * 4L + _hashes.length * 20L
+			+ _vcounts.length * 32L + _chars.length * 2L;
+	}
+
+	/**
+	 * This method calculates the hash of the key columns of a
+	 * line.
+	 *
+	 * @param fields the fields of the line
+	 * @param keys the key columns
+	 * @return the hash
+	 */
+
+	static int hash(DelimitedFields fields, int[] keys)
+	{
+		CharSequence text = fields.getText();
+		int h = 0;
+		for(int i = 0; i < keys.length; ++i)
+		{
+			if(i > 0)
+				h = 31 * h + SEPARATOR;
+			if(keys[i] >= fields.size())
+				continue;
+
+			int end = fields.getEnd(keys[i]);
+			for(int j = fields.getStart(keys[i]); j < end; ++j)
+			{
+				h = 31 * h + text.charAt(j);
+			}
+		}
+
+		return mix(h);
+	}
+
+	/**
+	 * This method calculates the hash of a key.
+	 *
+	 * @param key the characters of the key
+	 * @param off the index of the first character
+	 * @param len the number of characters
+	 * @return the hash
+	 */
+
+	static int hash(char[] key, int off, int len)
+	{
+		int h = 0;
+		for(int i = off; i < off + len; ++i)
+		{
+			h = 31 * h + key[i];
+		}
+
+		return mix(h);
+	}
+
+	/**
+	 * This method returns the number of the group for the key
+	 * columns of a line, creating the group if necessary.
+	 *
+	 * @param fields the fields of the line
+	 * @param keys the key columns
+	 * @param h the hash of the key
+	 * @return the group number
+	 */
+
+	int find(DelimitedFields fields, int[] keys, int h)
+	{
+		int mask = _slots.length - 1;
+		int slot = h & mask;
+		while(true)
+		{
+			int g = _slots[slot];
+			if(g == -1)
+				break;
+			if(_hashes[g] == h && matches(g, fields, keys))
+				return g;
+			slot = (slot + 1) & mask;
+		}
+
+		// copy the key into the character array
+		CharSequence text = fields.getText();
+		int start = _used;
+		for(int i = 0; i < keys.length; ++i)
+		{
+			if(i > 0)
+				appendChar(SEPARATOR);
+			if(keys[i] >= fields.size())
+				continue;
+
+			int end = fields.getEnd(keys[i]);
+			for(int j = fields.getStart(keys[i]); j < end; ++j)
+			{
+				appendChar(text.charAt(j));
+			}
+		}
+
+		return insert(slot, h, start, _used - start);
+	}
+
+	/**
+	 * This method returns the number of the group for a key,
+	 * creating the group if necessary.
+	 *
+	 * @param key the characters of the key
+	 * @param off the index of the first character
+	 * @param len the number of characters
+	 * @param h the hash of the key
+	 * @return the group number
+	 */
+
+	int find(char[] key, int off, int len, int h)
+	{
+		int mask = _slots.length - 1;
+		int slot = h & mask;
+		while(true)
+		{
+			int g = _slots[slot];
+			if(g == -1)
+				break;
+			if(_hashes[g] == h && _lengths[g] == len)
+			{
+				int s = _starts[g];
+				int i = 0;
+				while(i < len && _chars[s + i] == key[off + i])
+					++i;
+				if(i == len)
+					return g;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int start = _used;
+		for(int i = 0; i < len; ++i)
+		{
+			appendChar(key[off + i]);
+		}
+
+		return insert(slot, h, start, len);
+	}
+
+	/**
+	 * This method adds lines to the count of a group.
+	 *
+	 * @param g the group
+	 * @param count the number of lines
+	 */
+
+	void addCount(int g, long count)
+	{
+		_counts[g] += count;
+	}
+
+	/**
+	 * This method adds a value to the aggregates of a group.
+	 *
+	 * @param g the group
+	 * @param v the value column
+	 * @param value the value
+	 */
+
+	void addValue(int g, int v, double value)
+	{
+		int i = g * _values + v;
+		if(_vcounts[i]++ == 0)
+		{
+			_mins[i] = value;
+			_maxs[i] = value;
+		}
+		else
+		{
+			if(value < _mins[i])
+				_mins[i] = value;
+			if(value > _maxs[i])
+				_maxs[i] = value;
+		}
+		_sums[i] += value;
+	}
+
+	/**
+	 * This method adds the aggregates of a group in another table
+	 * to the group with the same key in this table.
+	 *
+	 * @param table the other table
+	 * @param og the group in the other table
+	 */
+
+	void combine(GroupTable table, int og)
+	{
+		int s = table._starts[og];
+		int g = find(table._chars, s, table._lengths[og],
+				table._hashes[og]);
+		_counts[g] += table._counts[og];
+		for(int v = 0; v < _values; ++v)
+		{
+			int i = g * _values + v;
+			int oi = og * _values + v;
+			combine(i, table._vcounts[oi], table._sums[oi],
+				table._mins[oi], table._maxs[oi]);
+		}
+	}
+
+	/**
+	 * This method writes a group to a stream.
+	 *
+	 * @param out the stream
+	 * @param g the group
+	 * @exception IOException
+	 * 	if the group cannot be written
+	 */
+
+	void write(DataOutputStream out, int g) throws IOException
+	{
+		int s = _starts[g];
+		int len = _lengths[g];
+		out.writeInt(len);
+		for(int i = 0; i < len; ++i)
+		{
+			out.writeChar(_chars[s + i]);
+		}
+		out.writeLong(_counts[g]);
+		for(int v = 0; v < _values; ++v)
+		{
+			int i = g * _values + v;
+			out.writeLong(_vcounts[i]);
+			out.writeDouble(_sums[i]);
+			out.writeDouble(_mins[i]);
+			out.writeDouble(_maxs[i]);
+		}
+	}
+
+	/**
+	 * This method reads a group written by {@link #write} and
+	 * adds it to the group with the same key in this table.
+	 *
+	 * @param in the stream
+	 * @exception IOException
+	 * 	if the group cannot be read
+	 */
+
+	void read(DataInputStream in) throws IOException
+	{
+		int len = in.readInt();
+		if(_scratch.length < len)
+			_scratch = new char[len];
+		for(int i = 0; i < len; ++i)
+		{
+			_scratch[i] = in.readChar();
+		}
+
+		int g = find(_scratch, 0, len, hash(_scratch, 0, len));
+		_counts[g] += in.readLong();
+		for(int v = 0; v < _values; ++v)
+		{
+			long count = in.readLong();
+			double sum = in.readDouble();
+			double min = in.readDouble();
+			double max = in.readDouble();
+			combine(g * _values + v, count, sum, min, max);
+		}
+	}
+
+	/**
+	 * This method returns the partition of a group when the
+	 * table is spilled to disk.  The partition is taken from the
+	 * high bits of the hash since the low bits select the slot.
+	 *
+	 * @param g the group
+	 * @param partitions the number of partitions, which must be
+	 * 	a power of two
+	 * @return the partition
+	 */
+
+	int getPartition(int g, int partitions)
+	{
+		return (_hashes[g] >>> 24) & (partitions - 1);
+	}
+
+	/**
+	 * This method returns the value of a key column of a group.
+	 *
+	 * @param g the group
+	 * @param k the index of the key column
+	 * @return the value
+	 */
+
+	String getKey(int g, int k)
+	{
+		int start = _starts[g];
+		int end = start + _lengths[g];
+		for(; k > 0 && start <= end; --k)
+		{
+			while(start < end && _chars[start] != SEPARATOR)
+				++start;
+			++start;
+		}
+		if(start > end)
+			throw new IndexOutOfBoundsException(String.valueOf(k));
+
+		int stop = start;
+		while(stop < end && _chars[stop] != SEPARATOR)
+			++stop;
+
+		return new String(_chars, start, stop - start);
+	}
+
+	/**
+	 * This method returns the number of lines in a group.
+	 */
+
+	long getCount(int g)
+	{
+		return _counts[g];
+	}
+
+	/**
+	 * This method returns the number of values of a value column
+	 * in a group.
+	 */
+
+	long getValueCount(int g, int v)
+	{
+		return _vcounts[g * _values + v];
+	}
+
+	/**
+	 * This method returns the sum of a value column in a group.
+	 */
+
+	double getSum(int g, int v)
+	{
+		return _sums[g * _values + v];
+	}
+
+	/**
+	 * This method returns the minimum of a value column in a
+	 * group.
+	 */
+
+	double getMin(int g, int v)
+	{
+		return _mins[g * _values + v];
+	}
+
+	/**
+	 * This method returns the maximum of a value column in a
+	 * group.
+	 */
+
+	double getMax(int g, int v)
+	{
+		return _maxs[g * _values + v];
+	}
+
+	/**
+	 * This method compares the key columns of a line with the key
+	 * of a group.
+	 */
+
+	private boolean matches(int g, DelimitedFields fields, int[] keys)
+	{
+		CharSequence text = fields.getText();
+		int pos = _starts[g];
+		int end = pos + _lengths[g];
+		for(int i = 0; i < keys.length; ++i)
+		{
+			if(i > 0)
+			{
+				if(pos == end || _chars[pos++] != SEPARATOR)
+					return false;
+			}
+			if(keys[i] >= fields.size())
+				continue;
+
+			int fend = fields.getEnd(keys[i]);
+			for(int j = fields.getStart(keys[i]); j < fend; ++j)
+			{
+				if(pos == end || _chars[pos++] != text.charAt(j))
+					return false;
+			}
+		}
+
+		return pos == end;
+	}
+
+	/**
+	 * This method combines aggregates into a value of a group.
+	 */
+
+	private void combine(int i, long count, double sum, double min,
+			double max)
+	{
+		if(count == 0)
+			return;
+
+		if(_vcounts[i] == 0)
+		{
+			_mins[i] = min;
+			_maxs[i] = max;
+		}
+		else
+		{
+			if(min < _mins[i])
+				_mins[i] = min;
+			if(max > _maxs[i])
+				_maxs[i] = max;
+		}
+		_vcounts[i] += count;
+		_sums[i] += sum;
+	}
+
+	/**
+	 * This method adds a new group whose key has been copied to
+	 * the end of the character array.
+	 */
+
+	private int insert(int slot, int h, int start, int len)
+	{
+		if(_size == _hashes.length)
+			grow();
+
+		int g = _size++;
+		_hashes[g] = h;
+		_starts[g] = start;
+		_lengths[g] = len;
+		_slots[slot] = g;
+
+		if(_size * 2 > _slots.length)
+			rehash();
+
+		return g;
+	}
+
+	/**
+	 * This method appends a character to the text of the keys.
+	 */
+
+	private void appendChar(char c)
+	{
+		if(_used == _chars.length)
+		{
+			char[] chars = new char[_chars.length * 2];
+			System.arraycopy(_chars, 0, chars, 0, _used);
+			_chars = chars;
+		}
+		_chars[_used++] = c;
+	}
+
+	/**
+	 * This method doubles the number of groups which can be held.
+	 */
+
+	private void grow()
+	{
+		int n = _hashes.length * 2;
+		_hashes = Arrays.copyOf(_hashes, n);
+		_starts = Arrays.copyOf(_starts, n);
+		_lengths = Arrays.copyOf(_lengths, n);
+		_counts = Arrays.copyOf(_counts, n);
+		_vcounts = Arrays.copyOf(_vcounts, n * _values);
+		_sums = Arrays.copyOf(_sums, n * _values);
+		_mins = Arrays.copyOf(_mins, n * _values);
+		_maxs = Arrays.copyOf(_maxs, n * _values);
+	}
+
+	/**
+	 * This method doubles the number of slots.
+	 */
+
+	private void rehash()
+	{
+		int[] slots = new int[_slots.length * 2];
+		Arrays.fill(slots, -1);
+		int mask = slots.length - 1;
+		for(int g = 0; g < _size; ++g)
+		{
+			int slot = _hashes[g] & mask;
+			while(slots[slot] != -1)
+				slot = (slot + 1) & mask;
+			slots[slot] = g;
+		}
+		_slots = slots;
+	}
+
+	/**
+	 * This method spreads the bits of the hash so that keys which
+	 * differ only in their last characters use different slots.
+	 */
+
+	private static int mix(int h)
+	{
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		return h;
+	}
+
+	/** separates the values of the key columns */
+	static final char		SEPARATOR = '\u0000';
+
+	/** the initial number of groups */
+	private static final int	INITIAL_GROUPS = 1024;
+
+	/** the number of value columns */
+	private final int		_values;
+
+	/** the group number in each slot or -1 */
+	private int[]			_slots;
+
+	/** the hash of each group */
+	private int[]			_hashes;
+
+	/** the start of the key of each group */
+	private int[]			_starts;
+
+	/** the length of the key of each group */
+	private int[]			_lengths;
+
+	/** the number of lines in each group */
+	private long[]			_counts;
+
+	/** the number of values of each value column of each group */
+	private long[]			_vcounts;
+
+	/** the sum of each value column of each group */
+	private double[]		_sums;
+
+	/** the minimum of each value column of each group */
+	private double[]		_mins;
+
+	/** the maximum of each value column of each group */
+	private double[]		_maxs;
+
+	/** the text of the keys */
+	private char[]			_chars;
+
+	/** the number of characters used */
+	private int			_used;
+
+	/** the number of groups */
+	private int			_size;
+
+	/** the buffer used to read keys */
+	private char[]			_scratch = new char[64];
+}
@@ -0,0 +1,407 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	KeySet.java
+// Created:	Sun Oct 18 07:03:21 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a set of the keys of delimited lines which is stored
+ * outside of the Java heap.  The keys are copied into direct buffers
+ * and indexed by an open-addressing table of hashes and key
+ * references which is also held in direct buffers, so the set can
+ * grow far beyond the heap without creating objects for each key.
+ * <p>
+ * A key is the text of the key columns separated by {@link
+ * #SEPARATOR}, or the whole line if there are no key columns.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class KeySet
+{
+	/**
+	 * The constructor creates an empty set.
+	 */
+
+	KeySet()
+	{
+		clear();
+	}
+
+	/**
+	 * This method removes all of the keys and releases the memory
+	 * used by them.
+	 */
+
+	void clear()
+	{
+		_slots = allocateSlots(SLOT_PAGE);
+		_capacity = SLOT_PAGE;
+		_pages.clear();
+		_page = null;
+		_size = 0;
+	}
+
+	/**
+	 * This method returns the number of keys.
+	 *
+	 * @return the number of keys
+	 */
+
+	long size()
+	{
+		return _size;
+	}
+
+	/**
+	 * This method returns the approximate number of bytes of
+	 * direct memory used by the set.
+	 *
+	 * @return the number of bytes
+	 */
+
+	long getMemoryUsage()
+	{
+		long bytes = _capacity * SLOT_SIZE;
+		for(int i = 0; i < _pages.size(); ++i)
+		{
+			bytes += ((ByteBuffer)_pages.get(i)).capacity();
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * This method calculates the hash of the key of a line.
+	 *
+	 * @param fields the fields of the line
+	 * @param keys the key columns or null to use the whole line
+	 * @return the hash
+	 */
+
+	static long hash(DelimitedFields fields, int[] keys)
+	{
+		CharSequence text = fields.getText();
+		if(keys == null)
+			return mix(hash(FNV_BASIS, text, 0, text.length()));
+
+		long h = FNV_BASIS;
+		for(int i = 0; i < keys.length; ++i)
+		{
+			if(i > 0)
+				h = (h ^ SEPARATOR) * FNV_PRIME;
+			if(keys[i] < fields.size())
+			{
+				h = hash(h, text, fields.getStart(keys[i]),
+						fields.getEnd(keys[i]));
+			}
+		}
+
+		return mix(h);
+	}
+
+	/**
+	 * This method adds the key of a line to the set.  If the
+	 * caller knows the key is not in the set, the comparison of
+	 * keys with the same slot is skipped.
+	 *
+	 * @param fields the fields of the line
+	 * @param keys the key columns or null to use the whole line
+	 * @param h the hash of the key
+	 * @param check false if the key is known not to be in the set
+	 * @return true if the key was added or false if it was already
+	 * 	in the set
+	 */
+
+	boolean add(DelimitedFields fields, int[] keys, long h, boolean check)
+	{
+		long mask = _capacity - 1;
+		long slot = h & mask;
+		while(true)
+		{
+			ByteBuffer page = _slots[(int)(slot >>> SLOT_SHIFT)];
+			int pos = (int)(slot & (SLOT_PAGE - 1)) * SLOT_SIZE;
+			long ref = page.getLong(pos + 8);
+			if(ref == 0)
+				break;
+			if(check && page.getLong(pos) == h
+					&& matches(ref, fields, keys))
+				return false;
+			slot = (slot + 1) & mask;
+		}
+
+		long ref = store(fields, keys);
+		setSlot(_slots, slot, h, ref);
+		if(++_size * 2 > _capacity)
+			grow();
+
+		return true;
+	}
+
+	/**
+	 * This method copies a key into the key pages.
+	 *
+	 * @return the reference to the key
+	 */
+
+	private long store(DelimitedFields fields, int[] keys)
+	{
+		CharSequence text = fields.getText();
+		int len = 0;
+		if(keys == null)
+		{
+			len = text.length();
+		}
+		else
+		{
+			for(int i = 0; i < keys.length; ++i)
+			{
+				if(i > 0)
+					++len;
+				if(keys[i] < fields.size())
+					len += fields.getLength(keys[i]);
+			}
+		}
+
+		int bytes = 4 + len * 2;
+		if(_page == null || _page.remaining() < bytes)
+		{
+			_page = ByteBuffer.allocateDirect(Math.max(KEY_PAGE, bytes));
+			_pages.add(_page);
+		}
+
+		long ref = (((long)(_pages.size() - 1)) << 32 | _page.position()) + 1;
+		_page.putInt(len);
+		if(keys == null)
+		{
+			for(int j = 0; j < len; ++j)
+				_page.putChar(text.charAt(j));
+			return ref;
+		}
+
+		for(int i = 0; i < keys.length; ++i)
+		{
+			if(i > 0)
+				_page.putChar(SEPARATOR);
+			if(keys[i] >= fields.size())
+				continue;
+
+			int end = fields.getEnd(keys[i]);
+			for(int j = fields.getStart(keys[i]); j < end; ++j)
+				_page.putChar(text.charAt(j));
+		}
+
+		return ref;
+	}
+
+	/**
+	 * This method compares a stored key with the key of a line.
+	 */
+
+	private boolean matches(long ref, DelimitedFields fields, int[] keys)
+	{
+		--ref;
+		ByteBuffer page = (ByteBuffer)_pages.get((int)(ref >>> 32));
+		int pos = (int)ref;
+		int len = page.getInt(pos);
+		pos += 4;
+		int end = pos + len * 2;
+
+		CharSequence text = fields.getText();
+		if(keys == null)
+		{
+			if(len != text.length())
+				return false;
+			for(int j = 0; pos < end; ++j, pos += 2)
+			{
+				if(page.getChar(pos) != text.charAt(j))
+					return false;
+			}
+			return true;
+		}
+
+		for(int i = 0; i < keys.length; ++i)
+		{
+			if(i > 0)
+			{
+				if(pos >= end || page.getChar(pos) != SEPARATOR)
+					return false;
+				pos += 2;
+			}
+			if(keys[i] >= fields.size())
+				continue;
+
+			int fend = fields.getEnd(keys[i]);
+			for(int j = fields.getStart(keys[i]); j < fend; ++j)
+			{
+				if(pos >= end || page.getChar(pos) != text.charAt(j))
+					return false;
+				pos += 2;
+			}
+		}
+
+		return pos == end;
+	}
+
+	/**
+	 * This method doubles the number of slots and reinserts the
+	 * keys using their stored hashes.
+	 */
+
+	private void grow()
+	{
+		long capacity = _capacity * 2;
+		ByteBuffer[] slots = allocateSlots(capacity);
+		long mask = capacity - 1;
+		for(long i = 0; i < _capacity; ++i)
+		{
+			ByteBuffer page = _slots[(int)(i >>> SLOT_SHIFT)];
+			int pos = (int)(i & (SLOT_PAGE - 1)) * SLOT_SIZE;
+			long ref = page.getLong(pos + 8);
+			if(ref == 0)
+				continue;
+
+			long h = page.getLong(pos);
+			long slot = h & mask;
+			while(getRef(slots, slot) != 0)
+				slot = (slot + 1) & mask;
+			setSlot(slots, slot, h, ref);
+		}
+
+		_slots = slots;
+		_capacity = capacity;
+	}
+
+	private static ByteBuffer[] allocateSlots(long capacity)
+	{
+		ByteBuffer[] slots = new ByteBuffer[(int)(capacity >>> SLOT_SHIFT)];
+		for(int i = 0; i < slots.length; ++i)
+		{
+			// direct buffers are zeroed, which marks the slots
+			// as empty
+			slots[i] = ByteBuffer.allocateDirect(SLOT_PAGE * SLOT_SIZE);
+		}
+
+		return slots;
+	}
+
+	private static long getRef(ByteBuffer[] slots, long slot)
+	{
+		return slots[(int)(slot >>> SLOT_SHIFT)].getLong(
+				(int)(slot & (SLOT_PAGE - 1)) * SLOT_SIZE + 8);
+	}
+
+	private static void setSlot(ByteBuffer[] slots, long slot, long h,
+			long ref)
+	{
+		ByteBuffer page = slots[(int)(slot >>> SLOT_SHIFT)];
+		int pos = (int)(slot & (SLOT_PAGE - 1)) * SLOT_SIZE;
+		page.putLong(pos, h);
+		page.putLong(pos + 8, ref);
+	}
+
+	private static long hash(long h, CharSequence text, int start, int end)
+	{
+		for(int i = start; i < end; ++i)
+		{
+			h = (h ^ text.charAt(i)) * FNV_PRIME;
+		}
+
+		return h;
+	}
+
+	/**
+	 * This method spreads the bits of the hash so the low bits
+	 * can be used to select a slot.
+	 */
+
+	private static long mix(long h)
+	{
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/** the character separating the key columns */
+	static final char		SEPARATOR = '\u0000';
+
+	/** the number of slots in each slot page */
+	private static final int	SLOT_PAGE = 1 << 16;
+
+	/** the shift giving the slot page of a slot */
+	private static final int	SLOT_SHIFT = 16;
+
+	/** the number of bytes in each slot */
+	private static final int	SLOT_SIZE = 16;
+
+	/** the size of the key pages */
+	private static final int	KEY_PAGE = 1 << 20;
+
+	/** the FNV-1a offset basis */
+	private static final long	FNV_BASIS = 0xcbf29ce484222325L;
+
+	/** the FNV-1a prime */
+	private static final long	FNV_PRIME = 0x100000001b3L;
+
+	/** the pages holding the hash and key reference of each slot */
+	private ByteBuffer[]		_slots;
+
+	/** the number of slots */
+	private long			_capacity;
+
+	/** the pages holding the keys */
+	private final List		_pages = new ArrayList();
+
+	/** the page keys are being added to */
+	private ByteBuffer		_page;
+
+	/** the number of keys */
+	private long			_size;
+}
@@ -0,0 +1,324 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	LineIndex.java
+// Created:	Sun Oct 18 06:44:31 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * This class provides an index of the byte offsets of the lines in a
+ * text file which allows processing to start at any line without
+ * reading the file from the beginning.  To keep the index small, the
+ * offset is only recorded for every <em>stride</em> lines.  To find
+ * an arbitrary line, the reader starts at the nearest indexed line
+ * before it and skips the remaining lines by scanning for line
+ * terminators without decoding them.
+ * <p>
+ * Indexes are built by {@link TextFileProcessor} and can be stored
+ * in a sidecar file next to the text file.  The length and
+ * modification time of the text file are recorded in the index so
+ * that an index which no longer matches the file can be detected by
+ * {@link #isCurrent}.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public final class LineIndex
+{
+	/**
+	 * The constructor creates an empty index which will record
+	 * the offset of every stride lines.
+	 *
+	 * @param stride the number of lines between recorded offsets
+	 */
+
+	LineIndex(int stride)
+	{
+		if(stride < 1)
+		{
+			throw new IllegalArgumentException(
+				"stride must be positive: " + stride);
+		}
+
+		_stride = stride;
+		_offsets = new long[64];
+	}
+
+	/**
+	 * This method returns the number of lines between recorded
+	 * offsets.
+	 *
+	 * @return the stride
+	 */
+
+	public int getStride()
+	{
+		return _stride;
+	}
+
+	/**
+	 * This method returns the number of lines in the file.
+	 *
+	 * @return the line count
+	 */
+
+	public long getLineCount()
+	{
+		return _lines;
+	}
+
+	/**
+	 * This method returns the number of the nearest line at or
+	 * before the specified line for which the offset is recorded.
+	 *
+	 * @param line the zero-based line number
+	 * @return the line number of the indexed line
+	 */
+
+	public long getIndexedLine(long line)
+	{
+		if(line <= 0 || _count == 0)
+			return 0;
+
+		long idx = Math.min(line / _stride, _count - 1);
+		return idx * _stride;
+	}
+
+	/**
+	 * This method returns the offset of the line returned by
+	 * {@link #getIndexedLine} for the specified line.
+	 *
+	 * @param line the zero-based line number
+	 * @return the byte offset
+	 */
+
+	public long getOffset(long line)
+	{
+		if(line <= 0 || _count == 0)
+			return 0;
+
+		return _offsets[(int)Math.min(line / _stride, _count - 1)];
+	}
+
+	/**
+	 * This method indicates if the index matches the current
+	 * length and modification time of the file.
+	 *
+	 * @param file the indexed file
+	 * @return true if the index is current; false otherwise
+	 */
+
+	public boolean isCurrent(File file)
+	{
+		return file.length() == _length
+			&& file.lastModified() == _modified;
+	}
+
+	/**
+	 * This method reads an index from a file.
+	 *
+	 * @param file the index file
+	 * @return the index or null if the file does not exist
+	 * @exception IOException
+	 * 	if the file cannot be read or is not an index
+	 */
+
+	public static LineIndex load(File file) throws IOException
+	{
+		if(!file.exists())
+			return null;
+
+		DataInputStream in = new DataInputStream(
+			new BufferedInputStream(new FileInputStream(file)));
+		try
+		{
+			if(in.readInt() != MAGIC || in.readInt() != VERSION)
+			{
+				throw new IOException(file
+						+ " is not a line index");
+			}
+
+			int stride = in.readInt();
+			long length = in.readLong();
+			long modified = in.readLong();
+			long lines = in.readLong();
+			int count = in.readInt();
+			if(stride < 1 || count < 0
+					|| count > (file.length() - HEADER_SIZE) / 8)
+			{
+				throw new IOException(file
+						+ " is not a line index");
+			}
+
+			LineIndex index = new LineIndex(stride);
+			index._length = length;
+			index._modified = modified;
+			index._lines = lines;
+			index._offsets = new long[Math.max(count, 1)];
+			for(int i = 0; i < count; ++i)
+			{
+				index._offsets[i] = in.readLong();
+			}
+			index._count = count;
+
+			return index;
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * This method writes the index to a file.  The index is
+	 * written to a temporary file which then replaces the file, so
+	 * the file is never left partly written.
+	 *
+	 * @param file the index file
+	 * @exception IOException
+	 * 	if the file cannot be written
+	 */
+
+	public void store(File file) throws IOException
+	{
+		File tmp = new File(file.getPath() + ".tmp");
+		FileOutputStream fos = new FileOutputStream(tmp);
+		DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream(fos));
+		try
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(_stride);
+			out.writeLong(_length);
+			out.writeLong(_modified);
+			out.writeLong(_lines);
+			out.writeInt(_count);
+			for(int i = 0; i < _count; ++i)
+			{
+				out.writeLong(_offsets[i]);
+			}
+			out.flush();
+			fos.getFD().sync();
+		}
+		finally
+		{
+			out.close();
+		}
+
+		FileCheckpoint.replaceFile(tmp, file);
+	}
+
+	/**
+	 * This method is called for each line of the file in order
+	 * while the index is being built.
+	 *
+	 * @param offset the offset of the start of the line
+	 */
+
+	void addLine(long offset)
+	{
+		if(_lines % _stride == 0)
+		{
+			if(_count == _offsets.length)
+			{
+				long[] offsets = new long[_count * 2];
+				System.arraycopy(_offsets, 0, offsets, 0, _count);
+				_offsets = offsets;
+			}
+			_offsets[_count++] = offset;
+		}
+		++_lines;
+	}
+
+	/**
+	 * This method is called when all of the lines have been
+	 * added to record the state of the indexed file.
+	 *
+	 * @param file the indexed file
+	 */
+
+	void finish(File file)
+	{
+		_length = file.length();
+		_modified = file.lastModified();
+	}
+
+	/** the default number of lines between recorded offsets */
+	public static final int		DEFAULT_STRIDE = 1024;
+
+	/** identifies an index file */
+	private static final int	MAGIC = 0x544c4958;
+
+	/** the version of the index file format */
+	private static final int	VERSION = 1;
+
+	/** the size of the header before the offsets */
+	private static final int	HEADER_SIZE = 40;
+
+	/** the number of lines between recorded offsets */
+	private final int		_stride;
+
+	/** the recorded offsets */
+	private long[]			_offsets;
+
+	/** the number of recorded offsets */
+	private int			_count = 0;
+
+	/** the number of lines in the file */
+	private long			_lines = 0;
+
+	/** the length of the indexed file */
+	private long			_length = -1;
+
+	/** the modification time of the indexed file */
+	private long			_modified = -1;
+}
@@ -0,0 +1,237 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	LineRing.java
+// Created:	Sun Oct 18 06:40:50 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+/**
+ * This class provides a bounded ring of pre-allocated batches of
+ * lines which is used to pass lines from a reader thread to one or
+ * more worker threads.  The reader claims the next free batch, fills
+ * it and publishes it.  Workers take the published batches in order
+ * and release them when they have been processed so that they can
+ * be filled again.  If all of the batches are in use, the reader
+ * waits until one is released, so the amount of memory used is
+ * bounded no matter how far the reader gets ahead of the workers.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class LineRing
+{
+	/**
+	 * This class holds a single batch of lines.
+	 */
+
+	static final class Batch
+	{
+		Batch(int size)
+		{
+			lines = new String[size];
+		}
+
+		/** the lines of the batch */
+		final String[]	lines;
+
+		/** the number of lines in the batch */
+		int		count = 0;
+
+		/** the state of the batch */
+		int		state = FREE;
+	}
+
+	/**
+	 * The constructor allocates the batches in the ring.
+	 *
+	 * @param batches the number of batches
+	 * @param size the number of lines in each batch
+	 */
+
+	LineRing(int batches, int size)
+	{
+		_ring = new Batch[batches];
+		for(int i = 0; i < batches; ++i)
+		{
+			_ring[i] = new Batch(size);
+		}
+	}
+
+	/**
+	 * This method claims the next batch to be filled by the
+	 * reader, waiting until it has been released by the workers
+	 * if necessary.
+	 *
+	 * @return the empty batch or null if processing has been
+	 * 	aborted
+	 * @exception InterruptedException
+	 * 	if the thread is interrupted while waiting
+	 */
+
+	synchronized Batch claim() throws InterruptedException
+	{
+		Batch b = _ring[(int)(_head % _ring.length)];
+		while(b.state != FREE && _error == null)
+		{
+			wait();
+		}
+
+		if(_error != null)
+			return null;
+
+		b.count = 0;
+		b.state = FILLING;
+		return b;
+	}
+
+	/**
+	 * This method makes a filled batch available to the workers.
+	 *
+	 * @param b the batch
+	 */
+
+	synchronized void publish(Batch b)
+	{
+		b.state = FULL;
+		++_head;
+		notifyAll();
+	}
+
+	/**
+	 * This method takes the next batch in order, waiting until
+	 * the reader has published it if necessary.
+	 *
+	 * @return the batch or null if there are no more batches
+	 * @exception InterruptedException
+	 * 	if the thread is interrupted while waiting
+	 */
+
+	synchronized Batch take() throws InterruptedException
+	{
+		while(_tail == _head && !_closed && _error == null)
+		{
+			wait();
+		}
+
+		if(_error != null || _tail == _head)
+			return null;
+
+		Batch b = _ring[(int)(_tail % _ring.length)];
+		b.state = PROCESSING;
+		++_tail;
+		return b;
+	}
+
+	/**
+	 * This method returns a processed batch to the ring.
+	 *
+	 * @param b the batch
+	 */
+
+	synchronized void release(Batch b)
+	{
+		for(int i = 0; i < b.count; ++i)
+		{
+			b.lines[i] = null;
+		}
+
+		b.count = 0;
+		b.state = FREE;
+		notifyAll();
+	}
+
+	/**
+	 * This method is called by the reader when all of the
+	 * batches have been published.
+	 */
+
+	synchronized void close()
+	{
+		_closed = true;
+		notifyAll();
+	}
+
+	/**
+	 * This method stops all of the threads using the ring
+	 * because one of them has failed.
+	 *
+	 * @param t the reason for the failure
+	 */
+
+	synchronized void abort(Throwable t)
+	{
+		if(_error == null)
+			_error = t;
+		notifyAll();
+	}
+
+	/**
+	 * This method returns the reason processing was aborted.
+	 *
+	 * @return the error or null if processing was not aborted
+	 */
+
+	synchronized Throwable getError()
+	{
+		return _error;
+	}
+
+	// batch states
+	static final int	FREE = 0;
+	static final int	FILLING = 1;
+	static final int	FULL = 2;
+	static final int	PROCESSING = 3;
+
+	/** the batches */
+	private final Batch[]	_ring;
+
+	/** the sequence number of the next batch to be claimed */
+	private long		_head = 0;
+
+	/** the sequence number of the next batch to be taken */
+	private long		_tail = 0;
+
+	/** indicates that the reader has finished */
+	private boolean		_closed = false;
+
+	/** the reason processing was aborted */
+	private Throwable	_error = null;
+}
@@ -0,0 +1,535 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	MappedLineReader.java
+// Created:	Sun Oct 18 06:32:21 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads lines of text from a region of a file by mapping
+ * windows of the file into memory and decoding each line directly
+ * from the mapped bytes.  Line terminators are located by scanning
+ * the raw bytes, so the class may only be used with character
+ * encodings where the carriage return and line feed characters are
+ * always represented by the single bytes 0x0D and 0x0A.  The {@link
+ * #isAsciiCompatible} method can be used to check this.
+ * <p>
+ * The line terminator semantics are the same as those of
+ * BufferedReader.readLine: a line is terminated by a line feed, a
+ * carriage return or a carriage return immediately followed by a line
+ * feed.
+ * </p>
+ * <p>
+ * The terminators are found by reading the mapped bytes eight at a
+ * time using {@link ByteScanner}.  For ISO-8859-1 and for lines of
+ * ASCII text in UTF-8 or US-ASCII, the line can also be accessed as
+ * an {@link AsciiText} without being decoded at all.
+ * </p>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+final class MappedLineReader
+{
+	/**
+	 * The constructor initializes the reader to read the lines in
+	 * the specified region of the file using the default window
+	 * size.
+	 *
+	 * @param channel the channel of the file
+	 * @param charset the character encoding of the file
+	 * @param start the offset of the first byte to read
+	 * @param end the offset of the byte after the last byte to
+	 * 	read
+	 */
+
+	MappedLineReader(FileChannel channel, Charset charset,
+			long start, long end)
+	{
+		this(channel, charset, start, end, DEFAULT_WINDOW);
+	}
+
+	/**
+	 * The constructor initializes the reader to read the lines in
+	 * the specified region of the file mapping at most the
+	 * specified number of bytes at once.  The window will be grown
+	 * if a single line is larger than the window.
+	 *
+	 * @param channel the channel of the file
+	 * @param charset the character encoding of the file
+	 * @param start the offset of the first byte to read
+	 * @param end the offset of the byte after the last byte to
+	 * 	read
+	 * @param window the size of the mapped window
+	 */
+
+	MappedLineReader(FileChannel channel, Charset charset,
+			long start, long end, int window)
+	{
+		_channel = channel;
+		_pos = start;
+		_end = end;
+		_window = window;
+		_decoder = charset.newDecoder();
+		_decoder.onMalformedInput(CodingErrorAction.REPLACE);
+		_decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		if(StandardCharsets.ISO_8859_1.equals(charset))
+		{
+			_direct = DIRECT_ALL;
+		}
+		else if(StandardCharsets.UTF_8.equals(charset)
+				|| StandardCharsets.US_ASCII.equals(charset))
+		{
+			_direct = DIRECT_ASCII;
+		}
+	}
+
+	/**
+	 * This method reads the next line from the file.
+	 *
+	 * @return the text of the line without the line terminator
+	 * 	or null if there are no more lines in the region
+	 * @exception IOException
+	 * 	if the file cannot be mapped
+	 */
+
+	public String readLine() throws IOException
+	{
+		CharBuffer chars = readLineChars();
+		if(chars == null)
+			return null;
+
+		return new String(chars.array(), 0, chars.limit());
+	}
+
+	/**
+	 * This method reads the next line from the file into a buffer
+	 * which is reused by the reader.  The contents of the buffer
+	 * are only valid until the next line is read.
+	 *
+	 * @return the buffer containing the text of the line or null
+	 * 	if there are no more lines in the region
+	 * @exception IOException
+	 * 	if the file cannot be mapped
+	 */
+
+	public CharBuffer readLineChars() throws IOException
+	{
+		if(!nextLine())
+			return null;
+
+		int max = getMaxLineChars();
+		if(_chars == null || _chars.capacity() < max)
+		{
+			_chars = CharBuffer.allocate(Math.max(max, 256));
+		}
+
+		_chars.clear();
+		decodeLine(_chars);
+		_chars.flip();
+
+		return _chars;
+	}
+
+	/**
+	 * This method locates the next line without decoding it.  The
+	 * line can then be decoded using {@link #decodeLine}.
+	 *
+	 * @return true if there is another line; false otherwise
+	 * @exception IOException
+	 * 	if the file cannot be mapped
+	 */
+
+	boolean nextLine() throws IOException
+	{
+		if(_pos >= _end)
+			return false;
+
+		int window = _window;
+		while(true)
+		{
+			if(_buf == null || _pos < _base
+					|| _pos >= _base + _buf.capacity())
+			{
+				map(window);
+			}
+
+			int start = (int)(_pos - _base);
+			int limit = _buf.capacity();
+			boolean last = (_base + limit == _end);
+			int idx = scan(start, limit);
+
+			if(idx != -1)
+			{
+				int next = idx + 1;
+				if(_buf.get(idx) == CR)
+				{
+					if(next < limit)
+					{
+						if(_buf.get(next) == LF)
+							++next;
+					}
+					else if(!last)
+					{
+						// the LF may be in the next window
+						window = remap(start, window);
+						continue;
+					}
+					else if(!_partial)
+					{
+						// the LF may not have been written yet
+						return false;
+					}
+				}
+
+				_lineStart = start;
+				_lineEnd = idx;
+				_pos = _base + next;
+				return true;
+			}
+
+			if(last)
+			{
+				if(!_partial)
+					return false;
+
+				_lineStart = start;
+				_lineEnd = limit;
+				_pos = _end;
+				return true;
+			}
+
+			// the line continues past the end of the window
+			window = remap(start, window);
+		}
+	}
+
+	/**
+	 * This method returns the maximum number of characters the
+	 * line located by {@link #nextLine} can decode to.
+	 *
+	 * @return the number of characters
+	 */
+
+	int getMaxLineChars()
+	{
+		int len = _lineEnd - _lineStart;
+		return (int)(len * _decoder.maxCharsPerByte()) + 1;
+	}
+
+	/**
+	 * This method decodes the line located by {@link #nextLine}
+	 * into the buffer.  The buffer must have room for at least
+	 * {@link #getMaxLineChars} characters.
+	 *
+	 * @param dst the buffer
+	 */
+
+	void decodeLine(CharBuffer dst)
+	{
+		_buf.limit(_lineEnd);
+		_buf.position(_lineStart);
+		_decoder.reset();
+		_decoder.decode(_buf, dst, true);
+		_decoder.flush(dst);
+		_buf.limit(_buf.capacity());
+	}
+
+	/**
+	 * This method sets the text to the bytes of the line located
+	 * by {@link #nextLine} if each byte of the line represents the
+	 * character with the same value.  Otherwise, the line must be
+	 * decoded.
+	 *
+	 * @param text the text to set
+	 * @return true if the text was set; false if the line must be
+	 * 	decoded
+	 */
+
+	boolean getLineText(AsciiText text)
+	{
+		if(_direct == DIRECT_NONE || (_direct == DIRECT_ASCII
+				&& !ByteScanner.isAscii(_buf, _lineStart, _lineEnd)))
+		{
+			return false;
+		}
+
+		text.set(_buf, _lineStart, _lineEnd);
+		return true;
+	}
+
+	/**
+	 * This method decodes the line located by {@link #nextLine}
+	 * into a String.
+	 *
+	 * @return the text of the line
+	 */
+
+	String getLine()
+	{
+		int max = getMaxLineChars();
+		if(_chars == null || _chars.capacity() < max)
+		{
+			_chars = CharBuffer.allocate(Math.max(max, 256));
+		}
+
+		_chars.clear();
+		decodeLine(_chars);
+		return new String(_chars.array(), 0, _chars.position());
+	}
+
+	/**
+	 * This method is used to control whether a line at the end of
+	 * the region which is not followed by a line terminator is
+	 * returned.  If it is not, the position is left at the start
+	 * of the line so that it can be read again once it has been
+	 * completed.  A carriage return at the very end of the region
+	 * is also treated as incomplete since it may be followed by a
+	 * line feed.
+	 *
+	 * @param partial true to return the last line; false
+	 * 	otherwise
+	 */
+
+	void setPartialLines(boolean partial)
+	{
+		_partial = partial;
+	}
+
+	/**
+	 * This method returns the offset in the file of the first
+	 * byte of the next line to be read.
+	 *
+	 * @return the file offset
+	 */
+
+	public long getPosition()
+	{
+		return _pos;
+	}
+
+	/**
+	 * This method scans the mapped buffer for the next carriage
+	 * return or line feed.
+	 *
+	 * @param start the index to start scanning
+	 * @param limit the index to stop scanning
+	 * @return the index of the terminator or -1 if none was found
+	 */
+
+	private int scan(int start, int limit)
+	{
+		return ByteScanner.indexOfLineEnd(_buf, start, limit);
+	}
+
+	/**
+	 * This method maps a new window starting at the current
+	 * position.  If the current window already starts at the
+	 * current position, the window size is doubled so that a
+	 * line longer than the window can still be read.
+	 *
+	 * @param start the index of the current position in the
+	 * 	existing window
+	 * @param window the current window size
+	 * @return the new window size
+	 */
+
+	private int remap(int start, int window) throws IOException
+	{
+		if(start == 0)
+		{
+			if(window >= Integer.MAX_VALUE / 2)
+				window = Integer.MAX_VALUE;
+			else
+				window *= 2;
+		}
+
+		map(window);
+		return window;
+	}
+
+	/**
+	 * This method maps the specified number of bytes of the file
+	 * starting at the current position.
+	 *
+	 * @param window the maximum number of bytes to map
+	 */
+
+	private void map(int window) throws IOException
+	{
+		long len = Math.min(_end - _pos, (long)window);
+		_buf = _channel.map(FileChannel.MapMode.READ_ONLY, _pos, len);
+		_buf.order(ByteOrder.nativeOrder());
+		_base = _pos;
+	}
+
+	/**
+	 * This method is used to determine if lines encoded with the
+	 * specified character encoding can be located by scanning for
+	 * the carriage return and line feed bytes.
+	 *
+	 * @param charset the character encoding
+	 * @return true if the encoding is compatible; false otherwise
+	 */
+
+	static boolean isAsciiCompatible(Charset charset)
+	{
+		if(!charset.canEncode())
+			return false;
+
+		byte[] b = "\r\n".getBytes(charset);
+		return b.length == 2 && b[0] == CR && b[1] == LF;
+	}
+
+	/**
+	 * This method returns the offset of the start of the first
+	 * line which begins at or after the specified offset.  It is
+	 * used to split a file into regions which each contain whole
+	 * lines.
+	 *
+	 * @param channel the channel of the file
+	 * @param pos the offset in the file
+	 * @return the offset of the start of the line or the size of
+	 * 	the file if no line starts after the offset
+	 * @exception IOException
+	 * 	if the file cannot be read
+	 */
+
+	static long findLineStart(FileChannel channel, long pos)
+			throws IOException
+	{
+		if(pos <= 0)
+			return 0;
+
+		long size = channel.size();
+		ByteBuffer buf = ByteBuffer.allocate(8192);
+		boolean cr = false;
+
+		// start with the previous byte in case it ends a line
+		long off = pos - 1;
+		while(off < size)
+		{
+			buf.clear();
+			int n = channel.read(buf, off);
+			if(n <= 0)
+				break;
+
+			for(int i = 0; i < n; ++i)
+			{
+				byte b = buf.get(i);
+				if(cr)
+				{
+					return (b == LF) ? off + i + 1 : off + i;
+				}
+				if(b == LF)
+					return off + i + 1;
+				if(b == CR)
+					cr = true;
+			}
+			off += n;
+		}
+
+		return size;
+	}
+
+	/** the default number of bytes to map at once */
+	static final int		DEFAULT_WINDOW = 32 * 1024 * 1024;
+
+	private static final byte	CR = (byte)'\r';
+	private static final byte	LF = (byte)'\n';
+
+	/** the lines must always be decoded */
+	private static final int	DIRECT_NONE = 0;
+
+	/** lines of ASCII text need not be decoded */
+	private static final int	DIRECT_ASCII = 1;
+
+	/** the lines never need to be decoded */
+	private static final int	DIRECT_ALL = 2;
+
+	/** the channel being read */
+	private final FileChannel	_channel;
+
+	/** the decoder for the lines */
+	private final CharsetDecoder	_decoder;
+
+	/** the offset of the byte after the end of the region */
+	private final long		_end;
+
+	/** the preferred number of bytes to map */
+	private final int		_window;
+
+	/** indicates if an unterminated last line is returned */
+	private boolean			_partial = true;
+
+	/** the offset of the start of the next line */
+	private long			_pos;
+
+	/** the currently mapped window */
+	private MappedByteBuffer	_buf;
+
+	/** the offset of the start of the mapped window */
+	private long			_base;
+
+	/** the index of the start of the current line */
+	private int			_lineStart;
+
+	/** the index of the end of the current line */
+	private int			_lineEnd;
+
+	/** the buffer holding the decoded line */
+	private CharBuffer		_chars;
+
+	/** indicates when the lines need not be decoded */
+	private int			_direct = DIRECT_NONE;
+}
@@ -0,0 +1,668 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	PartitionedLineWriter.java
+// Created:	Sun Oct 18 07:10:14 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class writes each line it processes to one of a number of
+ * files in a directory chosen by the value of a key column, for
+ * example to split a file by customer.  The name of each file is the
+ * value of the key column with a prefix and suffix added.  Characters
+ * in the key which are not letters, digits, '-', '_' or '.' are
+ * replaced by '_', as is a leading '.', and an empty or missing key
+ * is written to the file named by '_'.
+ * <p>
+ * The lines for each file are buffered and only written when the
+ * buffer for the file is full or the total size of the buffers
+ * exceeds a limit, in which case the buffers are also released.  At
+ * most a fixed number of files is kept open:  when another file
+ * needs to be written, the file used least recently is closed.  Each
+ * file is truncated the first time it is written and is appended to
+ * after that.
+ * </p>
+ * <p>
+ * Since all lines for a key must be written by the same instance,
+ * a file must be processed by a single instance and the results of
+ * several instances cannot be merged.  The writer must be closed
+ * after the file has been processed to write the remaining lines.
+ * </p>
+ * <pre>
+ * PartitionedLineWriter out = new PartitionedLineWriter("|", 0,
+ * 		new File("by-customer"), "customer-", ".txt", null);
+ * try
+ * {
+ * 	fp.processFile(out);
+ * }
+ * finally
+ * {
+ * 	out.close();
+ * }
+ * </pre>
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ * @since 3.0
+ */
+
+public class PartitionedLineWriter extends DelimitedFieldProcessor
+{
+	/**
+	 * The constructor initializes the writer.
+	 *
+	 * @param delim the delimiter
+	 * @param key the index of the key column
+	 * @param dir the directory for the files
+	 * @param prefix the text added before the key in the file
+	 * 	names
+	 * @param suffix the text added after the key in the file names
+	 * @param encoding the encoding or null to use the default
+	 * 	encoding
+	 * @exception UnsupportedCharsetException
+	 * 	if the encoding is not supported by the JVM
+	 */
+
+	public PartitionedLineWriter(String delim, int key, File dir,
+			String prefix, String suffix, String encoding)
+			throws UnsupportedCharsetException
+	{
+		super(delim, new int[] { key });
+		if(dir == null)
+		{
+			throw new IllegalArgumentException(
+				"directory must not be null");
+		}
+
+		Charset charset = (encoding != null) ? Charset.forName(encoding)
+					: Charset.defaultCharset();
+
+		_key = key;
+		_dir = dir;
+		_prefix = (prefix == null ? "" : prefix);
+		_suffix = (suffix == null ? "" : suffix);
+		_encoder = charset.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		_bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+	}
+
+	public void processFields(DelimitedFields fields) throws Exception
+	{
+		Partition p = _last;
+		if(p == null || !keyEquals(fields))
+		{
+			String key = (_key < fields.size())
+					? fields.getString(_key) : "";
+			p = (Partition)_partitions.get(key);
+			if(p == null)
+				p = createPartition(key);
+			_last = p;
+			_lastKey = key;
+		}
+
+		CharSequence text = fields.getText();
+		int len = text.length() + _separator.length();
+		if(p.length + len > p.chars.length)
+		{
+			if(p.length + len > _bufferSize && p.length > 0)
+				write(p);
+			_allocated += p.ensure(len, _bufferSize);
+		}
+
+		char[] chars = p.chars;
+		int pos = p.length;
+		if(text instanceof String)
+		{
+			((String)text).getChars(0, text.length(), chars, pos);
+			pos += text.length();
+		}
+		else
+		{
+			for(int i = 0; i < text.length(); ++i)
+				chars[pos++] = text.charAt(i);
+		}
+		_separator.getChars(0, _separator.length(), chars, pos);
+		p.length += len;
+		++_lines;
+
+		if(_allocated * 2 > _memoryLimit)
+		{
+			// write everything and start again with empty
+			// buffers
+			flush();
+			for(Iterator i = _files.values().iterator(); i.hasNext(); )
+			{
+				((Partition)i.next()).chars = EMPTY;
+			}
+			_allocated = 0;
+		}
+	}
+
+	/**
+	 * This method writes all of the buffered lines to their files.
+	 *
+	 * @exception IOException
+	 * 	if the lines cannot be written
+	 */
+
+	public void flush() throws IOException
+	{
+		for(Iterator i = _files.values().iterator(); i.hasNext(); )
+		{
+			Partition p = (Partition)i.next();
+			if(p.length > 0)
+				write(p);
+		}
+	}
+
+	/**
+	 * This method writes all of the buffered lines and closes the
+	 * files.
+	 *
+	 * @exception IOException
+	 * 	if the lines cannot be written or a file cannot be
+	 * 	closed
+	 */
+
+	public void close() throws IOException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			IOException error = null;
+			for(Iterator i = _open.values().iterator(); i.hasNext(); )
+			{
+				try
+				{
+					((Partition)i.next()).channel.close();
+				}
+				catch(IOException e)
+				{
+					error = e;
+				}
+			}
+			for(Iterator i = _open.values().iterator(); i.hasNext(); )
+			{
+				((Partition)i.next()).channel = null;
+			}
+			_open.clear();
+			if(error != null)
+				throw error;
+		}
+	}
+
+	/**
+	 * This method always throws an exception because the lines
+	 * for a file can only be written by one instance.
+	 *
+	 * @param lp the processor to merge
+	 * @exception UnsupportedOperationException
+	 * 	always
+	 */
+
+	public void merge(LineProcessor lp) throws Exception
+	{
+		throw new UnsupportedOperationException(
+			"partitioned line writers cannot be merged");
+	}
+
+	/**
+	 * This method returns false because all of the lines for a
+	 * key must be written by the same instance.
+	 *
+	 * @return false
+	 */
+
+	public boolean isMergeable()
+	{
+		return false;
+	}
+
+	/**
+	 * This method returns the file to which the lines with a key
+	 * are written.
+	 *
+	 * @param key the value of the key column
+	 * @return the file
+	 */
+
+	public File getFile(String key)
+	{
+		StringBuffer name = new StringBuffer(_prefix);
+		int len = key.length();
+		if(len == 0)
+			name.append('_');
+		for(int i = 0; i < len; ++i)
+		{
+			char c = key.charAt(i);
+			if((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+					|| (c >= '0' && c <= '9') || c == '-'
+					|| c == '_' || (c == '.' && i > 0))
+				name.append(c);
+			else
+				name.append('_');
+		}
+		name.append(_suffix);
+
+		return new File(_dir, name.toString());
+	}
+
+	/**
+	 * This method returns the number of files written.
+	 *
+	 * @return the number of files
+	 */
+
+	public int getFileCount()
+	{
+		return _files.size();
+	}
+
+	/**
+	 * This method returns the number of lines written.
+	 *
+	 * @return the number of lines
+	 */
+
+	public long getLinesWritten()
+	{
+		return _lines;
+	}
+
+	/**
+	 * This method sets the largest number of files kept open.
+	 *
+	 * @param files the number of files
+	 */
+
+	public void setMaxOpenFiles(int files)
+	{
+		if(files < 1)
+		{
+			throw new IllegalArgumentException(
+				"open file limit must be positive: " + files);
+		}
+
+		_maxOpen = files;
+	}
+
+	/**
+	 * This method returns the largest number of files kept open.
+	 *
+	 * @return the number of files
+	 */
+
+	public int getMaxOpenFiles()
+	{
+		return _maxOpen;
+	}
+
+	/**
+	 * This method sets the number of characters buffered for each
+	 * file before they are written.
+	 *
+	 * @param size the number of characters
+	 */
+
+	public void setBufferSize(int size)
+	{
+		if(size < 1)
+		{
+			throw new IllegalArgumentException(
+				"buffer size must be positive: " + size);
+		}
+
+		_bufferSize = size;
+	}
+
+	/**
+	 * This method returns the number of characters buffered for
+	 * each file before they are written.
+	 *
+	 * @return the number of characters
+	 */
+
+	public int getBufferSize()
+	{
+		return _bufferSize;
+	}
+
+	/**
+	 * This method sets the approximate number of bytes used by
+	 * the buffers of all of the files.  When the limit is reached,
+	 * all of the buffers are written.
+	 *
+	 * @param bytes the number of bytes
+	 */
+
+	public void setMemoryLimit(long bytes)
+	{
+		_memoryLimit = bytes;
+	}
+
+	/**
+	 * This method returns the approximate number of bytes used by
+	 * the buffers of all of the files.
+	 *
+	 * @return the number of bytes
+	 */
+
+	public long getMemoryLimit()
+	{
+		return _memoryLimit;
+	}
+
+	/**
+	 * This method sets the text written after each line.
+	 *
+	 * @param separator the line separator
+	 */
+
+	public void setLineSeparator(String separator)
+	{
+		_separator = separator;
+	}
+
+	/**
+	 * This method returns the text written after each line.
+	 *
+	 * @return the line separator
+	 */
+
+	public String getLineSeparator()
+	{
+		return _separator;
+	}
+
+	/**
+	 * This method checks if the key of a line is the same as the
+	 * key of the previous line, which is common when the input is
+	 * grouped by the key.
+	 */
+
+	private boolean keyEquals(DelimitedFields fields)
+	{
+		if(_key >= fields.size())
+			return _lastKey.length() == 0;
+
+		return fields.fieldEquals(_key, _lastKey);
+	}
+
+	/**
+	 * This method creates the partition for a key.  Keys which
+	 * map to the same file share a partition.
+	 */
+
+	private Partition createPartition(String key)
+	{
+		File file = getFile(key);
+		Partition p = (Partition)_files.get(file);
+		if(p == null)
+		{
+			p = new Partition(file);
+			_files.put(file, p);
+		}
+		_partitions.put(key, p);
+
+		return p;
+	}
+
+	/**
+	 * This method encodes the buffered lines of a partition and
+	 * writes them to its file.
+	 */
+
+	private void write(Partition p) throws IOException
+	{
+		FileChannel channel = open(p);
+		CharBuffer cb = CharBuffer.wrap(p.chars, 0, p.length);
+		_encoder.reset();
+		while(true)
+		{
+			CoderResult cr = _encoder.encode(cb, _bytes, true);
+			if(cr.isOverflow())
+			{
+				writeBytes(channel);
+				continue;
+			}
+			if(cr.isError())
+				cr.throwException();
+			break;
+		}
+		while(_encoder.flush(_bytes).isOverflow())
+			writeBytes(channel);
+		writeBytes(channel);
+
+		p.length = 0;
+	}
+
+	private void writeBytes(FileChannel channel) throws IOException
+	{
+		_bytes.flip();
+		while(_bytes.hasRemaining())
+			channel.write(_bytes);
+		_bytes.clear();
+	}
+
+	/**
+	 * This method returns the open channel for a partition,
+	 * closing the file used least recently if too many are open.
+	 */
+
+	private FileChannel open(Partition p) throws IOException
+	{
+		if(p.channel != null)
+		{
+			// move it to the end of the access order
+			_open.get(p.file);
+			return p.channel;
+		}
+
+		if(_open.size() >= _maxOpen)
+		{
+			Iterator i = _open.values().iterator();
+			Partition eldest = (Partition)i.next();
+			i.remove();
+			FileChannel channel = eldest.channel;
+			eldest.channel = null;
+			channel.close();
+		}
+
+		if(p.created)
+		{
+			p.channel = FileChannel.open(p.file.toPath(),
+				new StandardOpenOption[] {
+					StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND });
+		}
+		else
+		{
+			p.channel = FileChannel.open(p.file.toPath(),
+				new StandardOpenOption[] {
+					StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING });
+			p.created = true;
+		}
+		_open.put(p.file, p);
+
+		return p.channel;
+	}
+
+	/**
+	 * This class holds the buffered lines and the channel of a
+	 * file.
+	 */
+
+	private static final class Partition
+	{
+		Partition(File file)
+		{
+			this.file = file;
+		}
+
+		/**
+		 * This method makes room for more characters, growing
+		 * the buffer up to the buffer size unless a single line
+		 * is longer.
+		 *
+		 * @return the number of characters added to the buffer
+		 */
+
+		int ensure(int len, int size)
+		{
+			int need = length + len;
+			if(need <= chars.length)
+				return 0;
+
+			int cap = Math.max(Math.min(chars.length * 2, size),
+					INITIAL_BUFFER_SIZE);
+			char[] buf = new char[Math.max(cap, need)];
+			System.arraycopy(chars, 0, buf, 0, length);
+			int added = buf.length - chars.length;
+			chars = buf;
+			return added;
+		}
+
+		/** the file */
+		final File	file;
+
+		/** the buffered characters */
+		char[]		chars = EMPTY;
+
+		/** the number of buffered characters */
+		int		length = 0;
+
+		/** the channel if the file is open */
+		FileChannel	channel = null;
+
+		/** indicates if the file has been created */
+		boolean		created = false;
+	}
+
+	/** the default largest number of open files */
+	public static final int		DEFAULT_MAX_OPEN_FILES = 64;
+
+	/** the default number of characters buffered for each file */
+	public static final int		DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+	/** the default limit of the memory used by the buffers */
+	public static final long	DEFAULT_MEMORY_LIMIT = 32L * 1024 * 1024;
+
+	/** the initial size of the buffer of each file */
+	private static final int	INITIAL_BUFFER_SIZE = 256;
+
+	/** the buffer of a file with nothing buffered */
+	private static final char[]	EMPTY = new char[0];
+
+	/** the size of the buffer for the encoded bytes */
+	private static final int	BYTE_BUFFER_SIZE = 64 * 1024;
+
+	/** the index of the key column */
+	private final int		_key;
+
+	/** the directory for the files */
+	private final File		_dir;
+
+	/** the prefix of the file names */
+	private final String		_prefix;
+
+	/** the suffix of the file names */
+	private final String		_suffix;
+
+	/** the encoder for the character encoding */
+	private final CharsetEncoder	_encoder;
+
+	/** the buffer for the encoded bytes */
+	private final ByteBuffer	_bytes;
+
+	/** the partition for each key */
+	private final Map		_partitions = new HashMap();
+
+	/** the partition for each file */
+	private final Map		_files = new HashMap();
+
+	/** the partitions with open files in order of use */
+	private final Map		_open = new LinkedHashMap(16, 0.75f, true);
+
+	/** the partition of the previous line */
+	private Partition		_last = null;
+
+	/** the key of the previous line */
+	private String			_lastKey = null;
+
+	/** the number of characters allocated for the buffers */
+	private long			_allocated = 0;
+
+	/** the number of lines written */
+	private long			_lines = 0;
+
+	/** the largest number of open files */
+	private int			_maxOpen = DEFAULT_MAX_OPEN_FILES;
+
+	/** the number of characters buffered for each file */
+	private int			_bufferSize = DEFAULT_BUFFER_SIZE;
+
+	/** the limit of the memory used by the buffers */
+	private long			_memoryLimit = DEFAULT_MEMORY_LIMIT;
+
+	/** the line separator */
+	private String			_separator =
+				System.getProperty("line.separator");
+}
@@ -45,10 +45,27 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 /**
  * This class provides a pluggable mechanism for processing line-based
@@ -77,6 +94,66 @@ import java.nio.charset.UnsupportedCharsetException;
  * 	e.printStackTrace();
  * }
  * </pre>
+ * <p>
+ * For large files, the processor can be placed in memory-mapped
+ * mode using {@link #setMemoryMapped}.  In this mode, the file is
+ * mapped into memory in large windows and each line is decoded
+ * directly from the mapped bytes rather than being copied through a
+ * chain of buffered streams and readers.  Memory-mapped mode is only
+ * used if the character encoding represents carriage returns and
+ * line feeds as single bytes (e.g. UTF-8 or any of the ISO-8859
+ * encodings).  For other encodings, the file is read in the normal
+ * way.
+ * </p>
+ * <p>
+ * A single large file can also be processed by more than one thread
+ * using {@link #processFile(LineProcessorFactory, int)}.  The file is
+ * split into regions containing whole lines and each region is
+ * processed by its own LineProcessor.  The partial results are then
+ * merged into a single processor.
+ * </p>
+ * <p>
+ * If the LineProcessor implements {@link BatchLineProcessor}, the
+ * lines are delivered in batches of up to {@link #getBatchSize}
+ * lines rather than one at a time.  When the file is memory-mapped,
+ * the lines of a batch are decoded into a shared buffer which is
+ * reused for every batch, so no String is created for each line.
+ * </p>
+ * <p>
+ * When the processing of each line is expensive, reading the file
+ * and processing the lines can be overlapped using {@link
+ * #processFilePipelined(LineProcessor)}.  A separate thread reads
+ * batches of lines into a bounded ring of buffers from which they
+ * are taken by the processing threads.
+ * </p>
+ * <p>
+ * Files which are still being written, such as log files, can be
+ * processed using {@link #followFile}.  Lines are processed as they
+ * are appended to the file and the progress is periodically recorded
+ * in a checkpoint file so that processing can be resumed after a
+ * restart.
+ * </p>
+ * <p>
+ * If an index file is specified using {@link #setIndexFile}, a
+ * {@link LineIndex} of the byte offsets of the lines is written to it
+ * as the file is processed.  The index allows a range of lines to be
+ * processed using {@link #processLines(LineProcessor, long, long)}
+ * without reading the file from the beginning.
+ * </p>
+ * <p>
+ * Files compressed using gzip are recognized by their first bytes
+ * and decompressed as they are read.  If the file uses the blocked
+ * gzip format (BGZF), the blocks are decompressed in parallel by the
+ * number of threads set using {@link #setDecompressionThreads}.
+ * Compressed files are always read as a stream, so they cannot be
+ * memory-mapped, split into regions or indexed.
+ * </p>
+ * <p>
+ * Many small files can be processed concurrently using {@link
+ * #processFiles}, which processes the files in a directory matching
+ * a glob or regular expression on a bounded pool of threads and
+ * returns a {@link FileResult} for each file.
+ * </p>
  *
  * @version $Id: TextFileProcessor.java,v 1.3 2004/01/30 11:50:42 atownley Exp $
  * @author <a href="mailto:adz1092@nestscape.net">Andrew S. Townley</a>
@@ -126,6 +203,10 @@ public class TextFileProcessor
 	/**
 	 * This method is used to process the file.  For each line,
 	 * the @{link LineProcessor.processLine} method is called.
+	 * If a cache file has been set and the processor is a {@link
+	 * DelimitedFieldProcessor} which splits lines on the bare
+	 * delimiter, the lines are read from the columnar cache file
+	 * instead of the file itself.
 	 *
 	 * @param lp the LineProcessor instance
 	 * @exception IOException
@@ -137,28 +218,199 @@ public class TextFileProcessor
 	public void processFile(LineProcessor lp)
 			throws IOException, Exception
 	{
-		BufferedReader in = null;
-		InputStreamReader isr = null;
-		
+		if(_cacheFile != null && lp instanceof DelimitedFieldProcessor
+				&& ((DelimitedFieldProcessor)lp).canUseColumnarCache())
+		{
+			DelimitedFieldProcessor dp = (DelimitedFieldProcessor)lp;
+			getColumnarFile(dp.getDelimiter()).process(dp);
+			endOfInput(dp);
+			return;
+		}
+
+		readFile(lp);
+	}
+
+	/**
+	 * This method is used to process the files in a directory
+	 * whose names match a pattern.  The files are processed
+	 * concurrently by a pool of threads, each file by its own
+	 * LineProcessor obtained from the factory.  An error
+	 * processing one file does not stop the processing of the
+	 * other files, but is recorded in the result for the file.
+	 * <p>
+	 * The pattern is matched against the name of each file in the
+	 * directory using the syntax of {@link
+	 * java.nio.file.FileSystem#getPathMatcher}, so it may start with
+	 * <code>glob:</code> or <code>regex:</code>.  If it has neither
+	 * prefix, it is treated as a glob.  Subdirectories are not
+	 * searched.
+	 * </p>
+	 *
+	 * @param dir the name of the directory
+	 * @param pattern the pattern for the file names
+	 * @param encoding the encoding of the files or null to use
+	 * 	the default encoding
+	 * @param factory the factory for the LineProcessor instances
+	 * @param threads the number of threads to use
+	 * @return the results for each matching file in order of
+	 * 	file name
+	 * @exception IOException
+	 * 	if the directory cannot be read
+	 * @exception Exception
+	 * 	if processing was interrupted
+	 * @see #mergeResults
+	 */
+
+	public static FileResult[] processFiles(String dir, String pattern,
+			String encoding, LineProcessorFactory factory,
+			int threads) throws IOException, Exception
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException(
+				"thread count must be positive: " + threads);
+		}
+
+		if(encoding != null)
+		{
+			Charset.forName(encoding);
+		}
+
+		if(!pattern.startsWith("glob:") && !pattern.startsWith("regex:"))
+		{
+			pattern = "glob:" + pattern;
+		}
+		PathMatcher matcher = FileSystems.getDefault()
+					.getPathMatcher(pattern);
+
+		File[] files = new File(dir).listFiles();
+		if(files == null)
+		{
+			throw new IOException("cannot list directory " + dir);
+		}
+		Arrays.sort(files);
+
+		List results = new ArrayList();
+		for(int i = 0; i < files.length; ++i)
+		{
+			if(files[i].isFile() && matcher.matches(
+					Paths.get(files[i].getName())))
+			{
+				results.add(new FileResult(files[i],
+					factory.createLineProcessor()));
+			}
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
 		try
 		{
-			File file = new File(_filename);
-			FileInputStream fis = new FileInputStream(file);
-			if(_encoding != null)
-				isr = new InputStreamReader(fis, _encoding);
-			else
-				isr = new InputStreamReader(fis);
+			List futures = new ArrayList();
+			for(int i = 0; i < results.size(); ++i)
+			{
+				final FileResult result = (FileResult)results.get(i);
+				final TextFileProcessor fp = new TextFileProcessor(
+						result.getFile().getPath(), encoding);
 
-			in = new BufferedReader(isr);
+				// the files are already processed in parallel
+				fp.setDecompressionThreads(1);
+				futures.add(pool.submit(new Callable() {
+					public Object call() throws Exception
+					{
+						try
+						{
+							result.finish(fp.readFile(
+								result.getLineProcessor()),
+								null);
+						}
+						catch(Exception e)
+						{
+							result.finish(0, e);
+						}
+						return null;
+					}
+				}));
+			}
 
-			lp.reset();
-			String line = in.readLine();
-			while(line != null)
+			for(int i = 0; i < futures.size(); ++i)
 			{
-				lp.processLine(line);
-				line = in.readLine();
+				getResult((Future)futures.get(i));
 			}
 		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		return (FileResult[])results.toArray(
+				new FileResult[results.size()]);
+	}
+
+	/**
+	 * This method merges the processors of the files which were
+	 * processed without error into the first of them, in the order
+	 * of the results.  The processors must implement {@link
+	 * MergeableLineProcessor}.
+	 *
+	 * @param results the results returned by {@link #processFiles}
+	 * @return the processor containing the merged results or null
+	 * 	if no file was processed without error
+	 * @exception Exception
+	 * 	if there was an error merging the processors
+	 */
+
+	public static LineProcessor mergeResults(FileResult[] results)
+			throws Exception
+	{
+		MergeableLineProcessor merged = null;
+		for(int i = 0; i < results.length; ++i)
+		{
+			if(results[i].getError() != null)
+				continue;
+
+			LineProcessor lp = results[i].getLineProcessor();
+			if(merged == null)
+				merged = (MergeableLineProcessor)lp;
+			else
+				merged.merge(lp);
+		}
+
+		return merged;
+	}
+
+	/**
+	 * This method processes the file and returns the number of
+	 * lines processed.
+	 *
+	 * @param lp the LineProcessor instance
+	 * @return the number of lines
+	 * @exception IOException
+	 * 	if there was an error reading the file
+	 * @exception Exception
+	 * 	if there was an error thrown by the LineProcessor
+	 */
+
+	private long readFile(LineProcessor lp) throws IOException, Exception
+	{
+		if((_mapped || _indexFile != null)
+				&& MappedLineReader.isAsciiCompatible(getCharset())
+				&& !isCompressed())
+		{
+			long count = processMappedFile(lp);
+			endOfInput(lp);
+			return count;
+		}
+
+		BufferedReader in = null;
+		
+		try
+		{
+			in = openReader();
+
+			lp.reset();
+			long count = processLines(in, lp);
+			endOfInput(lp);
+			return count;
+		}
 		catch(IOException e)
 		{
 			throw e;
@@ -181,9 +433,1609 @@ public class TextFileProcessor
 		}
 	}
 
-	/** the name of the file to process */
-	private final String	_filename;
+	/**
+	 * This method is used to process a range of lines of the file.
+	 * The {@link LineIndex} returned by {@link #getLineIndex} is
+	 * used to find the start of the range, so only the lines
+	 * between the start of the range and the nearest indexed line
+	 * before it need to be read.
+	 *
+	 * @param lp the LineProcessor instance
+	 * @param first the zero-based number of the first line to
+	 * 	process
+	 * @param count the maximum number of lines to process or -1
+	 * 	to process the rest of the file
+	 * @exception UnsupportedCharsetException
+	 * 	if the character encoding of the file is not supported
+	 * @exception IOException
+	 * 	if there was an error reading the file or the index
+	 * @exception Exception
+	 * 	if there was an error thrown by the LineProcessor
+	 */
 
-	/** the character encoding to use */
-	private final String	_encoding;
+	public void processLines(LineProcessor lp, long first, long count)
+			throws IOException, Exception
+	{
+		if(first < 0)
+		{
+			throw new IllegalArgumentException(
+				"first line must not be negative: " + first);
+		}
+
+		Charset charset = getCharset();
+		if(!MappedLineReader.isAsciiCompatible(charset))
+		{
+			throw new UnsupportedCharsetException(charset.name());
+		}
+
+		LineIndex index = getLineIndex();
+		RandomAccessFile raf = new RandomAccessFile(_filename, "r");
+
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			MappedLineReader in = new MappedLineReader(channel,
+					charset, index.getOffset(first),
+					channel.size());
+			for(long i = index.getIndexedLine(first); i < first; ++i)
+			{
+				if(!in.nextLine())
+					break;
+			}
+
+			lp.reset();
+			processLines(in, lp, null,
+				(count < 0) ? Long.MAX_VALUE : count);
+			endOfInput(lp);
+		}
+		finally
+		{
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/**
+	 * This method returns the index of the line offsets of the
+	 * file.  If an index file has been specified and contains an
+	 * index which matches the file, the stored index is returned.
+	 * Otherwise, including when the index file cannot be read,
+	 * the file is scanned to build the index, which is written to
+	 * the index file if one has been specified.
+	 *
+	 * @return the index
+	 * @exception UnsupportedCharsetException
+	 * 	if the character encoding of the file is not supported
+	 * @exception IOException
+	 * 	if there was an error reading the file or reading or
+	 * 	writing the index or the file is compressed
+	 */
+
+	public LineIndex getLineIndex() throws IOException
+	{
+		Charset charset = getCharset();
+		if(!MappedLineReader.isAsciiCompatible(charset))
+		{
+			throw new UnsupportedCharsetException(charset.name());
+		}
+
+		if(isCompressed())
+		{
+			throw new IOException("cannot index compressed file "
+					+ _filename);
+		}
+
+		File file = new File(_filename);
+		if(_indexFile != null)
+		{
+			LineIndex index = null;
+			try
+			{
+				index = LineIndex.load(new File(_indexFile));
+			}
+			catch(IOException e)
+			{
+				// a damaged index is rebuilt
+			}
+
+			if(index != null && index.isCurrent(file))
+				return index;
+		}
+
+		LineIndex index = new LineIndex(_indexStride);
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			MappedLineReader in = new MappedLineReader(channel,
+					charset, 0, channel.size());
+			long pos = in.getPosition();
+			while(in.nextLine())
+			{
+				index.addLine(pos);
+				pos = in.getPosition();
+			}
+		}
+		finally
+		{
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+
+		index.finish(file);
+		if(_indexFile != null)
+		{
+			index.store(new File(_indexFile));
+		}
+
+		return index;
+	}
+
+	/**
+	 * This method returns the columnar form of the file, which is
+	 * loaded from the cache file if it is current and was created
+	 * with the same delimiter and encoding.  Otherwise, including
+	 * when the cache file cannot be read, the file is read twice to
+	 * convert it and the cache file is replaced.
+	 *
+	 * @param delim the delimiter
+	 * @return the columnar file
+	 * @exception IllegalStateException
+	 * 	if no cache file has been set
+	 * @exception IOException
+	 * 	if there was an error reading the file or writing the
+	 * 	cache file
+	 * @exception Exception
+	 * 	if there was an error converting the file
+	 * @see #setCacheFile
+	 */
+
+	public ColumnarFile getColumnarFile(String delim)
+			throws IOException, Exception
+	{
+		if(_cacheFile == null)
+			throw new IllegalStateException("no cache file set");
+
+		File file = new File(_filename);
+		File cache = new File(_cacheFile);
+		String encoding = getCharset().name();
+		ColumnarFile cf = null;
+		try
+		{
+			cf = ColumnarFile.load(cache);
+		}
+		catch(IOException e)
+		{
+			// a damaged or outdated cache is rebuilt
+		}
+
+		if(cf != null && cf.isCurrent(file)
+				&& cf.getDelimiter().equals(delim)
+				&& cf.getEncoding().equals(encoding))
+		{
+			return cf;
+		}
+
+		// the new file is only renamed once it is complete, so
+		// the cache file is never left partly written
+		File tmp = new File(cache.getPath() + ".tmp");
+		ColumnarBuilder builder = new ColumnarBuilder(delim);
+		try
+		{
+			readFile(builder);
+			builder.startWriting(file, encoding, tmp);
+			readFile(builder);
+			builder.finish();
+		}
+		catch(Exception e)
+		{
+			builder.abort();
+			tmp.delete();
+			throw e;
+		}
+
+		FileCheckpoint.replaceFile(tmp, cache);
+		return ColumnarFile.load(cache);
+	}
+
+	/**
+	 * This method is used to process the file using more than one
+	 * thread.  The file is split into regions on line boundaries
+	 * and each region is processed by a separate LineProcessor
+	 * obtained from the factory.  When all of the regions have
+	 * been processed, the processors are merged in file order
+	 * into the processor of the first region if they implement
+	 * {@link MergeableLineProcessor}.  If the file is split into
+	 * more than one region, processors derived from {@link
+	 * AbstractLineProcessor} which cannot be merged are refused
+	 * before any line is processed.
+	 * <p>
+	 * Regions are memory-mapped, so the file is processed by a
+	 * single processor in the normal way if the file is compressed
+	 * or the character encoding does not represent carriage
+	 * returns and line feeds as single bytes.
+	 * </p>
+	 *
+	 * @param factory the factory for the LineProcessor instances
+	 * @param threads the number of threads to use
+	 * @return the processor containing the merged results
+	 * @exception UnsupportedOperationException
+	 * 	if the processors cannot be merged
+	 * @exception IOException
+	 * 	if there was an error reading the file
+	 * @exception Exception
+	 * 	if there was an error thrown by a LineProcessor
+	 */
+
+	public LineProcessor processFile(LineProcessorFactory factory,
+			int threads) throws IOException, Exception
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException(
+				"thread count must be positive: " + threads);
+		}
+
+		final Charset charset = getCharset();
+		if(!MappedLineReader.isAsciiCompatible(charset) || isCompressed())
+		{
+			LineProcessor lp = factory.createLineProcessor();
+			processFile(lp);
+			return lp;
+		}
+
+		RandomAccessFile raf = new RandomAccessFile(_filename, "r");
+		ForkJoinPool pool = null;
+
+		try
+		{
+			final FileChannel channel = raf.getChannel();
+			long size = channel.size();
+
+			// use more regions than threads to even out the
+			// work, but don't bother splitting small files
+			long chunks = Math.max(1, Math.min(threads * 4L,
+					size / MIN_REGION_SIZE));
+			List tasks = new ArrayList();
+			List lps = new ArrayList();
+			long start = 0;
+			for(long i = 1; i <= chunks && start < size; ++i)
+			{
+				long end = MappedLineReader.findLineStart(channel,
+						size / chunks * i);
+				if(i == chunks)
+					end = size;
+				if(end <= start)
+					continue;
+
+				final long rs = start;
+				final long re = end;
+				final LineProcessor lp = factory.createLineProcessor();
+				lps.add(lp);
+				tasks.add(new Callable() {
+					public Object call() throws Exception
+					{
+						MappedLineReader in = new MappedLineReader(
+							channel, charset, rs, re);
+						lp.reset();
+						processLines(in, lp);
+						endOfInput(lp);
+						return lp;
+					}
+				});
+				start = end;
+			}
+
+			if(tasks.isEmpty())
+			{
+				LineProcessor lp = factory.createLineProcessor();
+				lp.reset();
+				return lp;
+			}
+
+			// refuse processors which can't be merged before
+			// they see any lines
+			if(lps.size() > 1)
+			{
+				for(int i = 0; i < lps.size(); ++i)
+					checkMergeable((LineProcessor)lps.get(i));
+			}
+
+			pool = new ForkJoinPool(threads);
+			List results = pool.invokeAll(tasks);
+			LineProcessor result = (LineProcessor)getResult(
+						(Future)results.get(0));
+			for(int i = 1; i < results.size(); ++i)
+			{
+				LineProcessor lp = (LineProcessor)getResult(
+						(Future)results.get(i));
+				if(result instanceof MergeableLineProcessor)
+				{
+					((MergeableLineProcessor)result).merge(lp);
+				}
+			}
+
+			return result;
+		}
+		finally
+		{
+			if(pool != null)
+				pool.shutdown();
+
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/**
+	 * This method is used to process the file with the reading
+	 * of the file performed by a separate thread.  The lines are
+	 * passed to the processor in the order they appear in the
+	 * file by a single worker thread, not by the calling thread,
+	 * which waits until the file has been processed.  The
+	 * processor therefore need not be thread-safe, but it must not
+	 * rely on being called by the calling thread, e.g. through
+	 * thread-local state.  The number of lines read ahead of the
+	 * processor is limited by the pipeline capacity.
+	 *
+	 * @param lp the LineProcessor instance
+	 * @exception IOException
+	 * 	if there was an error reading the file
+	 * @exception Exception
+	 * 	if there was an error thrown by the LineProcessor
+	 * @see #setPipelineCapacity
+	 */
+
+	public void processFilePipelined(LineProcessor lp)
+			throws IOException, Exception
+	{
+		lp.reset();
+		runPipeline(new LineProcessor[] { lp });
+		endOfInput(lp);
+	}
+
+	/**
+	 * This method is used to process the file with the reading
+	 * of the file performed by a separate thread and the lines
+	 * processed by a number of worker threads.  Each worker has
+	 * its own LineProcessor obtained from the factory and takes
+	 * the next available batch of lines when it is ready, so the
+	 * order in which lines are processed is not defined.  When
+	 * the file has been processed, the processors are merged into
+	 * the processor of the first worker if they implement {@link
+	 * MergeableLineProcessor}.  If there is more than one worker,
+	 * processors derived from {@link AbstractLineProcessor} which
+	 * cannot be merged are refused before any line is processed.
+	 *
+	 * @param factory the factory for the LineProcessor instances
+	 * @param workers the number of worker threads
+	 * @return the processor containing the merged results
+	 * @exception UnsupportedOperationException
+	 * 	if the processors cannot be merged
+	 * @exception IOException
+	 * 	if there was an error reading the file
+	 * @exception Exception
+	 * 	if there was an error thrown by a LineProcessor
+	 */
+
+	public LineProcessor processFilePipelined(LineProcessorFactory factory,
+			int workers) throws IOException, Exception
+	{
+		if(workers < 1)
+		{
+			throw new IllegalArgumentException(
+				"worker count must be positive: " + workers);
+		}
+
+		LineProcessor[] lps = new LineProcessor[workers];
+		for(int i = 0; i < workers; ++i)
+		{
+			lps[i] = factory.createLineProcessor();
+			if(workers > 1)
+				checkMergeable(lps[i]);
+		}
+
+		for(int i = 0; i < workers; ++i)
+		{
+			lps[i].reset();
+		}
+
+		runPipeline(lps);
+		for(int i = 0; i < workers; ++i)
+		{
+			endOfInput(lps[i]);
+		}
+
+		if(lps[0] instanceof MergeableLineProcessor)
+		{
+			MergeableLineProcessor result = (MergeableLineProcessor)lps[0];
+			for(int i = 1; i < workers; ++i)
+			{
+				result.merge(lps[i]);
+			}
+		}
+
+		return lps[0];
+	}
+
+	/**
+	 * This method is used to process the lines of a file which is
+	 * still being written.  Complete lines are passed to the
+	 * processor as they are appended to the file until {@link
+	 * #stopFollowing} is called or the thread is interrupted.
+	 * <p>
+	 * If a checkpoint file is specified, the offset of the next
+	 * line and the number of lines processed are written to it at
+	 * the checkpoint interval and when following stops.  If the
+	 * checkpoint file exists when the method is called,
+	 * processing resumes from the recorded offset.  Lines
+	 * processed after the last checkpoint will be processed again
+	 * if the process is restarted, so the processor should be
+	 * able to tolerate seeing a line more than once.
+	 * </p>
+	 * <p>
+	 * If the file is truncated, processing restarts from the
+	 * beginning of the file.  If the file is replaced by a new file
+	 * with the same name, e.g. when a log file is rotated, the rest
+	 * of the original file is processed before processing starts on
+	 * the new file.  Replacement can only be detected on platforms
+	 * which provide a key identifying each file, e.g. an inode
+	 * number.  The checkpoint records the key so that a file which
+	 * was replaced while the process was not running is processed
+	 * from the beginning.
+	 * </p>
+	 * <p>
+	 * Since the position in the file is tracked in bytes, the file
+	 * must use a character encoding which represents carriage
+	 * returns and line feeds as single bytes.
+	 * </p>
+	 *
+	 * @param lp the LineProcessor instance
+	 * @param checkpoint the name of the checkpoint file or null
+	 * 	if no checkpoint should be kept
+	 * @exception UnsupportedCharsetException
+	 * 	if the character encoding of the file is not supported
+	 * @exception IOException
+	 * 	if there was an error reading the file or writing the
+	 * 	checkpoint
+	 * @exception Exception
+	 * 	if there was an error thrown by the LineProcessor
+	 */
+
+	public void followFile(LineProcessor lp, String checkpoint)
+			throws IOException, Exception
+	{
+		Charset charset = getCharset();
+		if(!MappedLineReader.isAsciiCompatible(charset))
+		{
+			throw new UnsupportedCharsetException(charset.name());
+		}
+
+		File file = new File(_filename);
+		File cpfile = null;
+		FileCheckpoint cp = null;
+		if(checkpoint != null)
+		{
+			cpfile = new File(checkpoint);
+			cp = FileCheckpoint.load(cpfile);
+		}
+
+		lp.reset();
+
+		RandomAccessFile raf = null;
+		String key = null;
+		long pos = 0;
+		long lines = 0;
+
+		try
+		{
+			// wait for the file to be created
+			while(raf == null)
+			{
+				if(file.exists())
+				{
+					raf = new RandomAccessFile(file, "r");
+					key = FileCheckpoint.getFileKey(file);
+				}
+				else if(!pause())
+				{
+					return;
+				}
+			}
+
+			if(cp != null && cp.getOffset() <= raf.length()
+					&& (cp.getFileKey() == null || key == null
+					|| cp.getFileKey().equals(key)))
+			{
+				pos = cp.getOffset();
+				lines = cp.getLineCount();
+			}
+
+			long lastCheckpoint = System.currentTimeMillis();
+			while(!_stopping)
+			{
+				FileChannel channel = raf.getChannel();
+				long size = channel.size();
+				if(size < pos)
+				{
+					// the file has been truncated
+					pos = 0;
+				}
+
+				long count = 0;
+				if(size > pos)
+				{
+					MappedLineReader in = new MappedLineReader(
+						channel, charset, pos, size);
+					in.setPartialLines(false);
+					count = processLines(in, lp);
+					pos = in.getPosition();
+					lines += count;
+				}
+
+				String current = FileCheckpoint.getFileKey(file);
+				if(count == 0 && key != null && current != null
+						&& !key.equals(current))
+				{
+					// the file has been replaced, so finish
+					// the original, including anything
+					// written since its size was read,
+					// before switching
+					size = channel.size();
+					if(size > pos)
+					{
+						MappedLineReader in = new MappedLineReader(
+							channel, charset, pos, size);
+						lines += processLines(in, lp);
+					}
+
+					raf.close();
+					raf = new RandomAccessFile(file, "r");
+					key = current;
+					pos = 0;
+					continue;
+				}
+
+				long now = System.currentTimeMillis();
+				if(cpfile != null
+					&& now - lastCheckpoint >= _checkpointInterval)
+				{
+					new FileCheckpoint(pos, lines, key).store(cpfile);
+					lastCheckpoint = now;
+				}
+
+				if(count == 0 && !pause())
+					break;
+			}
+
+			if(cpfile != null)
+			{
+				new FileCheckpoint(pos, lines, key).store(cpfile);
+			}
+		}
+		finally
+		{
+			// the stop request has been handled
+			_stopping = false;
+
+			try
+			{
+				if(raf != null)
+					raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/**
+	 * This method causes {@link #followFile} to stop once it has
+	 * finished processing the lines which have already been read.
+	 * It may be called from any thread.  If it is called before
+	 * {@link #followFile} has started, the next call returns
+	 * without processing any lines.
+	 */
+
+	public void stopFollowing()
+	{
+		_stopping = true;
+	}
+
+	/**
+	 * This method sets how long to wait before checking for new
+	 * lines when following a file.
+	 *
+	 * @param millis the interval in milliseconds
+	 */
+
+	public void setPollInterval(long millis)
+	{
+		_pollInterval = millis;
+	}
+
+	/**
+	 * This method returns how long to wait before checking for
+	 * new lines when following a file.
+	 *
+	 * @return the interval in milliseconds
+	 */
+
+	public long getPollInterval()
+	{
+		return _pollInterval;
+	}
+
+	/**
+	 * This method sets how often the checkpoint is written when
+	 * following a file.
+	 *
+	 * @param millis the interval in milliseconds
+	 */
+
+	public void setCheckpointInterval(long millis)
+	{
+		_checkpointInterval = millis;
+	}
+
+	/**
+	 * This method returns how often the checkpoint is written
+	 * when following a file.
+	 *
+	 * @return the interval in milliseconds
+	 */
+
+	public long getCheckpointInterval()
+	{
+		return _checkpointInterval;
+	}
+
+	/**
+	 * This method sets the name of the file to which the line
+	 * index is written when the file is processed.  Since the
+	 * index records byte offsets, the file is read using
+	 * memory-mapped I/O while the index is built, and no index is
+	 * written if the character encoding does not represent
+	 * carriage returns and line feeds as single bytes.
+	 *
+	 * @param name the name of the index file or null if no index
+	 * 	should be written
+	 */
+
+	public void setIndexFile(String name)
+	{
+		_indexFile = name;
+	}
+
+	/**
+	 * This method returns the name of the file to which the line
+	 * index is written.
+	 *
+	 * @return the name of the index file or null
+	 */
+
+	public String getIndexFile()
+	{
+		return _indexFile;
+	}
+
+	/**
+	 * This method sets the number of lines between the offsets
+	 * recorded in a new line index.
+	 *
+	 * @param stride the number of lines
+	 */
+
+	public void setIndexStride(int stride)
+	{
+		if(stride < 1)
+		{
+			throw new IllegalArgumentException(
+				"index stride must be positive: " + stride);
+		}
+
+		_indexStride = stride;
+	}
+
+	/**
+	 * This method returns the number of lines between the offsets
+	 * recorded in a new line index.
+	 *
+	 * @return the number of lines
+	 */
+
+	public int getIndexStride()
+	{
+		return _indexStride;
+	}
+
+	/**
+	 * This method sets the name of the file in which the columnar
+	 * form of the file is cached.  Delimited processors passed to
+	 * {@link #processFile(LineProcessor)} read the cached columns
+	 * instead of parsing the text, and the cache is rebuilt when
+	 * the file changes.  Processors which parse quoted fields, such
+	 * as {@link CSVLineProcessor}, always read the file itself.
+	 *
+	 * @param name the name of the cache file or null if the file
+	 * 	should not be cached
+	 * @see #getColumnarFile
+	 */
+
+	public void setCacheFile(String name)
+	{
+		_cacheFile = name;
+	}
+
+	/**
+	 * This method returns the name of the file in which the
+	 * columnar form of the file is cached.
+	 *
+	 * @return the name of the cache file or null
+	 */
+
+	public String getCacheFile()
+	{
+		return _cacheFile;
+	}
+
+	/**
+	 * This method sets the number of threads used to decompress a
+	 * file in the blocked gzip format.  If the number of threads
+	 * is one, the file is decompressed by the reading thread.
+	 *
+	 * @param threads the number of threads
+	 */
+
+	public void setDecompressionThreads(int threads)
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException(
+				"thread count must be positive: " + threads);
+		}
+
+		_inflaters = threads;
+	}
+
+	/**
+	 * This method returns the number of threads used to
+	 * decompress a file in the blocked gzip format.
+	 *
+	 * @return the number of threads
+	 */
+
+	public int getDecompressionThreads()
+	{
+		return _inflaters;
+	}
+
+	/**
+	 * This method sets the number of batches of lines which can
+	 * be read ahead of the processing threads when the file is
+	 * processed by a pipeline.
+	 *
+	 * @param batches the number of batches
+	 * @see #setBatchSize
+	 */
+
+	public void setPipelineCapacity(int batches)
+	{
+		if(batches < 1)
+		{
+			throw new IllegalArgumentException(
+				"pipeline capacity must be positive: " + batches);
+		}
+
+		_pipelineCapacity = batches;
+	}
+
+	/**
+	 * This method returns the number of batches of lines which
+	 * can be read ahead of the processing threads.
+	 *
+	 * @return the number of batches
+	 */
+
+	public int getPipelineCapacity()
+	{
+		return _pipelineCapacity;
+	}
+
+	/**
+	 * This method is used to control whether the file is read
+	 * using memory-mapped I/O.
+	 *
+	 * @param mapped true to use memory-mapped I/O; false to use
+	 * 	the regular stream-based I/O
+	 */
+
+	public void setMemoryMapped(boolean mapped)
+	{
+		_mapped = mapped;
+	}
+
+	/**
+	 * This method indicates if the file will be read using
+	 * memory-mapped I/O.
+	 *
+	 * @return true if memory-mapped I/O is enabled
+	 */
+
+	public boolean isMemoryMapped()
+	{
+		return _mapped;
+	}
+
+	/**
+	 * This method sets the maximum number of lines passed to a
+	 * {@link BatchLineProcessor} in a single call.
+	 *
+	 * @param size the batch size
+	 */
+
+	public void setBatchSize(int size)
+	{
+		if(size < 1)
+		{
+			throw new IllegalArgumentException(
+				"batch size must be positive: " + size);
+		}
+
+		_batchSize = size;
+	}
+
+	/**
+	 * This method returns the maximum number of lines passed to a
+	 * {@link BatchLineProcessor} in a single call.
+	 *
+	 * @return the batch size
+	 */
+
+	public int getBatchSize()
+	{
+		return _batchSize;
+	}
+
+	/**
+	 * This method returns the character encoding of the file.
+	 *
+	 * @return the Charset
+	 */
+
+	Charset getCharset()
+	{
+		if(_encoding != null)
+			return Charset.forName(_encoding);
+
+		return Charset.defaultCharset();
+	}
+
+	/**
+	 * This method opens a buffered reader for the file using the
+	 * character encoding of the file.
+	 *
+	 * @return the reader
+	 * @exception IOException
+	 * 	if the file cannot be opened
+	 */
+
+	BufferedReader openReader() throws IOException
+	{
+		InputStream is = openInputStream();
+		InputStreamReader isr;
+
+		try
+		{
+			if(_encoding != null)
+				isr = new InputStreamReader(is, _encoding);
+			else
+				isr = new InputStreamReader(is);
+		}
+		catch(IOException e)
+		{
+			is.close();
+			throw e;
+		}
+
+		return new BufferedReader(isr);
+	}
+
+	/**
+	 * This method opens an input stream for the file which
+	 * decompresses the file if it is compressed using gzip.
+	 *
+	 * @return the stream
+	 * @exception IOException
+	 * 	if the file cannot be opened
+	 */
+
+	InputStream openInputStream() throws IOException
+	{
+		File file = new File(_filename);
+		boolean gzip = false;
+		boolean blocked = false;
+
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			gzip = BlockGzipInputStream.isGzip(channel, 0);
+			blocked = gzip && BlockGzipInputStream.getBlockSize(
+						channel, 0) != -1;
+		}
+		finally
+		{
+			raf.close();
+		}
+
+		if(blocked && _inflaters > 1)
+			return new BlockGzipInputStream(file, _inflaters);
+
+		FileInputStream fis = new FileInputStream(file);
+		if(!gzip)
+			return fis;
+
+		try
+		{
+			return new GZIPInputStream(fis, GZIP_BUFFER_SIZE);
+		}
+		catch(IOException e)
+		{
+			fis.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * This method checks that the results of a processor can be
+	 * merged before the file is processed by several instances.
+	 * Processors which don't implement {@link
+	 * MergeableLineProcessor} are allowed, since their results
+	 * are not merged.
+	 *
+	 * @param lp the processor
+	 * @exception UnsupportedOperationException
+	 * 	if the processor cannot be merged
+	 */
+
+	private static void checkMergeable(LineProcessor lp)
+	{
+		if(lp instanceof AbstractLineProcessor
+				&& !((AbstractLineProcessor)lp).isMergeable())
+		{
+			throw new UnsupportedOperationException(
+				lp.getClass().getName()
+				+ " instances cannot be merged");
+		}
+	}
+
+	/**
+	 * This method tells a processor that it has been given all
+	 * of its input.
+	 *
+	 * @param lp the processor
+	 * @exception Exception
+	 * 	if there was an error thrown by the processor
+	 */
+
+	private static void endOfInput(LineProcessor lp) throws Exception
+	{
+		if(lp instanceof AbstractLineProcessor)
+			((AbstractLineProcessor)lp).endOfInput();
+	}
+
+	/**
+	 * This method returns the result of a completed task,
+	 * rethrowing any exception thrown by the task.
+	 *
+	 * @param future the future for the task
+	 * @return the result of the task
+	 * @exception Exception
+	 * 	if the task threw an exception
+	 */
+
+	static Object getResult(Future future) throws Exception
+	{
+		try
+		{
+			return future.get();
+		}
+		catch(ExecutionException e)
+		{
+			Throwable t = e.getCause();
+			if(t instanceof Exception)
+				throw (Exception)t;
+			if(t instanceof Error)
+				throw (Error)t;
+			throw e;
+		}
+	}
+
+	/**
+	 * This method passes each line read from the reader to the
+	 * processor.
+	 *
+	 * @param in the reader
+	 * @param lp the LineProcessor instance
+	 * @return the number of lines processed
+	 * @exception Exception
+	 * 	if there was an error reading the file or processing
+	 * 	the lines
+	 */
+
+	private long processLines(BufferedReader in, LineProcessor lp)
+			throws Exception
+	{
+		long total = 0;
+		if(!(lp instanceof BatchLineProcessor))
+		{
+			String line = in.readLine();
+			while(line != null)
+			{
+				lp.processLine(line);
+				++total;
+				line = in.readLine();
+			}
+			return total;
+		}
+
+		BatchLineProcessor blp = (BatchLineProcessor)lp;
+		CharSequence[] lines = new CharSequence[_batchSize];
+		int count = 0;
+
+		String line = in.readLine();
+		while(line != null)
+		{
+			++total;
+			lines[count++] = line;
+			if(count == lines.length)
+			{
+				blp.processLines(lines, count);
+				count = 0;
+			}
+			line = in.readLine();
+		}
+
+		if(count > 0)
+		{
+			blp.processLines(lines, count);
+		}
+
+		return total;
+	}
+
+	/**
+	 * This method passes each line read from the mapped reader
+	 * to the processor.
+	 *
+	 * @param in the reader
+	 * @param lp the LineProcessor instance
+	 * @return the number of lines processed
+	 * @exception Exception
+	 * 	if there was an error reading the file or processing
+	 * 	the lines
+	 */
+
+	private long processLines(MappedLineReader in, LineProcessor lp)
+			throws Exception
+	{
+		return processLines(in, lp, null, Long.MAX_VALUE);
+	}
+
+	/**
+	 * This method passes each line read from the mapped reader
+	 * to the processor.  For batch processors, the lines are
+	 * decoded into a shared buffer and passed as views of the
+	 * buffer which are reused for every batch.  Delimited field
+	 * processors are passed the bytes of the line without
+	 * decoding when possible.
+	 *
+	 * @param in the reader
+	 * @param lp the LineProcessor instance
+	 * @param index the index to which the offset of each line is
+	 * 	added or null
+	 * @param limit the maximum number of lines to process
+	 * @return the number of lines processed
+	 * @exception Exception
+	 * 	if there was an error reading the file or processing
+	 * 	the lines
+	 */
+
+	private long processLines(MappedLineReader in, LineProcessor lp,
+			LineIndex index, long limit) throws Exception
+	{
+		if(lp instanceof DelimitedFieldProcessor
+				&& !(lp instanceof BatchLineProcessor)
+				&& ((DelimitedFieldProcessor)lp).canProcessText())
+		{
+			return processText(in, (DelimitedFieldProcessor)lp,
+					index, limit);
+		}
+
+		long total = 0;
+		if(!(lp instanceof BatchLineProcessor))
+		{
+			while(total < limit)
+			{
+				long pos = in.getPosition();
+				String line = in.readLine();
+				if(line == null)
+					break;
+				if(index != null)
+					index.addLine(pos);
+
+				lp.processLine(line);
+				++total;
+			}
+			return total;
+		}
+
+		BatchLineProcessor blp = (BatchLineProcessor)lp;
+		CharSequence[] lines = new CharSequence[_batchSize];
+		CharBuffer[] views = new CharBuffer[_batchSize];
+		CharBuffer buf = CharBuffer.allocate(_batchSize * 128);
+		int count = 0;
+
+		while(total < limit)
+		{
+			long pos = in.getPosition();
+			if(!in.nextLine())
+				break;
+			if(index != null)
+				index.addLine(pos);
+
+			++total;
+			int max = in.getMaxLineChars();
+			if(buf.remaining() < max)
+			{
+				if(count > 0)
+				{
+					blp.processLines(lines, count);
+					count = 0;
+				}
+
+				buf.clear();
+				if(buf.capacity() < max)
+				{
+					// the existing views refer to the old
+					// buffer, so they can't be reused
+					buf = CharBuffer.allocate(max);
+					views = new CharBuffer[_batchSize];
+				}
+			}
+
+			int start = buf.position();
+			in.decodeLine(buf);
+
+			CharBuffer view = views[count];
+			if(view == null)
+			{
+				view = buf.duplicate();
+				views[count] = view;
+			}
+			view.clear();
+			view.limit(buf.position());
+			view.position(start);
+			lines[count++] = view;
+
+			if(count == lines.length)
+			{
+				blp.processLines(lines, count);
+				count = 0;
+				buf.clear();
+			}
+		}
+
+		if(count > 0)
+		{
+			blp.processLines(lines, count);
+		}
+
+		return total;
+	}
+
+	/**
+	 * This method passes each line read from the mapped reader
+	 * to the delimited field processor.  Lines which do not need
+	 * to be decoded are passed as the bytes of the line.
+	 *
+	 * @param in the reader
+	 * @param dfp the processor
+	 * @param index the index to which the offset of each line is
+	 * 	added or null
+	 * @param limit the maximum number of lines to process
+	 * @return the number of lines processed
+	 * @exception Exception
+	 * 	if there was an error reading the file or processing
+	 * 	the lines
+	 */
+
+	private long processText(MappedLineReader in,
+			DelimitedFieldProcessor dfp, LineIndex index,
+			long limit) throws Exception
+	{
+		AsciiText text = new AsciiText();
+		long total = 0;
+		while(total < limit)
+		{
+			long pos = in.getPosition();
+			if(!in.nextLine())
+				break;
+			if(index != null)
+				index.addLine(pos);
+
+			if(in.getLineText(text))
+				dfp.processText(text);
+			else
+				dfp.processLine(in.getLine());
+			++total;
+		}
+
+		return total;
+	}
+
+	/**
+	 * This method indicates if the file is compressed using gzip.
+	 *
+	 * @return true if the file is compressed
+	 * @exception IOException
+	 * 	if the file cannot be read
+	 */
+
+	private boolean isCompressed() throws IOException
+	{
+		RandomAccessFile raf = new RandomAccessFile(_filename, "r");
+		try
+		{
+			return BlockGzipInputStream.isGzip(raf.getChannel(), 0);
+		}
+		finally
+		{
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/**
+	 * This method waits for the poll interval while following a
+	 * file.
+	 *
+	 * @return true if following should continue; false if it has
+	 * 	been stopped or the thread was interrupted
+	 */
+
+	private boolean pause()
+	{
+		try
+		{
+			Thread.sleep(_pollInterval);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+
+		return !_stopping;
+	}
+
+	/**
+	 * This method runs the reader thread and a worker thread for
+	 * each of the processors until the file has been processed or
+	 * one of the threads fails.
+	 *
+	 * @param lps the processors
+	 * @exception Exception
+	 * 	if there was an error reading the file or processing
+	 * 	the lines
+	 */
+
+	private void runPipeline(LineProcessor[] lps) throws Exception
+	{
+		final LineRing ring = new LineRing(_pipelineCapacity,
+					_batchSize);
+		ExecutorService pool = Executors.newFixedThreadPool(
+					lps.length + 1);
+
+		try
+		{
+			Future reader = pool.submit(new Callable() {
+				public Object call() throws Exception
+				{
+					try
+					{
+						readLines(ring);
+					}
+					catch(Exception e)
+					{
+						ring.abort(e);
+						throw e;
+					}
+					catch(Error e)
+					{
+						ring.abort(e);
+						throw e;
+					}
+					finally
+					{
+						ring.close();
+					}
+					return null;
+				}
+			});
+
+			Future[] workers = new Future[lps.length];
+			for(int i = 0; i < lps.length; ++i)
+			{
+				final LineProcessor lp = lps[i];
+				workers[i] = pool.submit(new Callable() {
+					public Object call() throws Exception
+					{
+						try
+						{
+							processLines(ring, lp);
+						}
+						catch(Exception e)
+						{
+							ring.abort(e);
+							throw e;
+						}
+						catch(Error e)
+						{
+							ring.abort(e);
+							throw e;
+						}
+						return null;
+					}
+				});
+			}
+
+			getResult(reader);
+			for(int i = 0; i < workers.length; ++i)
+			{
+				getResult(workers[i]);
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * This method reads the lines of the file into the batches of
+	 * the ring.
+	 *
+	 * @param ring the ring
+	 * @exception Exception
+	 * 	if there was an error reading the file
+	 */
+
+	private void readLines(LineRing ring) throws Exception
+	{
+		RandomAccessFile raf = null;
+		MappedLineReader mapped = null;
+		BufferedReader in = null;
+
+		try
+		{
+			if(_mapped && MappedLineReader.isAsciiCompatible(getCharset())
+					&& !isCompressed())
+			{
+				raf = new RandomAccessFile(_filename, "r");
+				FileChannel channel = raf.getChannel();
+				mapped = new MappedLineReader(channel,
+						getCharset(), 0, channel.size());
+			}
+			else
+			{
+				in = openReader();
+			}
+
+			LineRing.Batch batch = ring.claim();
+			while(batch != null)
+			{
+				String[] lines = batch.lines;
+				int count = 0;
+				String line = null;
+				while(count < lines.length)
+				{
+					line = (mapped != null) ? mapped.readLine()
+								: in.readLine();
+					if(line == null)
+						break;
+					lines[count++] = line;
+				}
+
+				batch.count = count;
+				ring.publish(batch);
+				if(line == null)
+					break;
+
+				batch = ring.claim();
+			}
+		}
+		finally
+		{
+			try
+			{
+				if(raf != null)
+					raf.close();
+				if(in != null)
+					in.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/**
+	 * This method passes the lines from each batch taken from the
+	 * ring to the processor.
+	 *
+	 * @param ring the ring
+	 * @param lp the LineProcessor instance
+	 * @exception Exception
+	 * 	if there was an error processing the lines
+	 */
+
+	private void processLines(LineRing ring, LineProcessor lp)
+			throws Exception
+	{
+		LineRing.Batch batch = ring.take();
+		while(batch != null)
+		{
+			try
+			{
+				if(lp instanceof BatchLineProcessor)
+				{
+					((BatchLineProcessor)lp).processLines(
+							batch.lines, batch.count);
+				}
+				else
+				{
+					for(int i = 0; i < batch.count; ++i)
+					{
+						lp.processLine(batch.lines[i]);
+					}
+				}
+			}
+			finally
+			{
+				ring.release(batch);
+			}
+
+			batch = ring.take();
+		}
+	}
+
+	/**
+	 * This method processes the file by mapping it into memory
+	 * and decoding each line directly from the mapped bytes.  If
+	 * an index file has been specified, the index is built as the
+	 * lines are read.
+	 *
+	 * @param lp the LineProcessor instance
+	 * @return the number of lines processed
+	 * @exception IOException
+	 * 	if there was an error reading the file
+	 * @exception Exception
+	 * 	if there was an error thrown by the LineProcessor
+	 */
+
+	private long processMappedFile(LineProcessor lp)
+			throws IOException, Exception
+	{
+		RandomAccessFile raf = new RandomAccessFile(_filename, "r");
+		
+		try
+		{
+			FileChannel channel = raf.getChannel();
+			MappedLineReader in = new MappedLineReader(channel,
+					getCharset(), 0, channel.size());
+			LineIndex index = null;
+			if(_indexFile != null)
+				index = new LineIndex(_indexStride);
+
+			lp.reset();
+			long count = processLines(in, lp, index, Long.MAX_VALUE);
+
+			if(index != null)
+			{
+				index.finish(new File(_filename));
+				index.store(new File(_indexFile));
+			}
+
+			return count;
+		}
+		finally
+		{
+			try
+			{
+				raf.close();
+			}
+			catch(IOException e)
+			{
+				// don't care
+			}
+		}
+	}
+
+	/** the default number of lines in a batch */
+	public static final int		DEFAULT_BATCH_SIZE = 1024;
+
+	/** the default number of batches which can be read ahead */
+	public static final int		DEFAULT_PIPELINE_CAPACITY = 16;
+
+	/** the size of the buffer used to read gzip files */
+	private static final int	GZIP_BUFFER_SIZE = 64 * 1024;
+
+	/** the smallest region processed by a separate thread */
+	private static final long	MIN_REGION_SIZE = 1024 * 1024;
+
+	/** the name of the file to process */
+	private final String	_filename;
+
+	/** the character encoding to use */
+	private final String	_encoding;
+
+	/** indicates if memory-mapped I/O should be used */
+	private boolean		_mapped = false;
+
+	/** the number of lines passed to a BatchLineProcessor */
+	private int		_batchSize = DEFAULT_BATCH_SIZE;
+
+	/** the number of batches which can be read ahead */
+	private int		_pipelineCapacity = DEFAULT_PIPELINE_CAPACITY;
+
+	/** the name of the file to which the line index is written */
+	private String		_indexFile = null;
+
+	/** the number of lines between offsets in the line index */
+	private int		_indexStride = LineIndex.DEFAULT_STRIDE;
+
+	/** the name of the file caching the columnar form of the file */
+	private String		_cacheFile = null;
+
+	/** the number of threads used to decompress BGZF files */
+	private int		_inflaters =
+				Runtime.getRuntime().availableProcessors();
+
+	/** indicates that following has been asked to stop */
+	private volatile boolean	_stopping = false;
+
+	/** the interval between checks for new lines */
+	private long		_pollInterval = 1000;
+
+	/** the interval between writing checkpoints */
+	private long		_checkpointInterval = 10000;
 }
@@ -63,6 +63,19 @@ public final class PropertyProxyTest extends TestCase
 		{
 			return false;
 		}
+
+		public String getBroken()
+		{
+			throw new IllegalStateException("broken");
+		}
+	}
+
+	private static class SubProxy extends Proxy
+	{
+		public Integer getInteger()
+		{
+			return new Integer(8);
+		}
 	}
 
 	private static final Proxy instance = new Proxy();
@@ -99,6 +112,58 @@ public final class PropertyProxyTest extends TestCase
 		}
 	}
 
+	public void testAccessor() throws Exception
+	{
+		PropertyProxy proxy = new PropertyProxy(Proxy.class);
+		PropertyAccessor accessor = proxy.getAccessor("Integer");
+		assertSame(accessor, proxy.getAccessor("Integer"));
+		assertEquals(Integer.class, accessor.getType());
+		assertEquals("getInteger", accessor.getMethod().getName());
+		assertEquals(new Integer(7), accessor.getValue(instance));
+		assertEquals(new Integer(7),
+				proxy.getPropertyValue(accessor, instance));
+
+		accessor = proxy.getAccessor("booleanvalue");
+		assertEquals(Boolean.TYPE, accessor.getType());
+		assertEquals(Boolean.FALSE, accessor.getValue(instance));
+	}
+
+	public void testBrokenProperty()
+	{
+		PropertyProxy proxy = new PropertyProxy(Proxy.class);
+		assertNull(proxy.getPropertyValue("broken", instance));
+	}
+
+	public void testWrongClass()
+	{
+		PropertyProxy proxy = new PropertyProxy(Proxy.class);
+		try
+		{
+			proxy.getPropertyValue("integer", "fred");
+			fail("expected RuntimeException");
+		}
+		catch(RuntimeException e)
+		{
+			// expected
+		}
+	}
+
+	public void testSubclass()
+	{
+		PropertyProxy proxy = new PropertyProxy(Proxy.class);
+		assertEquals(new Integer(8),
+				proxy.getPropertyValue("integer", new SubProxy()));
+		assertEquals(Boolean.FALSE,
+				proxy.getPropertyValue("booleanvalue", new SubProxy()));
+	}
+
+	public void testSharedAccessors()
+	{
+		PropertyProxy p1 = new PropertyProxy(Proxy.class);
+		PropertyProxy p2 = new PropertyProxy(Proxy.class);
+		assertSame(p1.getAccessor("integer"), p2.getAccessor("integer"));
+	}
+
 	public static void main(String[] args)
 	{
 		junit.textui.TestRunner.run(PropertyProxyTest.class);
@@ -0,0 +1,207 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FilterCompilerTest.java
+// Created:	Sun Oct 18 10:12:40 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.filter;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Unit tests for the FilterCompiler class.
+ *
+ * @version $Id$
+ * @author <a href="mailto:adz1092@yahoo.com">Andrew S. Townley</a>
+ */
+
+public final class FilterCompilerTest extends BaseFilterTest
+{
+	public FilterCompilerTest(String testname)
+	{
+		super(testname);
+	}
+
+	public void testOperators()
+	{
+		QueryOperator[] ops = new QueryOperator[] {
+			QueryOperator.LT, QueryOperator.LE,
+			QueryOperator.GT, QueryOperator.GE,
+			QueryOperator.EQ, QueryOperator.NE };
+
+		for(int i = 0; i < ops.length; ++i)
+		{
+			assertCompiled(new QueryFilter(Car.class, "topSpeed",
+					ops[i], new Integer(180)));
+		}
+	}
+
+	public void testStrings()
+	{
+		assertCompiled(_red);
+		assertCompiled(new StringFilter(Car.class, "color",
+				"RED", true));
+		assertCompiled(new StringFilter(Car.class, "color",
+				null, false));
+		assertCompiled(new SubstringFilter(Car.class, "model",
+				"Co"));
+		assertCompiled(new SubstringFilter(Car.class, "model",
+				"CO", true));
+	}
+
+	public void testLogical()
+	{
+		LogicalAndFilter inner = new LogicalAndFilter();
+		inner.addFilter(_speed);
+		inner.addFilter(new LogicalNotFilter(_yellow));
+
+		LogicalAndFilter and = new LogicalAndFilter();
+		and.addFilter(inner);
+		and.addFilter(new SubstringFilter(Car.class, "make", "chev", true));
+
+		LogicalOrFilter or = new LogicalOrFilter();
+		or.addFilter(_black);
+		or.addFilter(and);
+		or.addFilter(new LogicalNotFilter(new LogicalNotFilter(_green)));
+
+		assertCompiled(inner);
+		assertCompiled(and);
+		assertCompiled(or);
+		assertCompiled(new LogicalNotFilter(or));
+		assertEquals(or.toString(), FilterCompiler.compile(or).toString());
+	}
+
+	public void testEmpty()
+	{
+		assertCompiled(new LogicalAndFilter());
+		assertCompiled(new LogicalOrFilter());
+		assertCompiled(new LogicalNotFilter(new LogicalOrFilter()));
+	}
+
+	public void testOtherFilters()
+	{
+		Filter f = new Filter() {
+			public boolean doFilter(Object o)
+			{
+				return execute(o);
+			}
+
+			public boolean execute(Object o)
+			{
+				return ((Car)o).getTopSpeed().intValue() > 180;
+			}
+		};
+
+		assertSame(f, FilterCompiler.compile(f));
+
+		LogicalOrFilter or = new LogicalOrFilter();
+		or.addFilter(f);
+		or.addFilter(_yellow);
+		assertCompiled(or);
+
+		Filter compiled = FilterCompiler.compile(or);
+		assertSame(compiled, FilterCompiler.compile(compiled));
+	}
+
+	public void testLazyProperty()
+	{
+		// the bogus property is never evaluated for red cars
+		LogicalOrFilter or = new LogicalOrFilter();
+		or.addFilter(_red);
+		or.addFilter(new QueryFilter(Car.class, "bogus",
+				QueryOperator.EQ, new Integer(1)));
+
+		Filter f = FilterCompiler.compile(or);
+		assertTrue(f.execute(_corvette));
+		try
+		{
+			f.execute(_camaro);
+			fail("expected RuntimeException");
+		}
+		catch(RuntimeException e)
+		{
+			// expected
+		}
+	}
+
+	public void testManyChildren()
+	{
+		LogicalOrFilter or = new LogicalOrFilter();
+		for(int i = 0; i < 50; ++i)
+		{
+			or.addFilter(new QueryFilter(Car.class, "topSpeed",
+					QueryOperator.EQ, new Integer(i * 10)));
+		}
+		assertCompiled(or);
+	}
+
+	public void testWrongClass()
+	{
+		Filter f = FilterCompiler.compile(_speed);
+		try
+		{
+			f.execute("fred");
+			fail("expected RuntimeException");
+		}
+		catch(RuntimeException e)
+		{
+			// expected
+		}
+	}
+
+	private void assertCompiled(Filter filter)
+	{
+		Filter compiled = FilterCompiler.compile(filter);
+		for(Iterator i = _cars.iterator(); i.hasNext(); )
+		{
+			Object car = i.next();
+			assertEquals(filter + ": " + car, filter.execute(car),
+					compiled.execute(car));
+		}
+
+		Collection c1 = Filters.filter(_cars, filter);
+		Collection c2 = Filters.filter(_cars, compiled);
+		assertEquals(c1, c2);
+	}
+
+	public static void main(String[] args)
+	{
+		junit.textui.TestRunner.run(FilterCompilerTest.class);
+	}
+}
@@ -0,0 +1,151 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FilteredSpliteratorTest.java
+// Created:	Sun Oct 18 10:12:40 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Unit tests for the FilteredSpliterator class and the stream
+ * support of the filter package.
+ *
+ * @version $Id$
+ * @author <a href="mailto:adz1092@yahoo.com">Andrew S. Townley</a>
+ */
+
+public final class FilteredSpliteratorTest extends BaseFilterTest
+{
+	public FilteredSpliteratorTest(String testname)
+	{
+		super(testname);
+	}
+
+	public void testPredicate()
+	{
+		assertTrue(_black.test(_camaro));
+		assertFalse(_black.test(_corvette));
+		assertTrue(_black.negate().test(_corvette));
+
+		List list = (List)_cars.stream().filter(_red)
+				.collect(Collectors.toList());
+		assertEquals(Filters.filter(_cars, _red), list);
+	}
+
+	public void testCharacteristics()
+	{
+		Spliterator s = new FilteredSpliterator(
+				new ArrayList(_cars).spliterator(), _red);
+		assertTrue(s.hasCharacteristics(Spliterator.ORDERED));
+		assertFalse(s.hasCharacteristics(Spliterator.SIZED));
+		assertFalse(s.hasCharacteristics(Spliterator.SUBSIZED));
+		assertEquals(-1, s.getExactSizeIfKnown());
+		assertEquals(8, s.estimateSize());
+
+		TreeSet set = new TreeSet();
+		set.add("b");
+		set.add("a");
+		s = new FilteredSpliterator(set.spliterator(),
+				new LogicalAndFilter());
+		assertTrue(s.hasCharacteristics(Spliterator.SORTED));
+		assertTrue(s.hasCharacteristics(Spliterator.DISTINCT));
+		assertNull(s.getComparator());
+	}
+
+	public void testStream()
+	{
+		ArrayList data = new ArrayList();
+		for(int i = 0; i < 100000; ++i)
+		{
+			data.add(new Data(i, "name" + (i % 10)));
+		}
+
+		SubstringFilter filter = new SubstringFilter(Data.class,
+				"name", "7");
+		List expected = (List)Filters.filter(data, filter);
+		assertEquals(expected, Filters.stream(data, filter, false)
+				.collect(Collectors.toList()));
+		assertEquals(expected, Filters.stream(data, filter, true)
+				.collect(Collectors.toList()));
+		assertEquals(expected.subList(0, 20),
+				Filters.stream(data, filter, true).limit(20)
+					.collect(Collectors.toList()));
+	}
+
+	public void testShortCircuit()
+	{
+		final int[] count = new int[1];
+		Filter filter = new Filter() {
+			public boolean doFilter(Object o)
+			{
+				return execute(o);
+			}
+
+			public boolean execute(Object o)
+			{
+				++count[0];
+				return _red.execute(o);
+			}
+		};
+
+		assertSame(_corvette, Filters.stream(_cars, filter, false)
+				.findFirst().get());
+		assertEquals(2, count[0]);
+	}
+
+	public void testIteratorSpliterator()
+	{
+		FilteredIterator i = new FilteredIterator(_cars.iterator(),
+				_black);
+		List list = (List)StreamSupport.stream(i.spliterator(), false)
+				.collect(Collectors.toList());
+		assertEquals(Filters.filter(_cars, _black), list);
+	}
+
+	public static void main(String[] args)
+	{
+		junit.textui.TestRunner.run(FilteredSpliteratorTest.class);
+	}
+}
@@ -42,6 +42,7 @@
 package com.townleyenterprises.filter;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -143,6 +144,45 @@ public final class FiltersTest extends BaseFilterTest
 		assertEquals(0, results.size());
 	}
 
+	public void testParallelFilter()
+	{
+		ArrayList data = new ArrayList();
+		for(int i = 0; i < 100000; ++i)
+		{
+			data.add(new Data(i, "name" + (i * 7919 % 1000)));
+		}
+
+		QueryFilter filter = new QueryFilter(Data.class, "id",
+				QueryOperator.GE, new Integer(20000));
+		LogicalAndFilter and = new LogicalAndFilter();
+		and.addFilter(filter);
+		and.addFilter(new SubstringFilter(Data.class, "name", "7"));
+
+		List results = Filters.parallelFilter(data, and);
+		assertEquals(Filters.filter(data, and), results);
+
+		SortSpecification[] sort = {
+			new SortSpecification("name", SortOrder.DESCENDING),
+			new SortSpecification("id")
+		};
+
+		results = Filters.parallelFilter(data, and, sort);
+		assertEquals(Filters.filter(data, and, sort), results);
+	}
+
+	public void testParallelFilterSmall()
+	{
+		SortSpecification[] sort = {
+			new SortSpecification("make")
+		};
+
+		assertEquals(Filters.filter(_cars, _black, sort),
+				Filters.parallelFilter(_cars, _black, sort));
+		assertEquals(0, Filters.parallelFilter(_cars, _green).size());
+		assertEquals(0, Filters.parallelFilter(Collections.EMPTY_LIST,
+				_black, sort).size());
+	}
+
 	public static void main(String[] args)
 	{
 		junit.textui.TestRunner.run(FiltersTest.class);
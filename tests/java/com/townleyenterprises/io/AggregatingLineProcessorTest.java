@@ -0,0 +1,215 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	AggregatingLineProcessorTest.java
+// Created:	Sun Oct 18 06:59:48 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class AggregatingLineProcessorTest extends TestCase
+{
+	private static File createFile(int count, Map expected)
+			throws Exception
+	{
+		Random rand = new Random(11);
+		long[][] totals = new long[KEYS][4];
+		List lines = new ArrayList();
+		for(int i = 0; i < count; ++i)
+		{
+			// region|name|amount
+			int k = rand.nextInt(KEYS);
+			int amount = rand.nextInt(2000) - 1000;
+			lines.add("r" + (k % 7) + "|name" + k + "|" + amount);
+
+			long[] t = totals[k];
+			if(t[0]++ == 0)
+			{
+				t[2] = amount;
+				t[3] = amount;
+			}
+			t[1] += amount;
+			t[2] = Math.min(t[2], amount);
+			t[3] = Math.max(t[3], amount);
+		}
+
+		for(int k = 0; k < totals.length; ++k)
+		{
+			long[] t = totals[k];
+			if(t[0] == 0)
+				continue;
+			expected.put("r" + (k % 7) + "|name" + k,
+				t[0] + "|" + (double)t[1] + "|"
+				+ (double)t[2] + "|" + (double)t[3]);
+		}
+
+		return DataFiles.createFile("alp", lines);
+	}
+
+	private static Map collect(AggregatingLineProcessor lp)
+			throws Exception
+	{
+		final Map groups = new TreeMap();
+		lp.processGroups(new AggregateHandler() {
+			public void processGroup(AggregateGroup group)
+			{
+				groups.put(group.getKey(0) + "|" + group.getKey(1),
+					group.getCount() + "|" + group.getSum(0)
+					+ "|" + group.getMin(0) + "|"
+					+ group.getMax(0));
+			}
+		});
+
+		return groups;
+	}
+
+	private static AggregatingLineProcessor create()
+	{
+		return new AggregatingLineProcessor("|", new int[] { 0, 1 },
+				new int[] { 2 });
+	}
+
+	public void testInMemory() throws Exception
+	{
+		Map expected = new TreeMap();
+		File df = createFile(20000, expected);
+
+		AggregatingLineProcessor lp = create();
+		new TextFileProcessor(df.getPath()).processFile(lp);
+		assertEquals(20000, lp.getLineCount());
+		assertFalse(lp.hasSpills());
+		assertEquals(expected, collect(lp));
+	}
+
+	public void testSpilled() throws Exception
+	{
+		Map expected = new TreeMap();
+		File df = createFile(20000, expected);
+
+		File dir = DataFiles.createDirectory("alp");
+
+		AggregatingLineProcessor lp = create();
+		lp.setMemoryLimit(SPILL_LIMIT);
+		lp.setTempDirectory(dir);
+		new TextFileProcessor(df.getPath()).processFile(lp);
+		assertTrue(lp.hasSpills());
+		assertTrue(dir.list().length > 0);
+		assertEquals(expected, collect(lp));
+
+		// the spill files are deleted once they have been read
+		assertFalse(lp.hasSpills());
+		assertEquals(0, dir.list().length);
+		lp.reset();
+		assertTrue(collect(lp).isEmpty());
+	}
+
+	public void testMerged() throws Exception
+	{
+		Map expected = new TreeMap();
+		File df = createFile(20000, expected);
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.setMemoryMapped(true);
+		LineProcessor lp = fp.processFile(new LineProcessorFactory() {
+			int created = 0;
+			public LineProcessor createLineProcessor()
+			{
+				AggregatingLineProcessor alp = create();
+				if(created++ % 2 == 0)
+					alp.setMemoryLimit(SPILL_LIMIT);
+				return alp;
+			}
+		}, 4);
+		assertEquals(20000, ((AbstractLineProcessor)lp).getLineCount());
+		assertEquals(expected, collect((AggregatingLineProcessor)lp));
+	}
+
+	public void testMissingValues() throws Exception
+	{
+		File df = DataFiles.createFile("alp",
+				"a|1|x\na|3\nb\na|y\n\nb|2.5\n|4\nc|z\n");
+
+		AggregatingLineProcessor lp = new AggregatingLineProcessor("|",
+				new int[] { 0 }, new int[] { 1 });
+		new TextFileProcessor(df.getPath()).processFile(lp);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DelimitedLineWriter writer = new DelimitedLineWriter(bytes, ",");
+		writer.setLineSeparator("\n");
+		lp.writeGroups(writer);
+		writer.close();
+
+		Map lines = new TreeMap();
+		String[] split = bytes.toString("us-ascii").split("\n");
+		for(int i = 0; i < split.length; ++i)
+		{
+			lines.put(split[i].substring(0, split[i].indexOf(',')),
+				split[i]);
+		}
+		assertEquals(4, lines.size());
+		assertEquals(",1,4.0,4.0,4.0,4.0", lines.get(""));
+		assertEquals("a,3,4.0,1.0,3.0,2.0", lines.get("a"));
+		assertEquals("b,2,2.5,2.5,2.5,2.5", lines.get("b"));
+		assertEquals("c,1,0.0,,,", lines.get("c"));
+	}
+
+	// the number of distinct keys in the generated files
+	private static final int	KEYS = 5000;
+
+	// a limit which is exceeded when the table first grows
+	private static final long	SPILL_LIMIT = 150000;
+
+	public AggregatingLineProcessorTest(String testname)
+	{
+		super(testname);
+	}
+}
@@ -0,0 +1,144 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	ByteScannerTest.java
+// Created:	Sun Oct 18 06:53:51 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class ByteScannerTest extends TestCase
+{
+	private static int indexOf(ByteBuffer buf, byte b, int start,
+			int limit)
+	{
+		for(int i = start; i < limit; ++i)
+		{
+			if(buf.get(i) == b)
+				return i;
+		}
+		return -1;
+	}
+
+	private static long count(ByteBuffer buf, byte b, int start,
+			int limit)
+	{
+		long count = 0;
+		for(int i = start; i < limit; ++i)
+		{
+			if(buf.get(i) == b)
+				++count;
+		}
+		return count;
+	}
+
+	private void checkOrder(ByteOrder order)
+	{
+		Random rand = new Random(42);
+		ByteBuffer buf = ByteBuffer.allocate(100).order(order);
+		for(int n = 0; n < 2000; ++n)
+		{
+			// use a small alphabet including the bytes which
+			// would cause false matches with a borrow
+			for(int i = 0; i < buf.capacity(); ++i)
+			{
+				int r = rand.nextInt(40);
+				byte b = (byte)(r < 2 ? '\n' : r < 4 ? '\r'
+					: r < 6 ? '|' : r < 8 ? 0x0b : r < 10
+					? 0x8d : r < 12 ? 0x7c : 'a' + r);
+				buf.put(i, b);
+			}
+
+			int start = rand.nextInt(20);
+			int limit = start + rand.nextInt(80);
+
+			int lf = indexOf(buf, (byte)'\n', start, limit);
+			int cr = indexOf(buf, (byte)'\r', start, limit);
+			int expected = (lf == -1) ? cr : (cr == -1) ? lf
+					: Math.min(lf, cr);
+			assertEquals(expected, ByteScanner.indexOfLineEnd(buf,
+					start, limit));
+			assertEquals(indexOf(buf, (byte)'|', start, limit),
+				ByteScanner.indexOf(buf, (byte)'|', start, limit));
+			assertEquals(indexOf(buf, (byte)0x8d, start, limit),
+				ByteScanner.indexOf(buf, (byte)0x8d, start, limit));
+			assertEquals(count(buf, (byte)'|', start, limit),
+				ByteScanner.count(buf, (byte)'|', start, limit));
+			assertEquals(count(buf, (byte)0x0b, start, limit),
+				ByteScanner.count(buf, (byte)0x0b, start, limit));
+		}
+	}
+
+	public void testLittleEndian()
+	{
+		checkOrder(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public void testBigEndian()
+	{
+		checkOrder(ByteOrder.BIG_ENDIAN);
+	}
+
+	public void testAscii()
+	{
+		ByteBuffer buf = ByteBuffer.wrap(
+			"0123456789abcdef\u00e9xyz".getBytes(
+				StandardCharsets.UTF_8));
+		assertTrue(ByteScanner.isAscii(buf, 0, 16));
+		assertTrue(ByteScanner.isAscii(buf, 3, 12));
+		assertFalse(ByteScanner.isAscii(buf, 0, buf.capacity()));
+		assertFalse(ByteScanner.isAscii(buf, 16, 17));
+		assertTrue(ByteScanner.isAscii(buf, 18, buf.capacity()));
+	}
+
+	public ByteScannerTest(String testname)
+	{
+		super(testname);
+	}
+}
@@ -0,0 +1,227 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	CSVLineProcessorTest.java
+// Created:	Sun Oct 18 06:36:28 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class CSVLineProcessorTest extends TestCase
+{
+	private static class Processor extends CSVLineProcessor
+	{
+		public Processor()
+		{
+		}
+
+		public Processor(char delim, char quote)
+		{
+			super(delim, quote);
+		}
+
+		public void processFields(DelimitedFields fields)
+		{
+			records.add(fields.toList());
+		}
+
+		ArrayList records = new ArrayList();
+	}
+
+	public void testQuotedFile() throws Exception
+	{
+		String testdata = System.getProperty("tests.data.dir");
+		assertNotNull(testdata);
+
+		File df = new File(testdata, "quoted-file.csv");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath());
+
+		Processor lp = new Processor();
+		fp.processFile(lp);
+
+		assertEquals(8, lp.getLineCount());
+		assertEquals(5, lp.getRecordCount());
+		assertEquals(5, lp.records.size());
+
+		List rec = (List)lp.records.get(1);
+		assertEquals(3, rec.size());
+		assertEquals("1", rec.get(0));
+		assertEquals("Smith, John", rec.get(1));
+		assertEquals("said \"hi\"", rec.get(2));
+
+		rec = (List)lp.records.get(2);
+		assertEquals("plain", rec.get(1));
+		assertEquals("multi\nline\n\nfield", rec.get(2));
+
+		rec = (List)lp.records.get(3);
+		assertEquals(3, rec.size());
+		assertEquals("", rec.get(1));
+		assertEquals("", rec.get(2));
+
+		rec = (List)lp.records.get(4);
+		assertEquals("4", rec.get(0));
+		assertEquals("x\"y", rec.get(2));
+	}
+
+	public void testAlternateDelimiter() throws Exception
+	{
+		Processor lp = new Processor(';', '\'');
+		lp.processLine("'a;b';'it''s';c,d");
+
+		List rec = (List)lp.records.get(0);
+		assertEquals(3, rec.size());
+		assertEquals("a;b", rec.get(0));
+		assertEquals("it's", rec.get(1));
+		assertEquals("c,d", rec.get(2));
+	}
+
+	public void testFlush() throws Exception
+	{
+		Processor lp = new Processor();
+		lp.processLine("a,\"unterminated");
+		lp.processLine("value");
+		assertEquals(0, lp.records.size());
+
+		lp.flush();
+		assertEquals(1, lp.records.size());
+		List rec = (List)lp.records.get(0);
+		assertEquals("a", rec.get(0));
+		assertEquals("unterminated\nvalue", rec.get(1));
+
+		// nothing pending
+		lp.flush();
+		assertEquals(1, lp.records.size());
+	}
+
+	public void testStrayQuote() throws Exception
+	{
+		String testdata = System.getProperty("tests.data.dir");
+		File df = new File(testdata, "stray-quote.csv");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath());
+
+		// the open record is processed at the end of the input
+		Processor lp = new Processor();
+		fp.processFile(lp);
+		assertEquals(5, lp.getLineCount());
+		assertEquals(3, lp.getRecordCount());
+		List rec = (List)lp.records.get(2);
+		assertEquals("2", rec.get(0));
+		assertEquals("stray\n3,x\n4,y", rec.get(1));
+
+		lp = new Processor();
+		fp.processFilePipelined(lp);
+		assertEquals(3, lp.records.size());
+		assertEquals(rec, lp.records.get(2));
+	}
+
+	public void testColumnProjection() throws Exception
+	{
+		Processor lp = new Processor();
+		lp.setColumns(new int[] { 1 });
+		lp.processLine("skip,\"keep, this\",\"ignored");
+		lp.processLine("also\",ignored\"");
+		lp.processLine("x,y,z");
+
+		assertEquals(2, lp.getRecordCount());
+		List rec = (List)lp.records.get(0);
+		assertEquals(2, rec.size());
+		assertEquals("", rec.get(0));
+		assertEquals("keep, this", rec.get(1));
+
+		rec = (List)lp.records.get(1);
+		assertEquals(2, rec.size());
+		assertEquals("y", rec.get(1));
+	}
+
+	public void testParallelRefused() throws Exception
+	{
+		// large enough to be split into several regions
+		List lines = new ArrayList();
+		for(int i = 0; i < 300000; ++i)
+			lines.add(i + ",\"x\ny\"");
+		File df = DataFiles.createFile("csv", lines);
+
+		final Processor lp = new Processor();
+		LineProcessorFactory factory = new LineProcessorFactory() {
+			public LineProcessor createLineProcessor()
+			{
+				return lp;
+			}
+		};
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		try
+		{
+			fp.processFile(factory, 4);
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+
+		try
+		{
+			fp.processFilePipelined(factory, 2);
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+		assertEquals(0, lp.getRecordCount());
+		assertTrue(lp.records.isEmpty());
+	}
+
+	public CSVLineProcessorTest(String testname)
+	{
+		super(testname);
+	}
+}
@@ -0,0 +1,357 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	ColumnarFileTest.java
+// Created:	Sun Oct 18 07:08:14 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class ColumnarFileTest extends TestCase
+{
+	private static class Recorder extends DelimitedFieldProcessor
+	{
+		Recorder(int[] columns)
+		{
+			super("|", columns);
+		}
+
+		public void processFields(DelimitedFields fields)
+		{
+			lines.add(fields.getText().toString());
+			items.add(fields.toList());
+			if(fields.size() > 2)
+			{
+				sum += fields.getDouble(2);
+				assertEquals(DelimitedFields.PARSE_OK,
+						fields.getStatus());
+			}
+		}
+
+		List lines = new ArrayList();
+		List items = new ArrayList();
+		double sum = 0;
+	}
+
+	private static File createFile(int count) throws Exception
+	{
+		Random rand = new Random(3);
+		List lines = new ArrayList();
+		for(int i = 0; i < count; ++i)
+		{
+			if(i % 1000 == 999)
+			{
+				lines.add("");
+				continue;
+			}
+
+			// name|quantity|price|code|note
+			String line = "name" + rand.nextInt(100) + "|"
+				+ (rand.nextInt(2000) - 1000) + "|"
+				+ (rand.nextInt(100000) - 50000) / 100 + "."
+				+ (10 + rand.nextInt(90)) + "|"
+				+ (i == 5 ? "007" : String.valueOf(i));
+			if(i % 7 != 0)
+				line += "|note " + (i % 13);
+			lines.add(line);
+		}
+
+		return DataFiles.createFile("cfile", lines);
+	}
+
+	private static File createCache() throws Exception
+	{
+		File cache = DataFiles.createTempFile("cfile", ".col");
+		cache.delete();
+		return cache;
+	}
+
+	public void testProcess() throws Exception
+	{
+		File df = createFile(40000);
+		File cache = createCache();
+
+		Recorder expected = new Recorder(null);
+		new TextFileProcessor(df.getPath()).processFile(expected);
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.setCacheFile(cache.getPath());
+		Recorder built = new Recorder(null);
+		fp.processFile(built);
+		assertTrue(cache.exists());
+
+		Recorder cached = new Recorder(null);
+		fp.processFile(cached);
+
+		assertEquals(expected.getLineCount(), built.getLineCount());
+		assertEquals(expected.getLineCount(), cached.getLineCount());
+		assertEquals(expected.lines, built.lines);
+		assertEquals(expected.lines, cached.lines);
+		assertEquals(expected.items, cached.items);
+		assertEquals(expected.sum, cached.sum, 0);
+
+		// only the columns up to the last one required are split
+		Recorder projected = new Recorder(new int[] { 0, 2 });
+		fp.processFile(projected);
+		assertEquals(expected.lines, projected.lines);
+		for(int i = 0; i < projected.items.size(); ++i)
+		{
+			assertEquals(3, ((List)projected.items.get(i)).size());
+		}
+		assertEquals(expected.sum, projected.sum, 0);
+	}
+
+	public void testOverriddenProcessLine() throws Exception
+	{
+		File df = createFile(3000);
+		File cache = createCache();
+
+		final List expected = new ArrayList();
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.processFile(new LineProcessor() {
+			public void processLine(String line)
+			{
+				expected.add(line);
+			}
+
+			public void reset()
+			{
+			}
+		});
+
+		final List lines = new ArrayList();
+		fp.setCacheFile(cache.getPath());
+		fp.getColumnarFile("|");
+		DelimitedLineProcessor lp = new DelimitedLineProcessor("|") {
+			public void processLine(String line) throws Exception
+			{
+				lines.add(line);
+				super.processLine(line);
+			}
+
+			public void processItems(List items)
+			{
+			}
+		};
+		fp.processFile(lp);
+		assertEquals(expected, lines);
+		assertEquals(3000, lp.getLineCount());
+	}
+
+	public void testColumns() throws Exception
+	{
+		File df = createFile(40000);
+		File cache = createCache();
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.setCacheFile(cache.getPath());
+		ColumnarFile cf = fp.getColumnarFile("|");
+
+		assertEquals(40000, cf.getRowCount());
+		assertEquals(5, cf.getColumnCount());
+		assertEquals(ColumnType.STRING, cf.getColumnType(0));
+		assertEquals(ColumnType.INTEGER, cf.getColumnType(1));
+		assertEquals(ColumnType.DECIMAL, cf.getColumnType(2));
+		assertEquals(2, cf.getScale(2));
+		assertEquals(ColumnType.STRING, cf.getColumnType(3));
+		assertEquals(ColumnType.STRING, cf.getColumnType(4));
+		assertEquals(3, cf.getBlockCount());
+
+		assertEquals(0, cf.getFieldCount(999));
+		assertEquals(4, cf.getFieldCount(0));
+		assertEquals(5, cf.getFieldCount(1));
+		assertFalse(cf.isPresent(4, 7));
+		assertNull(cf.getString(4, 7));
+		assertEquals("007", cf.getString(3, 5));
+		assertEquals("note 1", cf.getString(4, 1));
+
+		// the codes overflow the dictionary after the first block
+		assertTrue(40000 > ColumnarBuilder.MAX_DICTIONARY_SIZE);
+		assertEquals("30000", cf.getString(3, 30000));
+		assertEquals("39998", cf.getString(3, 39998));
+		assertNull(cf.getString(3, 39999));
+
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		for(long row = 0; row < cf.getBlockSize(); ++row)
+		{
+			if(!cf.isPresent(2, row))
+				continue;
+
+			double d = cf.getDouble(2, row);
+			assertEquals(cf.getLong(2, row), Math.round(d * 100));
+			assertEquals(d, Double.parseDouble(cf.getString(2, row)),
+					0);
+			min = Math.min(min, d);
+			max = Math.max(max, d);
+		}
+		assertEquals(min, cf.getMin(0, 2), 0);
+		assertEquals(max, cf.getMax(0, 2), 0);
+		assertTrue(Double.isNaN(cf.getMin(0, 0)));
+
+		try
+		{
+			cf.getLong(0, 0);
+			fail("expected IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	public void testRebuilt() throws Exception
+	{
+		File df = createFile(100);
+		File cache = createCache();
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.setCacheFile(cache.getPath());
+		assertEquals(100, fp.getColumnarFile("|").getRowCount());
+
+		// a different delimiter requires a new cache file
+		ColumnarFile cf = fp.getColumnarFile(",");
+		assertEquals(1, cf.getColumnCount());
+		assertEquals(",", cf.getDelimiter());
+
+		Writer out = new FileWriter(df, true);
+		out.write("extra|1|2.00|3\n");
+		out.close();
+		df.setLastModified(df.lastModified() + 2000);
+
+		cf = fp.getColumnarFile("|");
+		assertTrue(cf.isCurrent(df));
+		assertEquals(101, cf.getRowCount());
+		assertEquals("extra", cf.getString(0, 100));
+	}
+
+	public void testDamaged() throws Exception
+	{
+		File df = createFile(100);
+		File cache = createCache();
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.setCacheFile(cache.getPath());
+		fp.getColumnarFile("|");
+		assertFalse(new File(cache.getPath() + ".tmp").exists());
+
+		// truncate the cache as if the writer had been killed
+		RandomAccessFile raf = new RandomAccessFile(cache, "rw");
+		raf.setLength(raf.length() / 2);
+		raf.close();
+
+		try
+		{
+			ColumnarFile.load(cache);
+			fail("expected IOException");
+		}
+		catch(IOException e)
+		{
+			// expected
+		}
+
+		Recorder lp = new Recorder(null);
+		fp.processFile(lp);
+		assertEquals(100, lp.lines.size());
+		assertEquals(100, ColumnarFile.load(cache).getRowCount());
+	}
+
+	public void testQuotedFields() throws Exception
+	{
+		File df = DataFiles.createFile("cfile",
+				"1,\"Smith, John\"\n2,\"multi\nline\"\n3,x\n");
+		File cache = createCache();
+
+		final List records = new ArrayList();
+		CSVLineProcessor lp = new CSVLineProcessor() {
+			public void processFields(DelimitedFields fields)
+			{
+				records.add(fields.toList());
+			}
+		};
+
+		// quoted fields are not split on the delimiter by the cache
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		fp.setCacheFile(cache.getPath());
+		fp.processFile(lp);
+		assertEquals(3, lp.getRecordCount());
+		assertEquals(2, ((List)records.get(0)).size());
+		assertEquals("Smith, John", ((List)records.get(0)).get(1));
+		assertEquals("multi\nline", ((List)records.get(1)).get(1));
+		assertEquals("x", ((List)records.get(2)).get(1));
+		assertFalse(cache.exists());
+	}
+
+	public void testScale()
+	{
+		assertEquals(0, ColumnarFile.getScale("0", 0, 1));
+		assertEquals(0, ColumnarFile.getScale("-12", 0, 3));
+		assertEquals(2, ColumnarFile.getScale("-0.05", 0, 5));
+		assertEquals(-1, ColumnarFile.getScale("-0", 0, 2));
+		assertEquals(-1, ColumnarFile.getScale("-0.00", 0, 5));
+		assertEquals(-1, ColumnarFile.getScale("01", 0, 2));
+		assertEquals(-1, ColumnarFile.getScale("1.", 0, 2));
+		assertEquals(-1, ColumnarFile.getScale(".5", 0, 2));
+		assertEquals(-1, ColumnarFile.getScale("+1", 0, 2));
+		assertEquals(-1, ColumnarFile.getScale("1e5", 0, 3));
+		assertEquals(-1, ColumnarFile.getScale("", 0, 0));
+		assertEquals(-1, ColumnarFile.getScale("1234567890123456789",
+				0, 19));
+		assertEquals(-505, ColumnarFile.getUnscaled("-5.05", 0, 5));
+	}
+
+	public ColumnarFileTest(String testname)
+	{
+		super(testname);
+	}
+}
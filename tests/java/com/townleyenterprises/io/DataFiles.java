@@ -0,0 +1,194 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DataFiles.java
+// Created:	Sun Oct 18 07:45:15 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class supports the unit tests for the io package by creating
+ * and reading the temporary files they use.  All of the files are
+ * deleted when the tests exit.
+ *
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+final class DataFiles
+{
+	private DataFiles()
+	{
+	}
+
+	/**
+	 * This method creates an empty temporary file.
+	 *
+	 * @param prefix the prefix of the file name
+	 * @param suffix the suffix of the file name
+	 * @return the file
+	 */
+
+	static File createTempFile(String prefix, String suffix)
+			throws IOException
+	{
+		File file = File.createTempFile(prefix, suffix);
+		file.deleteOnExit();
+
+		return file;
+	}
+
+	/**
+	 * This method creates a temporary text file.
+	 *
+	 * @param prefix the prefix of the file name
+	 * @param text the contents of the file
+	 * @return the file
+	 */
+
+	static File createFile(String prefix, String text) throws IOException
+	{
+		File file = createTempFile(prefix, ".txt");
+		Writer out = new FileWriter(file);
+		try
+		{
+			out.write(text);
+		}
+		finally
+		{
+			out.close();
+		}
+
+		return file;
+	}
+
+	/**
+	 * This method creates a temporary text file containing each
+	 * of the lines followed by a newline.
+	 *
+	 * @param prefix the prefix of the file name
+	 * @param lines the lines
+	 * @return the file
+	 */
+
+	static File createFile(String prefix, List lines) throws IOException
+	{
+		File file = createTempFile(prefix, ".txt");
+		Writer out = new BufferedWriter(new FileWriter(file));
+		try
+		{
+			for(int i = 0; i < lines.size(); ++i)
+			{
+				out.write((String)lines.get(i));
+				out.write("\n");
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+
+		return file;
+	}
+
+	/**
+	 * This method creates an empty temporary directory.
+	 *
+	 * @param prefix the prefix of the directory name
+	 * @return the directory
+	 */
+
+	static File createDirectory(String prefix) throws IOException
+	{
+		File dir = File.createTempFile(prefix, ".dir");
+		dir.delete();
+		dir.mkdir();
+		dir.deleteOnExit();
+
+		return dir;
+	}
+
+	/**
+	 * This method deletes a directory and the files in it.
+	 *
+	 * @param dir the directory
+	 */
+
+	static void deleteDirectory(File dir)
+	{
+		File[] files = dir.listFiles();
+		for(int i = 0; i < files.length; ++i)
+			files[i].delete();
+		dir.delete();
+	}
+
+	/**
+	 * This method reads the lines of a file.
+	 *
+	 * @param file the file
+	 * @return the lines without their terminators
+	 */
+
+	static List readLines(File file) throws IOException
+	{
+		List lines = new ArrayList();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try
+		{
+			String line;
+			while((line = in.readLine()) != null)
+				lines.add(line);
+		}
+		finally
+		{
+			in.close();
+		}
+
+		return lines;
+	}
+}
@@ -0,0 +1,180 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedFieldsTest.java
+// Created:	Sun Oct 18 06:38:36 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.text.SimpleDateFormat;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class DelimitedFieldsTest extends TestCase
+{
+	private DelimitedFields split(String line)
+	{
+		final DelimitedFields[] result = new DelimitedFields[1];
+		DelimitedFieldProcessor lp = new DelimitedFieldProcessor("|") {
+			public void processFields(DelimitedFields fields)
+			{
+				result[0] = fields;
+			}
+		};
+
+		try
+		{
+			lp.processLine(line);
+		}
+		catch(Exception e)
+		{
+			fail(e.toString());
+		}
+
+		return result[0];
+	}
+
+	public void testInt()
+	{
+		DelimitedFields f = split("42|-17|+3|2147483647|-2147483648|2147483648|12a||-");
+
+		assertEquals(42, f.getInt(0));
+		assertEquals(DelimitedFields.PARSE_OK, f.getStatus());
+		assertEquals(-17, f.getInt(1));
+		assertEquals(3, f.getInt(2));
+		assertEquals(Integer.MAX_VALUE, f.getInt(3));
+		assertEquals(Integer.MIN_VALUE, f.getInt(4));
+		assertEquals(DelimitedFields.PARSE_OK, f.getStatus());
+
+		assertEquals(0, f.getInt(5));
+		assertEquals(DelimitedFields.PARSE_OVERFLOW, f.getStatus());
+		assertEquals(0, f.getInt(6));
+		assertEquals(DelimitedFields.PARSE_INVALID, f.getStatus());
+		assertEquals(0, f.getInt(7));
+		assertEquals(DelimitedFields.PARSE_EMPTY, f.getStatus());
+		assertEquals(0, f.getInt(8));
+		assertEquals(DelimitedFields.PARSE_INVALID, f.getStatus());
+		assertEquals(0, f.getInt(9));
+		assertEquals(DelimitedFields.PARSE_MISSING, f.getStatus());
+	}
+
+	public void testLong()
+	{
+		DelimitedFields f = split("9223372036854775807|-9223372036854775808|9223372036854775808");
+
+		assertEquals(Long.MAX_VALUE, f.getLong(0));
+		assertEquals(Long.MIN_VALUE, f.getLong(1));
+		assertEquals(DelimitedFields.PARSE_OK, f.getStatus());
+		assertEquals(0, f.getLong(2));
+		assertEquals(DelimitedFields.PARSE_OVERFLOW, f.getStatus());
+	}
+
+	public void testDouble()
+	{
+		String[] values = { "0", "-0", "1.5", "-273.15", ".25", "1.",
+			"3.14159265358979", "1e10", "1.5E-7", "123456789012345678901",
+			"0.1", "0.000001234", "1e300", "NaN", "-Infinity", "17" };
+
+		StringBuffer buf = new StringBuffer();
+		for(int i = 0; i < values.length; ++i)
+		{
+			if(i > 0)
+				buf.append('|');
+			buf.append(values[i]);
+		}
+
+		DelimitedFields f = split(buf.toString());
+		for(int i = 0; i < values.length; ++i)
+		{
+			double expected = Double.parseDouble(values[i]);
+			assertEquals(values[i], Double.doubleToLongBits(expected),
+				Double.doubleToLongBits(f.getDouble(i)));
+			assertEquals(DelimitedFields.PARSE_OK, f.getStatus());
+		}
+
+		f = split("1.2.3|e5|1e|--1");
+		for(int i = 0; i < f.size(); ++i)
+		{
+			assertEquals(0.0, f.getDouble(i), 0.0);
+			assertEquals(DelimitedFields.PARSE_INVALID, f.getStatus());
+		}
+	}
+
+	public void testDate() throws Exception
+	{
+		DelimitedFields f = split("2005-02-28 13:45:01|28/2/2005|2005-02-29 00:00:00|2005-13-01 00:00:00|2005-02-28");
+
+		SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		assertEquals(sdf.parse("2005-02-28 13:45:01").getTime(),
+				f.getDate(0, "yyyy-MM-dd HH:mm:ss"));
+		assertEquals(DelimitedFields.PARSE_OK, f.getStatus());
+
+		sdf = new SimpleDateFormat("d/M/yyyy");
+		assertEquals(sdf.parse("28/2/2005").getTime(),
+				f.getDate(1, "d/M/yyyy"));
+		assertEquals(DelimitedFields.PARSE_OK, f.getStatus());
+
+		// not a leap year
+		assertEquals(0, f.getDate(2, "yyyy-MM-dd HH:mm:ss"));
+		assertEquals(DelimitedFields.PARSE_INVALID, f.getStatus());
+		assertEquals(0, f.getDate(3, "yyyy-MM-dd HH:mm:ss"));
+		assertEquals(DelimitedFields.PARSE_INVALID, f.getStatus());
+		assertEquals(0, f.getDate(4, "yyyy-MM-dd HH:mm:ss"));
+		assertEquals(DelimitedFields.PARSE_INVALID, f.getStatus());
+
+		try
+		{
+			f.getDate(0, "yyyy-MM-dd EEE");
+			fail("expected IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	public DelimitedFieldsTest(String testname)
+	{
+		super(testname);
+	}
+}
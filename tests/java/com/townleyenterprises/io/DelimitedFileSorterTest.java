@@ -0,0 +1,215 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedFileSorterTest.java
+// Created:	Sun Oct 18 06:55:57 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.townleyenterprises.filter.SortOrder;
+import com.townleyenterprises.filter.SortSpecification;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class DelimitedFileSorterTest extends TestCase
+{
+	private static File createFile(int count) throws Exception
+	{
+		Random rand = new Random(7);
+		List lines = new ArrayList();
+		for(int i = 0; i < count; ++i)
+		{
+			// name|amount|sequence
+			lines.add("name" + rand.nextInt(50) + "|"
+				+ (rand.nextInt(2000) - 1000) + "|" + i);
+		}
+
+		return DataFiles.createFile("dfs", lines);
+	}
+
+	private static final Comparator EXPECTED = new Comparator() {
+		public int compare(Object o1, Object o2)
+		{
+			String[] f1 = ((String)o1).split("\\|");
+			String[] f2 = ((String)o2).split("\\|");
+			int rc = f1[0].compareTo(f2[0]);
+			if(rc == 0)
+			{
+				rc = Integer.parseInt(f2[1])
+					- Integer.parseInt(f1[1]);
+			}
+			return rc;
+		}
+	};
+
+	private void checkSort(int count, int runSize) throws Exception
+	{
+		File df = createFile(count);
+		File sorted = DataFiles.createTempFile("dfs", ".out");
+
+		DelimitedFileSorter sorter = new DelimitedFileSorter("|",
+			new SortSpecification[] {
+				new SortSpecification("0"),
+				new SortSpecification("1", SortOrder.DESCENDING) });
+		sorter.setNumericColumns(new int[] { 1 });
+		sorter.setRunSize(runSize);
+		sorter.setMergeFactor(4);
+		sorter.setThreads(3);
+
+		assertEquals(count, sorter.sort(df.getPath(), sorted.getPath(),
+				"us-ascii"));
+
+		// Collections.sort is stable, so the sequence numbers of
+		// lines with equal keys must match
+		List expected = DataFiles.readLines(df);
+		Collections.sort(expected, EXPECTED);
+		assertEquals(expected, DataFiles.readLines(sorted));
+	}
+
+	public void testInMemory() throws Exception
+	{
+		checkSort(5000, 10000);
+	}
+
+	public void testExternal() throws Exception
+	{
+		// 23 runs with a merge factor of four requires several
+		// merge passes
+		checkSort(22500, 1000);
+	}
+
+	public void testMissingColumns() throws Exception
+	{
+		File df = DataFiles.createFile("dfs", "b|2\na\nc|x\n\nd|1\n");
+		File sorted = DataFiles.createTempFile("dfs", ".out");
+
+		DelimitedFileSorter sorter = new DelimitedFileSorter("|",
+			new SortSpecification[] { new SortSpecification("1") });
+		sorter.setNumericColumns(new int[] { 1 });
+		sorter.setRunSize(2);
+		sorter.sort(df.getPath(), sorted.getPath(), null);
+
+		List lines = DataFiles.readLines(sorted);
+		assertEquals(5, lines.size());
+		assertEquals("a", lines.get(0));
+		assertEquals("c|x", lines.get(1));
+		assertEquals("", lines.get(2));
+		assertEquals("d|1", lines.get(3));
+		assertEquals("b|2", lines.get(4));
+	}
+
+	public void testMissingColumnsDescending() throws Exception
+	{
+		File df = DataFiles.createFile("dfs", "b|2\na\nc|x\n\nd|1\n");
+		File sorted = DataFiles.createTempFile("dfs", ".out");
+
+		// missing keys still sort first
+		DelimitedFileSorter sorter = new DelimitedFileSorter("|",
+			new SortSpecification[] { new SortSpecification("1",
+				SortOrder.DESCENDING) });
+		sorter.setNumericColumns(new int[] { 1 });
+		sorter.sort(df.getPath(), sorted.getPath(), null);
+
+		List lines = DataFiles.readLines(sorted);
+		assertEquals(5, lines.size());
+		assertEquals("a", lines.get(0));
+		assertEquals("c|x", lines.get(1));
+		assertEquals("", lines.get(2));
+		assertEquals("b|2", lines.get(3));
+		assertEquals("d|1", lines.get(4));
+	}
+
+	public void testFailureRemovesRuns() throws Exception
+	{
+		File df = createFile(22500);
+		File dir = DataFiles.createDirectory("dfs");
+
+		DelimitedFileSorter sorter = new DelimitedFileSorter("|",
+			new SortSpecification[] { new SortSpecification("0") });
+		sorter.setRunSize(1000);
+		sorter.setMergeFactor(4);
+		sorter.setTempDirectory(dir);
+
+		// the output can't be created
+		File sorted = new File(new File(dir, "missing"), "out");
+		try
+		{
+			sorter.sort(df.getPath(), sorted.getPath(), null);
+			fail("expected IOException");
+		}
+		catch(IOException e)
+		{
+			// expected
+		}
+
+		assertEquals(0, dir.listFiles().length);
+		dir.delete();
+	}
+
+	public void testInvalidProperty()
+	{
+		try
+		{
+			new DelimitedFileSorter("|", new SortSpecification[] {
+				new SortSpecification("name") });
+			fail("expected IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	public DelimitedFileSorterTest(String testname)
+	{
+		super(testname);
+	}
+}
@@ -42,6 +42,7 @@
 package com.townleyenterprises.io;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,6 +68,34 @@ public final class DelimitedLineProcessorTest extends TestCase
 		}
 	}
 
+	private static class FieldProcessor extends DelimitedFieldProcessor
+	{
+		public FieldProcessor(String del)
+		{
+			super(del);
+		}
+
+		public void processFields(DelimitedFields fields)
+		{
+			// the same instances must be reused for each line
+			if(last != null)
+			{
+				assertSame(last, fields);
+				assertSame(lastField, fields.getField(0));
+			}
+			last = fields;
+			lastField = fields.getField(0);
+
+			counts.add(new Integer(fields.size()));
+			seconds.add(fields.getField(1).toString());
+		}
+
+		DelimitedFields last = null;
+		CharSequence lastField = null;
+		ArrayList counts = new ArrayList();
+		ArrayList seconds = new ArrayList();
+	}
+
 	protected void setUp() throws Exception
 	{
 		String testdata = System.getProperty("tests.data.dir");
@@ -133,6 +162,152 @@ public final class DelimitedLineProcessorTest extends TestCase
 		assertEquals("token", line.get(6));
 	}
 
+	public void testFieldProcessor() throws Exception
+	{
+		String testdata = System.getProperty("tests.data.dir");
+		File df = new File(testdata, "delimited-file.txt");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath());
+
+		FieldProcessor lp = new FieldProcessor("|");
+		fp.processFile(lp);
+
+		assertEquals(5, lp.getLineCount());
+		assertEquals(5, lp.counts.size());
+		assertEquals(new Integer(7), lp.counts.get(0));
+		assertEquals(new Integer(5), lp.counts.get(1));
+		assertEquals(new Integer(7), lp.counts.get(3));
+		assertEquals("this", lp.seconds.get(0));
+		assertEquals("is", lp.seconds.get(1));
+		assertEquals("line", lp.seconds.get(3));
+		assertEquals("", lp.seconds.get(4));
+	}
+
+	public void testFieldAccess() throws Exception
+	{
+		final DelimitedFields[] result = new DelimitedFields[1];
+		DelimitedFieldProcessor lp = new DelimitedFieldProcessor("::") {
+			public void processFields(DelimitedFields fields)
+			{
+				result[0] = fields;
+			}
+		};
+
+		lp.processLine("::one:two::three::");
+		DelimitedFields fields = result[0];
+
+		assertEquals(4, fields.size());
+		assertEquals(0, fields.getLength(0));
+		assertEquals("one:two", fields.getString(1));
+		assertEquals(2, fields.getStart(1));
+		assertEquals(9, fields.getEnd(1));
+		assertTrue(fields.fieldEquals(2, "three"));
+		assertFalse(fields.fieldEquals(2, "thre"));
+		assertEquals("", fields.getString(3));
+
+		CharSequence f = fields.getField(1);
+		assertEquals(7, f.length());
+		assertEquals(':', f.charAt(3));
+		assertEquals("two", f.subSequence(4, 7).toString());
+
+		try
+		{
+			fields.getField(4);
+			fail("expected IndexOutOfBoundsException");
+		}
+		catch(IndexOutOfBoundsException e)
+		{
+			// expected
+		}
+	}
+
+	public void testColumnProjection() throws Exception
+	{
+		final ArrayList result = new ArrayList();
+		DelimitedLineProcessor lp = new DelimitedLineProcessor("|",
+				new int[] { 3, 1 }) {
+			public void processItems(List list)
+			{
+				result.add(list);
+			}
+		};
+
+		lp.processLine("a|b|c|d|e|f");
+		lp.processLine("a|b");
+
+		List line = (List)result.get(0);
+		assertEquals(4, line.size());
+		assertNull(line.get(0));
+		assertEquals("b", line.get(1));
+		assertNull(line.get(2));
+		assertEquals("d", line.get(3));
+
+		// short lines are not padded
+		line = (List)result.get(1);
+		assertEquals(2, line.size());
+		assertEquals("b", line.get(1));
+
+		assertEquals(2, lp.getLineCount());
+
+		try
+		{
+			lp.setColumns(new int[0]);
+			fail("expected IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+		assertEquals(3, lp.getLastColumn());
+	}
+
+	public void testMappedFields() throws Exception
+	{
+		File df = File.createTempFile("dlp", ".txt");
+		df.deleteOnExit();
+
+		StringBuffer text = new StringBuffer();
+		for(int i = 0; i < 1000; ++i)
+		{
+			text.append(i).append('|');
+			text.append((i % 7 == 0) ? "caf\u00e9" : "cafe");
+			for(int j = 0; j < i % 23; ++j)
+				text.append("|x").append(j);
+			text.append((i % 2 == 0) ? "\n" : "\r\n");
+		}
+		FileOutputStream out = new FileOutputStream(df);
+		out.write(text.toString().getBytes("UTF-8"));
+		out.close();
+
+		final ArrayList[] results = new ArrayList[2];
+		for(int mode = 0; mode < 2; ++mode)
+		{
+			final ArrayList result = new ArrayList();
+			results[mode] = result;
+			DelimitedFieldProcessor lp = new DelimitedFieldProcessor(
+					"|", new int[] { 0, 1, 12 }) {
+				public void processFields(DelimitedFields fields)
+				{
+					result.add(new Integer(fields.getInt(0)));
+					result.add(fields.getString(1));
+					result.add(new Integer(fields.size()));
+					if(fields.size() > 12)
+						result.add(fields.getString(12));
+				}
+			};
+
+			TextFileProcessor fp = new TextFileProcessor(
+					df.getAbsolutePath(), "UTF-8");
+			fp.setMemoryMapped(mode == 1);
+			fp.processFile(lp);
+			assertEquals(1000, lp.getLineCount());
+		}
+
+		assertEquals(results[0], results[1]);
+		assertEquals("caf\u00e9", results[1].get(1));
+		assertEquals("cafe", results[1].get(4));
+	}
+
 	public DelimitedLineProcessorTest(String testname)
 	{
 		super(testname);
@@ -0,0 +1,175 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DelimitedLineWriterTest.java
+// Created:	Sun Oct 18 06:47:55 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class DelimitedLineWriterTest extends TestCase
+{
+	private ByteArrayOutputStream _bytes;
+
+	private DelimitedLineWriter createWriter(String delim)
+	{
+		_bytes = new ByteArrayOutputStream();
+		DelimitedLineWriter out = new DelimitedLineWriter(_bytes,
+				"UTF-8", delim);
+		out.setLineSeparator("\n");
+		return out;
+	}
+
+	private String getOutput(DelimitedLineWriter out) throws Exception
+	{
+		out.close();
+		return new String(_bytes.toByteArray(), "UTF-8");
+	}
+
+	public void testNumbers() throws Exception
+	{
+		DelimitedLineWriter out = createWriter(",");
+		out.writeField(0);
+		out.writeField(-42);
+		out.writeField(Integer.MIN_VALUE);
+		out.writeField(Long.MAX_VALUE);
+		out.writeField(Long.MIN_VALUE);
+		out.endLine();
+		out.writeField(3.14159, 2);
+		out.writeField(-2.5, 0);
+		out.writeField(-0.001, 2);
+		out.writeField(0.05, 3);
+		out.writeField(1e20, 1);
+		out.writeField(Double.NaN, 2);
+		out.writeField(1.5);
+		out.endLine();
+
+		assertEquals("0,-42,-2147483648,9223372036854775807,"
+			+ "-9223372036854775808\n"
+			+ "3.14,-3,0.00,0.050,100000000000000000000.0,NaN,1.5\n",
+			getOutput(out));
+		assertEquals(2, out.getLineCount());
+	}
+
+	public void testQuoting() throws Exception
+	{
+		DelimitedLineWriter out = createWriter(",");
+		out.writeField("plain");
+		out.writeField("a,b");
+		out.writeField("say \"hi\"");
+		out.writeField("two\nlines");
+		out.writeField((CharSequence)null);
+		out.endLine();
+		out.setQuotePolicy(QuotePolicy.ALWAYS);
+		out.writeField("x");
+		out.writeField(1);
+		out.endLine();
+		out.setQuotePolicy(QuotePolicy.NEVER);
+		out.writeField("a,b");
+		out.endLine();
+
+		assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\n"
+			+ "\"x\",1\na,b\n", getOutput(out));
+	}
+
+	public void testMultiCharDelimiter() throws Exception
+	{
+		DelimitedLineWriter out = createWriter("||");
+		List items = new ArrayList();
+		items.add("a|b");
+		items.add(new Integer(7));
+		items.add(null);
+		items.add("c||d");
+		out.writeLine(items);
+
+		assertEquals("a|b||7||||\"c||d\"\n", getOutput(out));
+	}
+
+	public void testLargeOutput() throws Exception
+	{
+		DelimitedLineWriter out = createWriter("\t");
+		StringBuffer expected = new StringBuffer();
+
+		// place a surrogate pair across the end of the buffer
+		StringBuffer field = new StringBuffer();
+		for(int i = 0; i < 8191; ++i)
+			field.append('a');
+		field.append("\ud834\udd1e");
+		out.writeField(field);
+		out.endLine();
+		expected.append(field).append('\n');
+
+		for(int i = 0; i < 5000; ++i)
+		{
+			out.writeField("\u00e9\ud834\udd1e");
+			out.writeField(i);
+			out.endLine();
+			expected.append("\u00e9\ud834\udd1e\t").append(i)
+				.append('\n');
+		}
+
+		assertEquals(expected.toString(), getOutput(out));
+	}
+
+	public void testFlushLines() throws Exception
+	{
+		DelimitedLineWriter out = createWriter(",");
+		out.setFlushLines(2);
+		out.writeField("a");
+		out.endLine();
+		assertEquals(0, _bytes.size());
+		out.writeField("b");
+		out.endLine();
+		assertEquals(4, _bytes.size());
+	}
+
+	public DelimitedLineWriterTest(String testname)
+	{
+		super(testname);
+	}
+}
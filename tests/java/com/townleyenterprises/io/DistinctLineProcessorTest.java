@@ -0,0 +1,227 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	DistinctLineProcessorTest.java
+// Created:	Sun Oct 18 07:03:51 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class DistinctLineProcessorTest extends TestCase
+{
+	private static class Collector extends AbstractLineProcessor
+	{
+		public void processLine(String line) throws Exception
+		{
+			super.processLine(line);
+			lines.add(line);
+		}
+
+		public void reset()
+		{
+			super.reset();
+			lines.clear();
+		}
+
+		List lines = new ArrayList();
+	}
+
+	private static File createFile(int count, List lines)
+			throws Exception
+	{
+		Random rand = new Random(5);
+		for(int i = 0; i < count; ++i)
+		{
+			// key|name|sequence
+			int k = rand.nextInt(count / 4);
+			lines.add("k" + k + "|name" + (k % 3) + "|" + i);
+		}
+
+		return DataFiles.createFile("dlp", lines);
+	}
+
+	private void checkDistinct(int count, long expected) throws Exception
+	{
+		List lines = new ArrayList();
+		File df = createFile(count, lines);
+
+		List distinct = new ArrayList();
+		Set keys = new HashSet();
+		for(int i = 0; i < lines.size(); ++i)
+		{
+			String line = (String)lines.get(i);
+			String[] f = line.split("\\|");
+			if(keys.add(f[0] + "|" + f[1]))
+				distinct.add(line);
+		}
+
+		Collector c = new Collector();
+		DistinctLineProcessor lp = new DistinctLineProcessor("|",
+				new int[] { 1, 0 }, c, expected);
+		new TextFileProcessor(df.getPath()).processFile(lp);
+
+		assertEquals(count, lp.getLineCount());
+		assertEquals(distinct, c.lines);
+		assertEquals(distinct.size(), lp.getDistinctCount());
+		assertEquals(count - distinct.size(), lp.getDuplicateCount());
+	}
+
+	public void testDistinct() throws Exception
+	{
+		checkDistinct(100000, 100000);
+	}
+
+	public void testSaturatedFilter() throws Exception
+	{
+		// a filter sized for far fewer keys reports most new keys
+		// as seen, so the exact set has to confirm them
+		checkDistinct(100000, 100);
+	}
+
+	public void testWholeLine() throws Exception
+	{
+		File df = DataFiles.createFile("dlp",
+				"a|1\nb|1\na|1\n\na|2\na\na|1|\nb|1\na\n");
+
+		Collector c = new Collector();
+		DistinctLineProcessor lp = new DistinctLineProcessor("|", null,
+				c, 10);
+		new TextFileProcessor(df.getPath()).processFile(lp);
+
+		List expected = new ArrayList();
+		expected.add("a|1");
+		expected.add("b|1");
+		expected.add("a|2");
+		expected.add("a");
+		expected.add("a|1|");
+		assertEquals(expected, c.lines);
+		assertEquals(3, lp.getDuplicateCount());
+
+		lp.reset();
+		assertTrue(c.lines.isEmpty());
+		assertEquals(0, lp.getDistinctCount());
+	}
+
+	public void testMissingKeys() throws Exception
+	{
+		File df = DataFiles.createFile("dlp",
+				"a\na|\na||x\n|a\n||\n|\n");
+
+		Collector c = new Collector();
+		DistinctLineProcessor lp = new DistinctLineProcessor("|",
+				new int[] { 0, 1 }, c, 10);
+		new TextFileProcessor(df.getPath()).processFile(lp);
+
+		// a missing column is the same as an empty one
+		List expected = new ArrayList();
+		expected.add("a");
+		expected.add("|a");
+		expected.add("||");
+		assertEquals(expected, c.lines);
+	}
+
+	public void testMerge() throws Exception
+	{
+		DistinctLineProcessor lp = new DistinctLineProcessor("|", null,
+				new Collector(), 10);
+		try
+		{
+			lp.merge(new DistinctLineProcessor("|", null,
+					new Collector(), 10));
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+	}
+
+	public void testParallelRefused() throws Exception
+	{
+		// large enough to be split into several regions
+		File df = createFile(200000, new ArrayList());
+		final Collector c = new Collector();
+		LineProcessorFactory factory = new LineProcessorFactory() {
+			public LineProcessor createLineProcessor()
+			{
+				return new DistinctLineProcessor("|", null,
+					c, 10);
+			}
+		};
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		try
+		{
+			fp.processFile(factory, 4);
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+
+		try
+		{
+			fp.processFilePipelined(factory, 2);
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+		assertEquals(0, c.getLineCount());
+	}
+
+	public DistinctLineProcessorTest(String testname)
+	{
+		super(testname);
+	}
+}
@@ -0,0 +1,198 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	FileStatisticsTest.java
+// Created:	Sun Oct 18 07:12:30 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class FileStatisticsTest extends TestCase
+{
+	private static File createFile(byte[] data) throws Exception
+	{
+		File df = File.createTempFile("fst", ".txt");
+		df.deleteOnExit();
+		OutputStream out = new FileOutputStream(df);
+		out.write(data);
+		out.close();
+
+		return df;
+	}
+
+	private static void checkStatistics(byte[] data, int threads)
+			throws Exception
+	{
+		// count the lines the slow way
+		long lines = 0;
+		long empty = 0;
+		long longest = 0;
+		long content = 0;
+		long delims = 0;
+		int len = 0;
+		for(int i = 0; i < data.length; ++i)
+		{
+			byte b = data[i];
+			if(b == '\r' || b == '\n')
+			{
+				++lines;
+				if(len == 0)
+					++empty;
+				longest = Math.max(longest, len);
+				content += len;
+				len = 0;
+				if(b == '\r' && i + 1 < data.length
+						&& data[i + 1] == '\n')
+					++i;
+				continue;
+			}
+			if(b == '|')
+				++delims;
+			++len;
+		}
+		if(len > 0)
+		{
+			++lines;
+			longest = Math.max(longest, len);
+			content += len;
+		}
+
+		File df = createFile(data);
+		FileStatistics stats = FileStatistics.scan(df.getPath(), "|",
+				threads);
+		assertEquals(data.length, stats.getByteCount());
+		assertEquals(lines, stats.getLineCount());
+		assertEquals(empty, stats.getEmptyLineCount());
+		assertEquals(longest, stats.getLongestLine());
+		if(lines > 0)
+		{
+			assertEquals((double)content / lines,
+				stats.getAverageLineLength(), 1e-9);
+		}
+		if(lines > empty)
+		{
+			assertEquals(1 + (double)delims / (lines - empty),
+				stats.getAverageFieldCount(), 1e-9);
+		}
+
+		// the same lines are seen by TextFileProcessor
+		TextFileProcessor fp = new TextFileProcessor(df.getPath(),
+				"iso-8859-1");
+		AbstractLineProcessor lp = new AbstractLineProcessor() {
+		};
+		fp.processFile(lp);
+		assertEquals(lines, lp.getLineCount());
+	}
+
+	public void testSegments() throws Exception
+	{
+		// long lines and runs of terminators make lines and
+		// carriage return/line feed pairs cross the segments
+		Random rand = new Random(13);
+		byte[] data = new byte[5 * 1024 * 1024 + 17];
+		for(int i = 0; i < data.length; ++i)
+		{
+			int r = rand.nextInt(100);
+			if(r < 2)
+				data[i] = '\r';
+			else if(r < 4)
+				data[i] = '\n';
+			else if(r < 10)
+				data[i] = '|';
+			else
+				data[i] = (byte)('a' + r % 26);
+		}
+		for(int i = 1024 * 1024 - 1; i < data.length;
+				i += 1024 * 1024)
+		{
+			data[i] = '\r';
+			data[i + 1] = '\n';
+		}
+		for(int i = 3 * 1024 * 1024 - 5000; i < 3 * 1024 * 1024 + 5000;
+				++i)
+		{
+			data[i] = 'x';
+		}
+
+		checkStatistics(data, 1);
+		checkStatistics(data, 5);
+		checkStatistics(data, 8);
+	}
+
+	public void testSmall() throws Exception
+	{
+		checkStatistics(new byte[0], 2);
+		checkStatistics("abc".getBytes("us-ascii"), 2);
+		checkStatistics("\r\n\n\r".getBytes("us-ascii"), 2);
+		checkStatistics("a|b\r\nc||\n\nd\r".getBytes("us-ascii"), 2);
+	}
+
+	public void testNoFields() throws Exception
+	{
+		File df = createFile("a|b\n".getBytes("us-ascii"));
+		FileStatistics stats = FileStatistics.scan(df.getPath());
+		assertEquals(1, stats.getLineCount());
+		assertTrue(Double.isNaN(stats.getAverageFieldCount()));
+
+		try
+		{
+			FileStatistics.scan(df.getPath(), "||", 1);
+			fail("expected IllegalArgumentException");
+		}
+		catch(IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	public FileStatisticsTest(String testname)
+	{
+		super(testname);
+	}
+}
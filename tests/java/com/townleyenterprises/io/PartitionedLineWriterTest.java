@@ -0,0 +1,213 @@
+//////////////////////////////////////////////////////////////////////
+//
+// Copyright (c) 2026, Andrew S. Townley
+// All rights reserved.
+// 
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions
+// are met:
+// 
+//     * Redistributions of source code must retain the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer.
+// 
+//     * Redistributions in binary form must reproduce the above
+//     copyright notice, this list of conditions and the following
+//     disclaimer in the documentation and/or other materials provided
+//     with the distribution.
+// 
+//     * Neither the names Andrew Townley and Townley Enterprises,
+//     Inc. nor the names of its contributors may be used to endorse
+//     or promote products derived from this software without specific
+//     prior written permission.  
+// 
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+// FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+// COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+// INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+// (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+// SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+// HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+// STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+// ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+// OF THE POSSIBILITY OF SUCH DAMAGE.
+//
+// File:	PartitionedLineWriterTest.java
+// Created:	Sun Oct 18 07:10:38 GMT 2026
+//
+//////////////////////////////////////////////////////////////////////
+
+package com.townleyenterprises.io;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ * @author <a href="mailto:atownley@users.sourceforge.net">Andrew S. Townley</a>
+ */
+
+public final class PartitionedLineWriterTest extends TestCase
+{
+	private void checkSplit(int bufferSize, long memoryLimit)
+			throws Exception
+	{
+		Map expected = new HashMap();
+		List all = new ArrayList();
+		Random rand = new Random(9);
+		for(int i = 0; i < 20000; ++i)
+		{
+			String key = "c" + rand.nextInt(300);
+			String line = i + "|" + key + "|" + rand.nextInt(1000);
+			all.add(line);
+
+			List lines = (List)expected.get(key);
+			if(lines == null)
+			{
+				lines = new ArrayList();
+				expected.put(key, lines);
+			}
+			lines.add(line);
+		}
+
+		File df = DataFiles.createFile("plw", all);
+		File dir = DataFiles.createDirectory("plw");
+		PartitionedLineWriter lp = new PartitionedLineWriter("|", 1,
+				dir, "part-", ".txt", "us-ascii");
+		lp.setMaxOpenFiles(5);
+		lp.setBufferSize(bufferSize);
+		lp.setMemoryLimit(memoryLimit);
+		lp.setLineSeparator("\n");
+		try
+		{
+			new TextFileProcessor(df.getPath()).processFile(lp);
+		}
+		finally
+		{
+			lp.close();
+		}
+
+		assertEquals(20000, lp.getLinesWritten());
+		assertEquals(expected.size(), lp.getFileCount());
+		assertEquals(expected.size(), dir.listFiles().length);
+		for(Iterator i = expected.keySet().iterator(); i.hasNext(); )
+		{
+			String key = (String)i.next();
+			File file = lp.getFile(key);
+			assertEquals("part-" + key + ".txt", file.getName());
+			assertEquals(expected.get(key),
+					DataFiles.readLines(file));
+		}
+
+		DataFiles.deleteDirectory(dir);
+	}
+
+	public void testSplit() throws Exception
+	{
+		checkSplit(PartitionedLineWriter.DEFAULT_BUFFER_SIZE,
+			PartitionedLineWriter.DEFAULT_MEMORY_LIMIT);
+	}
+
+	public void testSmallBuffers() throws Exception
+	{
+		// lines are longer than the buffers and the buffers are
+		// regularly released
+		checkSplit(8, 20000);
+	}
+
+	public void testFileNames() throws Exception
+	{
+		File dir = DataFiles.createDirectory("plw");
+		PartitionedLineWriter lp = new PartitionedLineWriter(",", 0,
+				dir, null, null, null);
+
+		assertEquals("a_b", lp.getFile("a/b").getName());
+		assertEquals("_", lp.getFile("").getName());
+		assertEquals("_.x", lp.getFile("..x").getName());
+		assertEquals("A-1.z", lp.getFile("A-1.z").getName());
+		assertEquals(dir, lp.getFile("x").getParentFile());
+
+		// existing files are replaced and keys which map to the
+		// same file share it
+		Writer out = new FileWriter(lp.getFile("a_b"));
+		out.write("old\n");
+		out.close();
+
+		File df = DataFiles.createFile("plw",
+				"a/b,1\na_b,2\n\n,3\nx\na/b,4\n");
+
+		lp.setLineSeparator("\n");
+		new TextFileProcessor(df.getPath()).processFile(lp);
+		lp.close();
+
+		assertEquals(3, lp.getFileCount());
+		List lines = DataFiles.readLines(lp.getFile("a_b"));
+		assertEquals(3, lines.size());
+		assertEquals("a/b,1", lines.get(0));
+		assertEquals("a_b,2", lines.get(1));
+		assertEquals("a/b,4", lines.get(2));
+		lines = DataFiles.readLines(lp.getFile(""));
+		assertEquals(",3", lines.get(0));
+
+		DataFiles.deleteDirectory(dir);
+	}
+
+	public void testParallelRefused() throws Exception
+	{
+		// large enough to be split into several regions
+		List lines = new ArrayList();
+		for(int i = 0; i < 300000; ++i)
+			lines.add(i + "|c" + (i % 10));
+		File df = DataFiles.createFile("plw", lines);
+
+		final File dir = DataFiles.createDirectory("plw");
+		LineProcessorFactory factory = new LineProcessorFactory() {
+			public LineProcessor createLineProcessor()
+			{
+				return new PartitionedLineWriter("|", 1,
+					dir, null, null, null);
+			}
+		};
+
+		TextFileProcessor fp = new TextFileProcessor(df.getPath());
+		try
+		{
+			fp.processFile(factory, 4);
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+		assertEquals(0, dir.listFiles().length);
+
+		try
+		{
+			fp.processFilePipelined(factory, 2);
+			fail("expected UnsupportedOperationException");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// expected
+		}
+		assertEquals(0, dir.listFiles().length);
+
+		DataFiles.deleteDirectory(dir);
+	}
+
+	public PartitionedLineWriterTest(String testname)
+	{
+		super(testname);
+	}
+}
@@ -41,8 +41,21 @@
 
 package com.townleyenterprises.io;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import junit.framework.TestCase;
 
@@ -66,6 +79,212 @@ public final class TextFileProcessorTest extends TestCase
 		ArrayList lines = new ArrayList();
 	}
 
+	private static class SumProcessor extends AbstractLineProcessor
+	{
+		public void processLine(String line) throws Exception
+		{
+			super.processLine(line);
+			if(first == -1)
+				first = Long.parseLong(line);
+			sum += Long.parseLong(line);
+		}
+
+		public void merge(LineProcessor lp) throws Exception
+		{
+			super.merge(lp);
+			sum += ((SumProcessor)lp).sum;
+		}
+
+		long first = -1;
+		long sum = 0;
+	}
+
+	private static class SumProcessorFactory implements LineProcessorFactory
+	{
+		public LineProcessor createLineProcessor()
+		{
+			return new SumProcessor();
+		}
+	}
+
+	private static class BatchProcessor extends AbstractBatchLineProcessor
+	{
+		public void processLines(CharSequence[] batch, int count)
+				throws Exception
+		{
+			super.processLines(batch, count);
+			sizes.add(new Integer(count));
+			for(int i = 0; i < count; ++i)
+			{
+				lines.add(batch[i].toString());
+			}
+		}
+
+		ArrayList sizes = new ArrayList();
+		ArrayList lines = new ArrayList();
+	}
+
+	private static class FollowProcessor extends AbstractLineProcessor
+	{
+		public synchronized void processLine(String line)
+				throws Exception
+		{
+			super.processLine(line);
+			lines.add(line);
+			notifyAll();
+		}
+
+		public synchronized void waitFor(int count) throws Exception
+		{
+			long end = System.currentTimeMillis() + 10000;
+			while(lines.size() < count
+					&& System.currentTimeMillis() < end)
+			{
+				wait(100);
+			}
+			assertEquals(count, lines.size());
+		}
+
+		ArrayList lines = new ArrayList();
+	}
+
+	private static class Follower extends Thread
+	{
+		Follower(TextFileProcessor fp, LineProcessor lp, String cp)
+		{
+			_fp = fp;
+			_lp = lp;
+			_cp = cp;
+			start();
+		}
+
+		public void run()
+		{
+			try
+			{
+				_fp.followFile(_lp, _cp);
+			}
+			catch(Exception e)
+			{
+				error = e;
+			}
+		}
+
+		void finish() throws Exception
+		{
+			_fp.stopFollowing();
+			join(10000);
+			assertFalse(isAlive());
+			if(error != null)
+				throw error;
+		}
+
+		private final TextFileProcessor _fp;
+		private final LineProcessor _lp;
+		private final String _cp;
+		Exception error = null;
+	}
+
+	static void append(File file, String text) throws Exception
+	{
+		FileOutputStream out = new FileOutputStream(file, true);
+		out.write(text.getBytes("us-ascii"));
+		out.close();
+	}
+
+	static File createNumberFile(int count) throws Exception
+	{
+		File df = File.createTempFile("tfp", ".txt");
+		df.deleteOnExit();
+
+		OutputStream out = new BufferedOutputStream(
+				new FileOutputStream(df));
+		for(int i = 1; i <= count; ++i)
+		{
+			out.write(Integer.toString(i).getBytes("us-ascii"));
+			out.write((i % 3 == 0) ? '\r' : '\n');
+		}
+		out.close();
+
+		return df;
+	}
+
+	static byte[] readFile(File file) throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		InputStream in = new FileInputStream(file);
+		byte[] buf = new byte[8192];
+		int n;
+		while((n = in.read(buf)) != -1)
+			bytes.write(buf, 0, n);
+		in.close();
+
+		return bytes.toByteArray();
+	}
+
+	static void writeShort(OutputStream out, int v) throws Exception
+	{
+		out.write(v & 0xff);
+		out.write((v >> 8) & 0xff);
+	}
+
+	static void writeInt(OutputStream out, int v) throws Exception
+	{
+		writeShort(out, v);
+		writeShort(out, v >>> 16);
+	}
+
+	static void writeBlock(OutputStream out, byte[] data, int pos,
+			int len) throws Exception
+	{
+		byte[] cdata = new byte[len * 2 + 64];
+		Deflater def = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		def.setInput(data, pos, len);
+		def.finish();
+		int clen = def.deflate(cdata);
+		def.end();
+
+		CRC32 crc = new CRC32();
+		crc.update(data, pos, len);
+
+		out.write(new byte[] { 0x1f, (byte)0x8b, 8, 4,
+			0, 0, 0, 0, 0, (byte)0xff });
+		writeShort(out, 6);
+		out.write('B');
+		out.write('C');
+		writeShort(out, 2);
+		writeShort(out, clen + 25);
+		out.write(cdata, 0, clen);
+		writeInt(out, (int)crc.getValue());
+		writeInt(out, len);
+	}
+
+	/**
+	 * This method compresses the file in the blocked gzip format
+	 * using blocks of the specified size, followed by the empty
+	 * end of file block.
+	 */
+
+	static File createBlockGzipFile(File src, int blocksize)
+			throws Exception
+	{
+		File df = File.createTempFile("tfp", ".gz");
+		df.deleteOnExit();
+
+		byte[] data = readFile(src);
+		OutputStream out = new BufferedOutputStream(
+				new FileOutputStream(df));
+		for(int pos = 0; pos < data.length; pos += blocksize)
+		{
+			writeBlock(out, data, pos,
+				Math.min(blocksize, data.length - pos));
+		}
+		writeBlock(out, data, 0, 0);
+		out.close();
+
+		return df;
+	}
+
 	public void testSimpleParseUTF8WithDefaultEncoding() throws Exception
 	{
 		String testdata = System.getProperty("tests.data.dir");
@@ -163,6 +382,517 @@ public final class TextFileProcessorTest extends TestCase
 		assertEquals(4, lp.getLineCount());
 	}
 
+	public void testMappedParseUTF8() throws Exception
+	{
+		String testdata = System.getProperty("tests.data.dir");
+		assertNotNull(testdata);
+
+		File df = new File(testdata, "text-file-utf8.txt");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "utf-8");
+		fp.setMemoryMapped(true);
+
+		Processor lp = new Processor();
+		fp.processFile(lp);
+		
+		// check the data
+		assertEquals(4, lp.lines.size());
+		assertEquals(4, lp.getLineCount());
+		assertEquals("\u20AC4,000.00", lp.lines.get(0));
+		assertEquals("Nestl\u00E9", lp.lines.get(1));
+		assertEquals("ESPA\u00D1A", lp.lines.get(2));
+		assertEquals("Pla\u00E7a", lp.lines.get(3));
+	}
+
+	public void testMappedParseCP1252() throws Exception
+	{
+		String testdata = System.getProperty("tests.data.dir");
+		assertNotNull(testdata);
+
+		File df = new File(testdata, "text-file-cp1252.txt");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "cp1252");
+		fp.setMemoryMapped(true);
+
+		Processor lp = new Processor();
+		fp.processFile(lp);
+		
+		// check the data
+		assertEquals(4, lp.lines.size());
+		assertEquals("\u20AC4,000.00", lp.lines.get(0));
+		assertEquals("Nestl\u00E9", lp.lines.get(1));
+		assertEquals("ESPA\u00D1A", lp.lines.get(2));
+		assertEquals("Pla\u00E7a", lp.lines.get(3));
+	}
+
+	public void testMappedWindowBoundaries() throws Exception
+	{
+		File df = File.createTempFile("tfp", ".txt");
+		df.deleteOnExit();
+
+		FileOutputStream out = new FileOutputStream(df);
+		out.write("one\r\ntwo\rthree\n\nfour is longer\r\nfive"
+				.getBytes("utf-8"));
+		out.close();
+
+		String[] expected = { "one", "two", "three", "",
+					"four is longer", "five" };
+		int[] windows = { 1, 3, 4, 5, 64 };
+		for(int i = 0; i < windows.length; ++i)
+		{
+			RandomAccessFile raf = new RandomAccessFile(df, "r");
+			FileChannel fc = raf.getChannel();
+			MappedLineReader in = new MappedLineReader(fc,
+					Charset.forName("utf-8"), 0, fc.size(),
+					windows[i]);
+
+			for(int j = 0; j < expected.length; ++j)
+			{
+				assertEquals(expected[j], in.readLine());
+			}
+			assertNull(in.readLine());
+			assertEquals(fc.size(), in.getPosition());
+			raf.close();
+		}
+	}
+
+	public void testBatchProcessing() throws Exception
+	{
+		String testdata = System.getProperty("tests.data.dir");
+		assertNotNull(testdata);
+
+		File df = new File(testdata, "text-file-utf8.txt");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "utf-8");
+		fp.setBatchSize(3);
+
+		for(int i = 0; i < 2; ++i)
+		{
+			fp.setMemoryMapped(i == 1);
+			BatchProcessor lp = new BatchProcessor();
+			fp.processFile(lp);
+
+			assertEquals(4, lp.getLineCount());
+			assertEquals(2, lp.sizes.size());
+			assertEquals(new Integer(3), lp.sizes.get(0));
+			assertEquals(new Integer(1), lp.sizes.get(1));
+			assertEquals("\u20AC4,000.00", lp.lines.get(0));
+			assertEquals("Nestl\u00E9", lp.lines.get(1));
+			assertEquals("ESPA\u00D1A", lp.lines.get(2));
+			assertEquals("Pla\u00E7a", lp.lines.get(3));
+		}
+	}
+
+	public void testMappedBatchLines() throws Exception
+	{
+		int count = 10000;
+		File df = createNumberFile(count);
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setMemoryMapped(true);
+		fp.setBatchSize(256);
+
+		BatchProcessor lp = new BatchProcessor();
+		fp.processFile(lp);
+		assertEquals(count, lp.getLineCount());
+		for(int i = 0; i < count; ++i)
+		{
+			assertEquals(Integer.toString(i + 1), lp.lines.get(i));
+		}
+	}
+
+	public void testPipelinedOrdered() throws Exception
+	{
+		int count = 20000;
+		File df = createNumberFile(count);
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setBatchSize(100);
+		fp.setPipelineCapacity(2);
+
+		for(int i = 0; i < 2; ++i)
+		{
+			fp.setMemoryMapped(i == 1);
+			Processor lp = new Processor();
+			fp.processFilePipelined(lp);
+
+			assertEquals(count, lp.getLineCount());
+			for(int j = 0; j < count; ++j)
+			{
+				assertEquals(Integer.toString(j + 1),
+						lp.lines.get(j));
+			}
+		}
+	}
+
+	public void testPipelinedWorkers() throws Exception
+	{
+		int count = 50000;
+		File df = createNumberFile(count);
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setBatchSize(64);
+		fp.setPipelineCapacity(4);
+
+		SumProcessor lp = (SumProcessor)fp.processFilePipelined(
+				new SumProcessorFactory(), 3);
+		assertEquals(count, lp.getLineCount());
+		assertEquals((long)count * (count + 1) / 2, lp.sum);
+	}
+
+	public void testPipelinedError() throws Exception
+	{
+		File df = createNumberFile(10000);
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setBatchSize(10);
+		fp.setPipelineCapacity(2);
+
+		try
+		{
+			fp.processFilePipelined(new AbstractLineProcessor() {
+				public void processLine(String line)
+						throws Exception
+				{
+					if("500".equals(line))
+						throw new IllegalStateException(line);
+				}
+			});
+			fail("expected IllegalStateException");
+		}
+		catch(IllegalStateException e)
+		{
+			assertEquals("500", e.getMessage());
+		}
+	}
+
+	public void testFollowWithCheckpoint() throws Exception
+	{
+		File df = File.createTempFile("tfp", ".log");
+		df.deleteOnExit();
+		File cp = new File(df.getPath() + ".checkpoint");
+		cp.deleteOnExit();
+
+		append(df, "one\ntwo\r\nthr");
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setPollInterval(10);
+		fp.setCheckpointInterval(0);
+
+		FollowProcessor lp = new FollowProcessor();
+		Follower f = new Follower(fp, lp, cp.getPath());
+		lp.waitFor(2);
+		append(df, "ee\r");
+		append(df, "\nfour\n");
+		lp.waitFor(4);
+		f.finish();
+
+		assertEquals("one", lp.lines.get(0));
+		assertEquals("two", lp.lines.get(1));
+		assertEquals("three", lp.lines.get(2));
+		assertEquals("four", lp.lines.get(3));
+
+		FileCheckpoint c = FileCheckpoint.load(cp);
+		assertEquals(df.length(), c.getOffset());
+		assertEquals(4, c.getLineCount());
+
+		// resume from the checkpoint
+		append(df, "five\n");
+		lp = new FollowProcessor();
+		f = new Follower(fp, lp, cp.getPath());
+		lp.waitFor(1);
+		f.finish();
+
+		assertEquals(1, lp.lines.size());
+		assertEquals("five", lp.lines.get(0));
+		assertEquals(5, FileCheckpoint.load(cp).getLineCount());
+
+		// a truncated file starts again
+		FileOutputStream out = new FileOutputStream(df);
+		out.write("six\n".getBytes("us-ascii"));
+		out.close();
+		lp = new FollowProcessor();
+		f = new Follower(fp, lp, cp.getPath());
+		lp.waitFor(1);
+		f.finish();
+		assertEquals("six", lp.lines.get(0));
+	}
+
+	public void testStopBeforeFollowing() throws Exception
+	{
+		File df = File.createTempFile("tfp", ".log");
+		df.deleteOnExit();
+		append(df, "one\n");
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setPollInterval(10);
+
+		// the request is not lost if it arrives first
+		fp.stopFollowing();
+		FollowProcessor lp = new FollowProcessor();
+		Follower f = new Follower(fp, lp, null);
+		f.join(10000);
+		assertFalse(f.isAlive());
+
+		// and it only applies once
+		f = new Follower(fp, lp, null);
+		lp.waitFor(1);
+		f.finish();
+		assertEquals("one", lp.lines.get(0));
+	}
+
+	public void testParallelMerge() throws Exception
+	{
+		int count = 500000;
+		File df = createNumberFile(count);
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+
+		SumProcessor lp = (SumProcessor)fp.processFile(
+				new SumProcessorFactory(), 4);
+		assertEquals(count, lp.getLineCount());
+		assertEquals((long)count * (count + 1) / 2, lp.sum);
+		assertEquals(1, lp.first);
+	}
+
+	public void testLineIndex() throws Exception
+	{
+		int count = 100000;
+		File df = createNumberFile(count);
+		File idx = new File(df.getAbsolutePath() + ".lidx");
+		idx.deleteOnExit();
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setIndexFile(idx.getAbsolutePath());
+		fp.setIndexStride(100);
+		SumProcessor lp = new SumProcessor();
+		fp.processFile(lp);
+		assertEquals(count, lp.getLineCount());
+
+		LineIndex index = LineIndex.load(idx);
+		assertNotNull(index);
+		assertTrue(index.isCurrent(df));
+		assertEquals(count, index.getLineCount());
+		assertEquals(100, index.getStride());
+		assertEquals(1200, index.getIndexedLine(1234));
+
+		lp = new SumProcessor();
+		fp.processLines(lp, 1234, 10);
+		assertEquals(10, lp.getLineCount());
+		assertEquals(1235, lp.first);
+		assertEquals(1235 * 10 + 45, lp.sum);
+
+		lp = new SumProcessor();
+		fp.processLines(lp, count - 5, -1);
+		assertEquals(5, lp.getLineCount());
+		assertEquals(count - 4, lp.first);
+
+		BatchProcessor bp = new BatchProcessor();
+		fp.processLines(bp, 99, 3);
+		assertEquals(3, bp.getLineCount());
+		assertEquals("100", bp.lines.get(0));
+		assertEquals("102", bp.lines.get(2));
+	}
+
+	public void testLineIndexRebuilt() throws Exception
+	{
+		File df = createNumberFile(1000);
+		File idx = new File(df.getAbsolutePath() + ".lidx");
+		idx.deleteOnExit();
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setIndexFile(idx.getAbsolutePath());
+		assertEquals(1000, fp.getLineIndex().getLineCount());
+
+		append(df, "1001\n1002\n");
+		assertFalse(LineIndex.load(idx).isCurrent(df));
+		assertEquals(1002, fp.getLineIndex().getLineCount());
+		assertTrue(LineIndex.load(idx).isCurrent(df));
+
+		SumProcessor lp = new SumProcessor();
+		fp.processLines(lp, 1001, 10);
+		assertEquals(1, lp.getLineCount());
+		assertEquals(1002, lp.first);
+	}
+
+	public void testLineIndexDamaged() throws Exception
+	{
+		File df = createNumberFile(1000);
+		File idx = new File(df.getAbsolutePath() + ".lidx");
+		idx.deleteOnExit();
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setIndexFile(idx.getAbsolutePath());
+		fp.getLineIndex();
+		assertFalse(new File(idx.getPath() + ".tmp").exists());
+
+		// truncate the index as if the writer had been killed
+		byte[] data = readFile(idx);
+		OutputStream out = new FileOutputStream(idx);
+		out.write(data, 0, 30);
+		out.close();
+
+		try
+		{
+			LineIndex.load(idx);
+			fail("expected IOException");
+		}
+		catch(IOException e)
+		{
+			// expected
+		}
+
+		SumProcessor lp = new SumProcessor();
+		fp.processLines(lp, 500, 10);
+		assertEquals(10, lp.getLineCount());
+		assertEquals(501, lp.first);
+		assertEquals(1000, LineIndex.load(idx).getLineCount());
+	}
+
+	public void testGzipInput() throws Exception
+	{
+		int count = 100000;
+		byte[] data = readFile(createNumberFile(count));
+		File df = File.createTempFile("tfp", ".gz");
+		df.deleteOnExit();
+
+		// write the file as two concatenated members
+		OutputStream out = new FileOutputStream(df);
+		GZIPOutputStream gz = new GZIPOutputStream(out);
+		gz.write(data, 0, data.length / 2);
+		gz.finish();
+		gz = new GZIPOutputStream(out);
+		gz.write(data, data.length / 2, data.length - data.length / 2);
+		gz.close();
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setMemoryMapped(true);
+		SumProcessor lp = new SumProcessor();
+		fp.processFile(lp);
+		assertEquals(count, lp.getLineCount());
+		assertEquals((long)count * (count + 1) / 2, lp.sum);
+
+		lp = (SumProcessor)fp.processFile(new SumProcessorFactory(), 4);
+		assertEquals(count, lp.getLineCount());
+	}
+
+	public void testBlockGzipInput() throws Exception
+	{
+		int count = 200000;
+		File df = createBlockGzipFile(createNumberFile(count), 10000);
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setDecompressionThreads(4);
+		SumProcessor lp = new SumProcessor();
+		fp.processFile(lp);
+		assertEquals(count, lp.getLineCount());
+		assertEquals((long)count * (count + 1) / 2, lp.sum);
+		assertEquals(1, lp.first);
+
+		Processor p = new Processor();
+		fp.processFilePipelined(p);
+		assertEquals(count, p.lines.size());
+		for(int i = 0; i < count; ++i)
+		{
+			assertEquals(Integer.toString(i + 1), p.lines.get(i));
+		}
+
+		fp.setDecompressionThreads(1);
+		lp = new SumProcessor();
+		fp.processFile(lp);
+		assertEquals(count, lp.getLineCount());
+		assertEquals((long)count * (count + 1) / 2, lp.sum);
+	}
+
+	public void testBlockGzipCorrupt() throws Exception
+	{
+		File df = createBlockGzipFile(createNumberFile(10000), 1000);
+		RandomAccessFile raf = new RandomAccessFile(df, "rw");
+		raf.setLength(raf.length() - 40);
+		raf.close();
+
+		TextFileProcessor fp = new TextFileProcessor(
+				df.getAbsolutePath(), "us-ascii");
+		fp.setDecompressionThreads(2);
+		try
+		{
+			fp.processFile(new SumProcessor());
+			fail("expected IOException");
+		}
+		catch(IOException e)
+		{
+			// expected
+		}
+	}
+
+	public void testProcessFiles() throws Exception
+	{
+		File dir = File.createTempFile("tfp", ".dir");
+		dir.delete();
+		dir.mkdir();
+		dir.deleteOnExit();
+
+		long total = 0;
+		for(int i = 1; i <= 20; ++i)
+		{
+			File df = createNumberFile(i * 100);
+			File dest = new File(dir, "part-" + (i < 10 ? "0" : "") + i
+					+ ".txt");
+			df.renameTo(dest);
+			dest.deleteOnExit();
+			total += (long)i * 100 * (i * 100 + 1) / 2;
+		}
+
+		File other = new File(dir, "skip.dat");
+		append(other, "1\n");
+		other.deleteOnExit();
+
+		// a directory matching the pattern is ignored
+		File sub = new File(dir, "part-99.txt");
+		sub.mkdir();
+		sub.deleteOnExit();
+
+		FileResult[] results = TextFileProcessor.processFiles(
+				dir.getPath(), "part-*.txt", "us-ascii",
+				new SumProcessorFactory(), 4);
+		assertEquals(20, results.length);
+		for(int i = 0; i < results.length; ++i)
+		{
+			assertNull(results[i].getError());
+			assertEquals((i + 1) * 100, results[i].getLineCount());
+			assertEquals(results[i].getFile().length(),
+					results[i].getByteCount());
+		}
+		assertEquals("part-01.txt", results[0].getFile().getName());
+
+		SumProcessor lp = (SumProcessor)TextFileProcessor.mergeResults(
+					results);
+		assertEquals(total, lp.sum);
+		assertEquals(21000, lp.getLineCount());
+
+		results = TextFileProcessor.processFiles(dir.getPath(),
+				"regex:part-0[1-3]\\.txt", "us-ascii",
+				new SumProcessorFactory(), 2);
+		assertEquals(3, results.length);
+
+		// an error in one file doesn't affect the others
+		append(new File(dir, "part-02.txt"), "x\n");
+		results = TextFileProcessor.processFiles(dir.getPath(),
+				"part-0[1-3].txt", "us-ascii",
+				new SumProcessorFactory(), 2);
+		assertNull(results[0].getError());
+		assertTrue(results[1].getError() instanceof NumberFormatException);
+		assertNull(results[2].getError());
+		lp = (SumProcessor)TextFileProcessor.mergeResults(results);
+		assertEquals(400, lp.getLineCount());
+	}
+
 	public TextFileProcessorTest(String testname)
 	{
 		super(testname);